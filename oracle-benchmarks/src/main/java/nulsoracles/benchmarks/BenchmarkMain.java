@@ -0,0 +1,41 @@
+package nulsoracles.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Run the benchmarks with the gc profiler and count storage writes, both
+ * saved as JSON under target/results/ with the given label, usually the commit
+ *
+ * Usage: {@code BenchmarkMain [label] [benchmark regex]}
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String label = args.length > 0 ? args[0] : "local";
+        String include = OracleBenchmarks.class.getSimpleName() + (args.length > 1 ? "." + args[1] : "");
+        Path results = Path.of("target", "results");
+        Files.createDirectories(results);
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(results.resolve("jmh-" + label + ".json").toString())
+                .build();
+        new Runner(options).run();
+
+        StorageWrites.main(new String[]{results.resolve("storage-" + label + ".json").toString()});
+    }
+}
@@ -0,0 +1,26 @@
+package nulsoracles.benchmarks;
+
+import java.util.function.Function;
+
+/**
+ * Hot paths measured, each one run on an {@link OracleFixture}
+ */
+public enum Operation {
+
+    SUBMIT(OracleFixture::submit),
+    VOTE(OracleFixture::vote),
+    APPROVE_ROUND(OracleFixture::approveRound),
+    REJECT_ROUND(OracleFixture::rejectRound),
+    RAT_OUT(OracleFixture::ratOut),
+    READ_INFO(OracleFixture::readInfo);
+
+    private final Function<OracleFixture, Object> body;
+
+    Operation(Function<OracleFixture, Object> body) {
+        this.body = body;
+    }
+
+    public Object run(OracleFixture fixture) {
+        return body.apply(fixture);
+    }
+}
@@ -0,0 +1,95 @@
+package nulsoracles.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the contract hot paths by feeder count and history depth
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OracleBenchmarks {
+
+    @State(Scope.Thread)
+    public static class Oracle {
+
+        @Param({"10", "100", "1000"})
+        public int feeders;
+
+        @Param({"16", "256"})
+        public int history;
+
+        public OracleFixture fixture;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fixture = new OracleFixture(feeders, history);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Mix {
+
+        @Param({"0", "50", "90", "99"})
+        public int readPercent;
+    }
+
+    @Benchmark
+    public Object submitOracleInfo(Oracle oracle) {
+        return Operation.SUBMIT.run(oracle.fixture);
+    }
+
+    @Benchmark
+    public Object submitOracleInfoCheck(Oracle oracle) {
+        return Operation.VOTE.run(oracle.fixture);
+    }
+
+    /**
+     * Submit and every vote up to the quorum, one op is a round
+     */
+    @Benchmark
+    public Object approveChallenger(Oracle oracle) {
+        return Operation.APPROVE_ROUND.run(oracle.fixture);
+    }
+
+    /**
+     * Submit and every vote up to the reject quorum, one op is a round
+     */
+    @Benchmark
+    public Object rejectChallenger(Oracle oracle) {
+        return Operation.REJECT_ROUND.run(oracle.fixture);
+    }
+
+    @Benchmark
+    public Object ratOut(Oracle oracle) {
+        return Operation.RAT_OUT.run(oracle.fixture);
+    }
+
+    @Benchmark
+    public Object readInfo(Oracle oracle) {
+        return Operation.READ_INFO.run(oracle.fixture);
+    }
+
+    /**
+     * Reads and votes, readPercent of every 100 ops are reads
+     */
+    @Benchmark
+    public Object mixed(Oracle oracle, Mix mix) {
+        return oracle.fixture.mixed(mix.readPercent);
+    }
+}
@@ -0,0 +1,229 @@
+package nulsoracles.benchmarks;
+
+import io.nuls.contract.sdk.Address;
+import nulsoracles.simulation.HarnessConfig;
+import nulsoracles.simulation.OracleContract;
+import nulsoracles.simulation.OracleHarness;
+import nulsoracles.simulation.SimChain;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Oracle with a set of honest feeders and a filled history, each operation
+ * leaves it ready for the next one so it can be repeated without setup.
+ *
+ * The clock moves before each new round by the dispute window divided by
+ * the history depth, so about that many rounds stay stored and the map
+ * sizes don't drift while measuring. Transactions go straight to the
+ * {@link SimChain}, the cost of the stand-in is included and the same
+ * across commits
+ */
+public final class OracleFixture {
+
+    private static final long RAT_OUT_WINDOW = 60 * 60 * 24 * 3;
+    private static final long MIN_STEP = 60 * 20 + 1;          // Rounds expire before a 4th one is opened
+    private static final int MAX_DISSENT = 32;                  // Votes against per disputed round
+    private static final int MAX_YELLOW_CARDS = 5;
+    private static final BigInteger START_PRICE = BigInteger.valueOf(2_500_000_000L);
+    private static final BigInteger MIN_ORACLE_BALANCE = HarnessConfig.ONE_NULS.multiply(BigInteger.valueOf(10_000));
+
+    private final OracleHarness harness;
+    private final SimChain chain;
+    private final OracleContract oracle;
+    private final Address oracleAddress;
+    private final Address admin;
+    private final Address watcher;
+    private final Address reader;
+    private final BigInteger pricePerRead;
+    private final List<Address> voters = new ArrayList<>();
+    private final ArrayDeque<Dispute> disputes = new ArrayDeque<>();
+    private final long step;
+
+    private BigInteger price = START_PRICE;
+    private boolean up;
+    private int cursor;
+    private int openRound = -1;
+    private BigInteger openPrice;
+    private int owner;
+    private long operations;
+
+    public OracleFixture(int feeders, int history) {
+        harness = new OracleHarness(HarnessConfig.defaults(1));
+        chain = harness.chain();
+        chain.recordHistory(false);
+        oracle = harness.oracle();
+        oracleAddress = harness.oracleAddress();
+        admin = harness.admin();
+        watcher = harness.account("watcher");
+        reader = harness.account("reader");
+        pricePerRead = harness.config().pricePerRead();
+
+        voters.addAll(harness.seeders());
+        voters.addAll(harness.admitFeeders(feeders));
+        step = Math.max(RAT_OUT_WINDOW / history, MIN_STEP);
+
+        for (int i = 0; i < history; i++) {
+            approveRound();
+        }
+    }
+
+    public OracleHarness harness() {
+        return harness;
+    }
+
+    /**
+     * Open a round with a price outside the band, rounds left open expire
+     */
+    public Object submit() {
+        chain.advance(step);
+        BigInteger next = nextPrice();
+        send(voters.get(nextVoter(-1)), BigInteger.ZERO, () -> oracle.submitOracleInfo(next));
+        return next;
+    }
+
+    /**
+     * One approving vote, a new round is opened when the previous one
+     * reached quorum
+     */
+    public Object vote() {
+        if (openRound < 0 || !oracle.roundOpen("DEFAULT", openRound)) {
+            if (openPrice != null) {
+                price = openPrice;
+            }
+            chain.advance(step);
+            owner = nextVoter(-1);
+            openPrice = nextPrice();
+            openRound = open(owner, openPrice);
+        }
+
+        int voter = nextVoter(owner);
+        send(voters.get(voter), BigInteger.ZERO, () -> oracle.submitOracleInfoCheck(true));
+        return voter;
+    }
+
+    /**
+     * Submit and approve a round with the minimum quorum
+     */
+    public Object approveRound() {
+        chain.advance(step);
+        int roundOwner = nextVoter(-1);
+        BigInteger next = nextPrice();
+        int round = open(roundOwner, next);
+        voteUntilClosed(round, roundOwner, true);
+        price = next;
+        return round;
+    }
+
+    /**
+     * Submit a bad price and reject it, the owner yellow card is
+     * cleaned so owners never get expelled
+     */
+    public Object rejectRound() {
+        chain.advance(step);
+        int roundOwner = nextVoter(-1);
+        int round = open(roundOwner, price.shiftLeft(1));
+        voteUntilClosed(round, roundOwner, false);
+        send(admin, BigInteger.ZERO, () -> oracle.cleanYellowCards(voters.get(roundOwner)));
+        return round;
+    }
+
+    /**
+     * Rat out one vote against an approved round, a round with many
+     * votes against is run when none is left
+     */
+    public Object ratOut() {
+        if (disputes.isEmpty()) {
+            disputedRound();
+        }
+        if (chain.balance(oracleAddress).compareTo(MIN_ORACLE_BALANCE) < 0) {
+            chain.mint(oracleAddress, MIN_ORACLE_BALANCE);
+        }
+
+        Dispute dispute = disputes.poll();
+        Address offender = voters.get(dispute.voter);
+        send(watcher, BigInteger.ZERO, () -> oracle.ratOut(dispute.round, offender));
+
+        if (oracle.getYellowCards(offender) >= MAX_YELLOW_CARDS) {
+            send(admin, BigInteger.ZERO, () -> oracle.cleanYellowCards(offender));
+        }
+        return dispute;
+    }
+
+    public Object readInfo() {
+        return call(reader, pricePerRead, oracle::readInfo);
+    }
+
+    /**
+     * Read or vote, readPercent reads out of every 100 operations
+     */
+    public Object mixed(int readPercent) {
+        return (operations++ % 100 < readPercent) ? readInfo() : vote();
+    }
+
+    private void disputedRound() {
+        chain.advance(step);
+        int roundOwner = nextVoter(-1);
+        BigInteger next = nextPrice();
+        int round = open(roundOwner, next);
+
+        int dissent = Math.min(MAX_DISSENT, quorum() - 2);
+        for (int i = 0; i < dissent; i++) {
+            int voter = nextVoter(roundOwner);
+            send(voters.get(voter), BigInteger.ZERO, () -> oracle.submitOracleInfoCheck(false));
+            disputes.add(new Dispute(round, voter));
+        }
+
+        voteUntilClosed(round, roundOwner, true);
+        price = next;
+    }
+
+    private int open(int roundOwner, BigInteger roundPrice) {
+        send(voters.get(roundOwner), BigInteger.ZERO, () -> oracle.submitOracleInfo(roundPrice));
+        return oracle.roundCounter("DEFAULT") - 1;
+    }
+
+    private void voteUntilClosed(int round, int roundOwner, boolean approve) {
+        while (oracle.roundOpen("DEFAULT", round)) {
+            Address voter = voters.get(nextVoter(roundOwner));
+            send(voter, BigInteger.ZERO, () -> oracle.submitRoundCheck("DEFAULT", round, approve));
+        }
+    }
+
+    /**
+     * Prices alternate 2% above and below the last approved one, outside the 1% band
+     */
+    private BigInteger nextPrice() {
+        up = !up;
+        BigInteger move = price.divide(BigInteger.valueOf(50));
+        return up ? price.add(move) : price.subtract(move);
+    }
+
+    /**
+     * Voters are taken in turn, a round needs less votes than there are
+     * voters so nobody votes twice in the same round
+     */
+    private int nextVoter(int excluded) {
+        int voter = cursor;
+        cursor = (cursor + 1) % voters.size();
+        return (voter == excluded) ? nextVoter(excluded) : voter;
+    }
+
+    private int quorum() {
+        return oracle.validFeeders() / 2 + 1;
+    }
+
+    private void send(Address sender, BigInteger value, Runnable body) {
+        chain.send(oracleAddress, sender, value, body);
+    }
+
+    private <T> T call(Address sender, BigInteger value, Supplier<T> body) {
+        return chain.send(oracleAddress, sender, value, body);
+    }
+
+    private record Dispute(int round, int voter) {
+    }
+}
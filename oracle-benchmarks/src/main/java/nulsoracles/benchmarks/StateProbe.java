@@ -0,0 +1,118 @@
+package nulsoracles.benchmarks;
+
+import io.nuls.contract.sdk.Address;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Flattens the fields reachable from the contract into path to value
+ * entries, the entries that differ between two snapshots are the storage
+ * writes of what ran in between.
+ *
+ * Values, strings, big numbers and addresses are leaves. Collections and
+ * arrays are walked by index or key. An object reached twice is stored once,
+ * under the first path, as the node does for shared references
+ */
+public final class StateProbe {
+
+    private static final Map<Class<?>, List<Field>> FIELDS = new HashMap<>();
+
+    private StateProbe() {
+    }
+
+    public static Map<String, Object> snapshot(Object root) {
+        Map<String, Object> entries = new HashMap<>();
+        walk("", root, entries, new IdentityHashMap<>());
+        return entries;
+    }
+
+    /**
+     * @return entries changed, added or removed
+     */
+    public static int writes(Map<String, Object> before, Map<String, Object> after) {
+        int writes = 0;
+        for (Map.Entry<String, Object> entry : after.entrySet()) {
+            if (!before.containsKey(entry.getKey()) || !Objects.equals(before.get(entry.getKey()), entry.getValue())) {
+                writes++;
+            }
+        }
+        for (String key : before.keySet()) {
+            if (!after.containsKey(key)) {
+                writes++;
+            }
+        }
+        return writes;
+    }
+
+    private static void walk(String path, Object value, Map<String, Object> entries, Map<Object, String> seen) {
+        if (isLeaf(value)) {
+            entries.put(path, (value instanceof Address) ? value.toString() : value);
+            return;
+        }
+
+        String first = seen.putIfAbsent(value, path);
+        if (first != null) {
+            entries.put(path, "@" + first);
+            return;
+        }
+
+        if (value instanceof Map<?, ?> map) {
+            entries.put(path, "map");
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                walk(path + "[" + entry.getKey() + "]", entry.getValue(), entries, seen);
+            }
+        } else if (value instanceof List<?> list) {
+            entries.put(path, "list");
+            for (int i = 0; i < list.size(); i++) {
+                walk(path + "[" + i + "]", list.get(i), entries, seen);
+            }
+        } else if (value.getClass().isArray()) {
+            entries.put(path, "array");
+            for (int i = 0; i < Array.getLength(value); i++) {
+                walk(path + "[" + i + "]", Array.get(value, i), entries, seen);
+            }
+        } else {
+            entries.put(path, value.getClass().getSimpleName());
+            for (Field field : fields(value.getClass())) {
+                try {
+                    walk(path + "." + field.getName(), field.get(value), entries, seen);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    private static boolean isLeaf(Object value) {
+        return value == null
+                || value instanceof Number
+                || value instanceof String
+                || value instanceof Boolean
+                || value instanceof Character
+                || value instanceof Address
+                || value instanceof Enum<?>;
+    }
+
+    private static List<Field> fields(Class<?> type) {
+        return FIELDS.computeIfAbsent(type, t -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        });
+    }
+}
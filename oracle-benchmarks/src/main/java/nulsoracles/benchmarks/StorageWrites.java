@@ -0,0 +1,81 @@
+package nulsoracles.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Storage writes of each hot path, by feeder count and history depth,
+ * counted with {@link StateProbe} snapshots around single operations
+ */
+public final class StorageWrites {
+
+    private static final int[] FEEDERS = {10, 100, 1000};
+    private static final int[] HISTORY = {16, 256};
+    private static final int WARMUP = 3;        // Ops run before counting, first ones create records
+    private static final int RUNS = 10;
+
+    private StorageWrites() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : "target/results/storage-writes.json");
+        write(file, measure());
+        System.out.println("Storage writes saved to " + file);
+    }
+
+    public static List<Result> measure() {
+        List<Result> results = new ArrayList<>();
+        for (int feeders : FEEDERS) {
+            for (int history : HISTORY) {
+                for (Operation operation : Operation.values()) {
+                    results.add(measure(operation, feeders, history));
+                }
+            }
+        }
+        return results;
+    }
+
+    private static Result measure(Operation operation, int feeders, int history) {
+        OracleFixture fixture = new OracleFixture(feeders, history);
+        Object state = fixture.harness().oracle().state();
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run(fixture);
+        }
+
+        long total = 0;
+        int max = 0;
+        for (int i = 0; i < RUNS; i++) {
+            Map<String, Object> before = StateProbe.snapshot(state);
+            operation.run(fixture);
+            int writes = StateProbe.writes(before, StateProbe.snapshot(state));
+            total += writes;
+            max = Math.max(max, writes);
+        }
+        return new Result(operation, feeders, history, (double) total / RUNS, max);
+    }
+
+    public static void write(Path file, List<Result> results) throws IOException {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result r = results.get(i);
+            json.append(String.format(Locale.ROOT,
+                    "  {\"operation\": \"%s\", \"feeders\": %d, \"history\": %d, \"writesPerOp\": %.2f, \"maxWrites\": %d}%s%n",
+                    r.operation(), r.feeders(), r.history(), r.writesPerOp(), r.maxWrites(),
+                    i + 1 < results.size() ? "," : ""));
+        }
+        json.append("]\n");
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, json);
+    }
+
+    public record Result(Operation operation, int feeders, int history, double writesPerOp, int maxWrites) {
+    }
+}
@@ -0,0 +1,85 @@
+package nulsoracles.client;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a {@link CachingReader}, safe to read while it is used.
+ * Every miss is a paid read
+ */
+public class CacheMetrics {
+
+    final LongAdder hits = new LongAdder();
+    final LongAdder coldMisses = new LongAdder();
+    final LongAdder eventMisses = new LongAdder();
+    final LongAdder heartbeatMisses = new LongAdder();
+    final LongAdder staleServed = new LongAdder();
+    final LongAdder servedAge = new LongAdder();
+    final LongAccumulator maxServedAge = new LongAccumulator(Math::max, 0);
+
+    void served(Report report, long now) {
+        long age = Math.max(0, now - report.lastUpdated());
+        servedAge.add(age);
+        maxServedAge.accumulate(age);
+        if (report.stale()) {
+            staleServed.increment();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return coldMisses.sum() + eventMisses.sum() + heartbeatMisses.sum();
+    }
+
+    /**
+     * @return misses of a feed never read
+     */
+    public long coldMisses() {
+        return coldMisses.sum();
+    }
+
+    /**
+     * @return misses after an update event for a newer round
+     */
+    public long eventMisses() {
+        return eventMisses.sum();
+    }
+
+    /**
+     * @return misses after the cached price reached its heartbeat
+     */
+    public long heartbeatMisses() {
+        return heartbeatMisses.sum();
+    }
+
+    public long paidReads() {
+        return misses();
+    }
+
+    public double hitRatio() {
+        long reads = hits() + misses();
+        return reads == 0 ? 0 : (double) hits() / reads;
+    }
+
+    /**
+     * @return reads answered with a report flagged stale by the contract
+     */
+    public long staleServed() {
+        return staleServed.sum();
+    }
+
+    /**
+     * @return mean seconds since the served price was approved
+     */
+    public double meanServedAge() {
+        long reads = hits() + misses();
+        return reads == 0 ? 0 : (double) servedAge.sum() / reads;
+    }
+
+    public long maxServedAge() {
+        return maxServedAge.get();
+    }
+}
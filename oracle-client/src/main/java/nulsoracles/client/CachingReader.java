@@ -0,0 +1,106 @@
+package nulsoracles.client;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads feed reports through a local cache keyed by feed and round.
+ *
+ * The contract only moves a price when the market leaves the deviation band
+ * or the heartbeat passes, and every move is a round approved with an event.
+ * So a cached report stays the oracle answer until an event names a newer
+ * round or its heartbeat passes, only then is a paid read issued. A report
+ * the contract flagged stale, or past its heartbeat by the local clock, is
+ * read again after staleRetry seconds.
+ * Without events wired to {@link #updated} a cached price can trail the
+ * oracle by up to a heartbeat.
+ *
+ * Hits don't lock, concurrent misses of a feed share one paid read
+ */
+public class CachingReader {
+
+    private final OracleReads oracle;
+    private final long staleRetry;
+    private final CacheMetrics metrics = new CacheMetrics();
+    private final ConcurrentMap<String, Slot> slots = new ConcurrentHashMap<>();
+
+    public CachingReader(OracleReads oracle, long staleRetry) {
+        this.oracle = oracle;
+        this.staleRetry = staleRetry;
+    }
+
+    public Report read(String feedId) {
+        Slot slot = slots.computeIfAbsent(feedId, id -> new Slot());
+        long now = oracle.timestamp();
+
+        Cached cached = slot.cached;
+        if (cached != null && cached.fresh(slot.announced, now)) {
+            metrics.hits.increment();
+            metrics.served(cached.report, now);
+            return cached.report;
+        }
+
+        synchronized (slot) {
+            cached = slot.cached;
+            if (cached != null && cached.fresh(slot.announced, now)) {
+                metrics.hits.increment();
+                metrics.served(cached.report, now);
+                return cached.report;
+            }
+
+            if (cached == null) {
+                metrics.coldMisses.increment();
+            } else if (cached.report.round() < slot.announced) {
+                metrics.eventMisses.increment();
+            } else {
+                metrics.heartbeatMisses.increment();
+            }
+
+            // A deadline already passed is clock skew or an update about to be flagged stale
+            Report report = ReportDecoder.decode(oracle.readFeedReport(feedId));
+            long deadline = report.lastUpdated() + oracle.heartbeat(feedId);
+            slot.cached = new Cached(report, (report.stale() || deadline <= now) ? now + staleRetry : deadline);
+            metrics.served(report, now);
+            return report;
+        }
+    }
+
+    /**
+     * Update event seen, ChallengeApprovedEvent of the feed: the cached
+     * report is read again if it is older than the round
+     */
+    public void updated(String feedId, int round) {
+        Slot slot = slots.computeIfAbsent(feedId, id -> new Slot());
+        synchronized (slot) {
+            slot.announced = Math.max(slot.announced, round);
+        }
+    }
+
+    /**
+     * @return cached report, null if the feed wasn't read, without a paid read
+     */
+    public Report peek(String feedId) {
+        Slot slot = slots.get(feedId);
+        Cached cached = (slot == null) ? null : slot.cached;
+        return (cached == null) ? null : cached.report;
+    }
+
+    public CacheMetrics metrics() {
+        return metrics;
+    }
+
+    private static final class Slot {
+        volatile Cached cached;
+        volatile int announced = Integer.MIN_VALUE;
+    }
+
+    /**
+     * @param validUntil time the report must be read again at, heartbeat deadline or stale retry
+     */
+    private record Cached(Report report, long validUntil) {
+
+        boolean fresh(int announced, long now) {
+            return report.round() >= announced && now < validUntil;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package nulsoracles.client;
+
+/**
+ * Calls the client makes to the oracle
+ */
+public interface OracleReads {
+
+    /**
+     * @return chain time in seconds, the local clock is close enough
+     */
+    long timestamp();
+
+    /**
+     * Paid readFeedReport, costs pricePerRead
+     *
+     * @return encoded report
+     */
+    CharSequence readFeedReport(String feedId);
+
+    /**
+     * Free view of getFeedThresholds
+     *
+     * @return seconds after which the price is stale without an update
+     */
+    long heartbeat(String feedId);
+}
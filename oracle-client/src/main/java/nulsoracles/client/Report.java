@@ -0,0 +1,42 @@
+package nulsoracles.client;
+
+import java.math.BigInteger;
+
+/**
+ * Report returned by readFeedReport
+ *
+ * @param stale       price missed its heartbeat
+ * @param priceHigh   upper 64 bits of the 128 bit price
+ * @param priceLow    lower 64 bits of the price
+ * @param lastUpdated when the price was approved
+ * @param round       round that committed the price
+ */
+public record Report(boolean stale, long priceHigh, long priceLow, long lastUpdated, int round) {
+
+    public boolean fitsLong() {
+        return priceHigh == 0 && priceLow >= 0;
+    }
+
+    /**
+     * @return price, read without allocating when it fits a long
+     * @throws ArithmeticException if it doesn't
+     */
+    public long priceLong() {
+        if (!fitsLong()) {
+            throw new ArithmeticException("Price over 63 bits");
+        }
+        return priceLow;
+    }
+
+    public BigInteger price() {
+        if (fitsLong()) {
+            return BigInteger.valueOf(priceLow);
+        }
+        byte[] magnitude = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            magnitude[i] = (byte) (priceHigh >>> (56 - 8 * i));
+            magnitude[8 + i] = (byte) (priceLow >>> (56 - 8 * i));
+        }
+        return new BigInteger(1, magnitude);
+    }
+}
@@ -0,0 +1,66 @@
+package nulsoracles.client;
+
+/**
+ * Decodes the fixed width hex report of the contract in place, without
+ * substrings or number parsing through strings:
+ * <pre>
+ * [0,2)   version, 02
+ * [2,4)   stale flag, 00 fresh or 01 missed heartbeat
+ * [4,36)  price, 128 bits
+ * [36,52) last update timestamp, 64 bits
+ * [52,60) round that committed the price, 32 bits two's complement
+ * </pre>
+ */
+public final class ReportDecoder {
+
+    public static final int LENGTH = 60;
+    public static final int VERSION = 2;
+
+    private ReportDecoder() {
+    }
+
+    public static Report decode(CharSequence report) {
+        if (report.length() != LENGTH) {
+            throw new IllegalArgumentException("Report must be " + LENGTH + " characters, got " + report.length());
+        }
+        return decode(report, 0);
+    }
+
+    /**
+     * Decode a report starting at offset, for a report inside a larger
+     * response buffer
+     */
+    public static Report decode(CharSequence text, int offset) {
+        if (offset < 0 || text.length() - offset < LENGTH) {
+            throw new IllegalArgumentException("No report at " + offset);
+        }
+
+        int version = (int) hex(text, offset, 2);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown report version " + version);
+        }
+
+        long stale = hex(text, offset + 2, 2);
+        if (stale > 1) {
+            throw new IllegalArgumentException("Invalid stale flag " + stale);
+        }
+
+        return new Report(stale == 1,
+                hex(text, offset + 4, 16),
+                hex(text, offset + 20, 16),
+                hex(text, offset + 36, 16),
+                (int) hex(text, offset + 52, 8));
+    }
+
+    private static long hex(CharSequence text, int from, int digits) {
+        long value = 0;
+        for (int i = from; i < from + digits; i++) {
+            int digit = Character.digit(text.charAt(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Not a hex digit at " + i);
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+}
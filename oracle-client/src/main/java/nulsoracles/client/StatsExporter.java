@@ -0,0 +1,126 @@
+package nulsoracles.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Serves the getStats view of the contract, and the counters of a
+ * {@link CachingReader} if there is one, in the Prometheus text format on
+ * {@code /metrics}. The view is called at most once per minInterval
+ * milliseconds however often the endpoint is scraped
+ */
+public class StatsExporter implements AutoCloseable {
+
+    private static final String PREFIX = "nulsoracles_";
+
+    private final Supplier<String> stats;
+    private final CacheMetrics cache;
+    private final long minInterval;
+    private HttpServer server;
+
+    private StatsSnapshot last;
+    private long lastScrape;
+
+    /**
+     * @param stats answer of getStats, through the node view call
+     * @param cache counters of the local reader, null for none
+     */
+    public StatsExporter(Supplier<String> stats, CacheMetrics cache, long minInterval) {
+        this.stats = stats;
+        this.cache = cache;
+        this.minInterval = minInterval;
+    }
+
+    public void start(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        server.createContext("/metrics", this::answer);
+        server.start();
+    }
+
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /**
+     * @return metrics in the Prometheus text format
+     */
+    public synchronized String render() {
+        long now = System.currentTimeMillis();
+        if (last == null || now - lastScrape >= minInterval) {
+            last = StatsSnapshot.parse(stats.get());
+            lastScrape = now;
+        }
+
+        StringBuilder out = new StringBuilder(2048);
+        StatsSnapshot s = last;
+        metric(out, "rounds_opened_total", "counter", "Rounds opened by a submission or a report", s.roundsOpened());
+        metric(out, "rounds_approved_total", "counter", "Rounds approved by vote or report", s.roundsApproved());
+        metric(out, "rounds_rejected_total", "counter", "Rounds rejected by vote", s.roundsRejected());
+        metric(out, "round_latency_average_seconds", "gauge", "Moving average of the time from opening to approval", s.latencyAverage());
+        metric(out, "round_latency_max_seconds", "gauge", "Slowest approval", s.latencyMax());
+        metric(out, "round_latency_mean_seconds", "gauge", "Mean time from opening to approval", s.latencyMean());
+        metric(out, "vote_participation_ratio", "gauge", "Votes of closed rounds over valid feeders", s.participationBps() / 10_000.0);
+        metric(out, "round_rejection_ratio", "gauge", "Rejected rounds over rounds closed by vote", s.rejectionBps() / 10_000.0);
+        metric(out, "reads_24h", "gauge", "Paid read calls in the last 24 hours", s.reads24h());
+        metric(out, "rounds_approved_24h", "gauge", "Rounds approved in the last 24 hours", s.approved24h());
+        metric(out, "rounds_rejected_24h", "gauge", "Rounds rejected in the last 24 hours", s.rejected24h());
+        metric(out, "inactive_alerts_total", "counter", "Feeders removed as inactive", s.inactiveAlerts());
+        metric(out, "paid_reads_total", "counter", "Reads paid since deployment, view access and pushes included", s.paidReads());
+        metric(out, "treasury_fees_accrued_nuls", "gauge", "Treasury fees not claimed yet", s.accruedFees().doubleValue() / 1e8);
+        metric(out, "valid_feeders", "gauge", "Feeders counted for quorum", s.validFeeders());
+        metric(out, "chain_timestamp_seconds", "gauge", "Block time of the snapshot", s.timestamp());
+
+        if (cache != null) {
+            metric(out, "client_cache_hits_total", "counter", "Reads answered from the local cache", cache.hits());
+            metric(out, "client_cache_misses_total", "counter", "Reads that paid the oracle", cache.misses());
+            metric(out, "client_cache_stale_served_total", "counter", "Reads answered with a stale report", cache.staleServed());
+            metric(out, "client_served_age_max_seconds", "gauge", "Oldest price served", cache.maxServedAge());
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body;
+            int status;
+            try {
+                body = render().getBytes(StandardCharsets.UTF_8);
+                status = 200;
+            } catch (RuntimeException e) {
+                body = ("Stats unavailable: " + e.getMessage()).getBytes(StandardCharsets.UTF_8);
+                status = 503;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static void metric(StringBuilder out, String name, String type, String help, double value) {
+        out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+        out.append(PREFIX).append(name).append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+}
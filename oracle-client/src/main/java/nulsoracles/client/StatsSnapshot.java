@@ -0,0 +1,44 @@
+package nulsoracles.client;
+
+import java.math.BigInteger;
+
+/**
+ * Answer of the getStats view
+ *
+ * @param latencyAverage   moving average of the seconds from opening to approval
+ * @param latencyMean      mean of every approval since deployment
+ * @param participationBps votes of closed rounds over the feeders valid when they closed
+ * @param rejectionBps     rejected rounds over rounds closed by vote
+ * @param accruedFees      treasury fees not claimed yet, in NULS units of 1e-8
+ */
+public record StatsSnapshot(long roundsOpened,
+                            long roundsApproved,
+                            long roundsRejected,
+                            long latencyAverage,
+                            long latencyMax,
+                            long latencyMean,
+                            long participationBps,
+                            long rejectionBps,
+                            long reads24h,
+                            long approved24h,
+                            long rejected24h,
+                            long inactiveAlerts,
+                            long paidReads,
+                            BigInteger accruedFees,
+                            long validFeeders,
+                            long timestamp) {
+
+    public static final int FIELDS = 16;
+
+    public static StatsSnapshot parse(String stats) {
+        String[] f = stats.split(",");
+        if (f.length != FIELDS) {
+            throw new IllegalArgumentException("Expected " + FIELDS + " stats, got " + f.length);
+        }
+        return new StatsSnapshot(Long.parseLong(f[0]), Long.parseLong(f[1]), Long.parseLong(f[2]),
+                Long.parseLong(f[3]), Long.parseLong(f[4]), Long.parseLong(f[5]), Long.parseLong(f[6]),
+                Long.parseLong(f[7]), Long.parseLong(f[8]), Long.parseLong(f[9]), Long.parseLong(f[10]),
+                Long.parseLong(f[11]), Long.parseLong(f[12]), new BigInteger(f[13]), Long.parseLong(f[14]),
+                Long.parseLong(f[15]));
+    }
+}
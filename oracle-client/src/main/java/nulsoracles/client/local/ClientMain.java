@@ -0,0 +1,139 @@
+package nulsoracles.client.local;
+
+import io.nuls.contract.sdk.Address;
+import nulsoracles.client.CacheMetrics;
+import nulsoracles.client.CachingReader;
+import nulsoracles.client.Report;
+import nulsoracles.client.StatsExporter;
+import nulsoracles.simulation.ContractRevert;
+import nulsoracles.simulation.HarnessConfig;
+import nulsoracles.simulation.OracleContract;
+import nulsoracles.simulation.OracleHarness;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Consumer reading a feed through a {@link CachingReader} while feeders
+ * move the price on the real contract. The market follows a random walk,
+ * a round is submitted and approved whenever it leaves the deviation band
+ * or the heartbeat passes. Every read is checked against the contract price.
+ *
+ * Usage: {@code ClientMain [seed=1] [hours=48] [interval=5] [events=true]
+ * [metrics=false]}, one read every interval seconds, events=false leaves the
+ * cache to the heartbeat alone, metrics=true prints what the
+ * {@link StatsExporter} serves at the end
+ */
+public final class ClientMain {
+
+    private static final String FEED = "DEFAULT";
+    private static final int DEVIATION_BPS = 100;
+    private static final long HEARTBEAT = 3600;
+    private static final long STALE_RETRY = 60;
+    private static final long START_PRICE = 2_500_000_000L;
+    private static final double VOLATILITY = 0.0005;     // Per read interval
+
+    private ClientMain() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(pair[0], pair[1]);
+        }
+
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        long hours = Long.parseLong(options.getOrDefault("hours", "48"));
+        long interval = Long.parseLong(options.getOrDefault("interval", "5"));
+        boolean events = Boolean.parseBoolean(options.getOrDefault("events", "true"));
+        boolean printMetrics = Boolean.parseBoolean(options.getOrDefault("metrics", "false"));
+
+        Random random = new Random(seed);
+        OracleHarness harness = new OracleHarness(HarnessConfig.defaults(seed));
+        harness.chain().recordHistory(false);
+        harness.send("setFeedThresholds", harness.admin(), BigInteger.ZERO,
+                o -> o.setFeedThresholds(FEED, DEVIATION_BPS, HEARTBEAT, false));
+        List<Address> feeders = new ArrayList<>(harness.seeders());
+        feeders.addAll(harness.admitFeeders(4));
+
+        HarnessReads reads = new HarnessReads(harness, harness.account("consumer"));
+        CachingReader reader = new CachingReader(reads, STALE_RETRY);
+
+        double market = START_PRICE;
+        BigInteger price = null;
+        long lastUpdated = 0;
+        long updates = 0;
+        long mismatches = 0;
+        long steps = hours * 3600 / interval;
+        for (long step = 0; step < steps; step++) {
+            harness.chain().advance(interval);
+            long now = harness.chain().timestamp();
+            market *= 1 + random.nextGaussian() * VOLATILITY;
+
+            BigInteger observed = BigInteger.valueOf((long) market);
+            if (price == null || now >= lastUpdated + HEARTBEAT || outsideBand(price, observed)) {
+                Integer round = approve(harness, feeders, observed);
+                if (round != null) {
+                    price = observed;
+                    lastUpdated = now;
+                    updates++;
+                    if (events) {
+                        reader.updated(FEED, round);
+                    }
+                }
+            }
+
+            Report report = reader.read(FEED);
+            if (!report.price().equals(price)) {
+                mismatches++;
+            }
+        }
+
+        CacheMetrics metrics = reader.metrics();
+        System.out.printf("%d reads over %d h, %d price updates, events %s%n", steps, hours, updates, events);
+        System.out.printf("paid reads %d instead of %d, hit ratio %.4f%n", reads.paidReads(), steps, metrics.hitRatio());
+        System.out.printf("misses: cold %d, event %d, heartbeat %d%n",
+                metrics.coldMisses(), metrics.eventMisses(), metrics.heartbeatMisses());
+        System.out.printf("served age mean %.0f s, max %d s, stale served %d, reads behind the oracle %d%n",
+                metrics.meanServedAge(), metrics.maxServedAge(), metrics.staleServed(), mismatches);
+
+        if (printMetrics) {
+            StatsExporter exporter = new StatsExporter(() -> harness.view(harness.admin(), OracleContract::getStats),
+                    metrics, 0);
+            System.out.print(exporter.render());
+        }
+    }
+
+    private static boolean outsideBand(BigInteger price, BigInteger observed) {
+        BigInteger band = price.multiply(BigInteger.valueOf(DEVIATION_BPS)).divide(BigInteger.valueOf(10_000));
+        return observed.subtract(price).abs().compareTo(band) >= 0;
+    }
+
+    /**
+     * Submit the price and have the other feeders approve it
+     *
+     * @return round approved, null if the contract refused the price
+     */
+    private static Integer approve(OracleHarness harness, List<Address> feeders, BigInteger price) {
+        try {
+            harness.send("submitFeedInfo", feeders.get(0), BigInteger.ZERO, o -> o.submitFeedInfo(FEED, price));
+        } catch (ContractRevert e) {
+            return null;
+        }
+
+        int round = harness.oracle().roundCounter(FEED) - 1;
+        for (int i = 1; i < feeders.size() && harness.oracle().roundOpen(FEED, round); i++) {
+            harness.send("submitRoundCheck", feeders.get(i), BigInteger.ZERO,
+                    o -> o.submitRoundCheck(FEED, round, true));
+        }
+        return round;
+    }
+}
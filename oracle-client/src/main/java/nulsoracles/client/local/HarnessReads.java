@@ -0,0 +1,44 @@
+package nulsoracles.client.local;
+
+import io.nuls.contract.sdk.Address;
+import nulsoracles.client.OracleReads;
+import nulsoracles.simulation.OracleHarness;
+
+/**
+ * Reads of a consumer account against an {@link OracleHarness}, paid reads
+ * are real transactions that pay pricePerRead
+ */
+public class HarnessReads implements OracleReads {
+
+    private final OracleHarness harness;
+    private final Address consumer;
+    private long paidReads;
+
+    public HarnessReads(OracleHarness harness, Address consumer) {
+        this.harness = harness;
+        this.consumer = consumer;
+    }
+
+    @Override
+    public long timestamp() {
+        return harness.chain().timestamp();
+    }
+
+    @Override
+    public CharSequence readFeedReport(String feedId) {
+        paidReads++;
+        return harness.call("readFeedReport", consumer, harness.config().pricePerRead(),
+                o -> o.readFeedReport(feedId));
+    }
+
+    @Override
+    public long heartbeat(String feedId) {
+        String thresholds = harness.view(consumer, o -> o.getFeedThresholds(feedId));
+        int from = thresholds.indexOf(',') + 1;
+        return Long.parseLong(thresholds, from, thresholds.indexOf(',', from), 10);
+    }
+
+    public long paidReads() {
+        return paidReads;
+    }
+}
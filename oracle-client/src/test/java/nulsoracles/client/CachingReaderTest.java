@@ -0,0 +1,164 @@
+package nulsoracles.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingReaderTest {
+
+    private static final String FEED = "DEFAULT";
+    private static final long HEARTBEAT = 3600;
+    private static final long STALE_RETRY = 30;
+
+    /**
+     * Oracle whose price, round and clock are set by the test
+     */
+    static class ScriptedOracle implements OracleReads {
+        volatile long now = 10_000;
+        volatile long lastUpdated = 10_000;
+        volatile int round = 1;
+        volatile boolean stale;
+        final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public long timestamp() {
+            return now;
+        }
+
+        @Override
+        public CharSequence readFeedReport(String feedId) {
+            reads.incrementAndGet();
+            return ReportDecoderTest.report(stale, BigInteger.valueOf(1000L + round), lastUpdated, round);
+        }
+
+        @Override
+        public long heartbeat(String feedId) {
+            return HEARTBEAT;
+        }
+    }
+
+    @Test
+    void hitsAfterColdMiss() {
+        ScriptedOracle oracle = new ScriptedOracle();
+        CachingReader reader = new CachingReader(oracle, STALE_RETRY);
+
+        Report first = reader.read(FEED);
+        oracle.now += HEARTBEAT - 1;
+        assertSame(first, reader.read(FEED));
+        assertSame(first, reader.peek(FEED));
+
+        assertEquals(1, oracle.reads.get());
+        assertEquals(1, reader.metrics().coldMisses());
+        assertEquals(1, reader.metrics().hits());
+    }
+
+    @Test
+    void eventForNewerRoundMisses() {
+        ScriptedOracle oracle = new ScriptedOracle();
+        CachingReader reader = new CachingReader(oracle, STALE_RETRY);
+        reader.read(FEED);
+
+        // An event for the cached round or an older one changes nothing
+        reader.updated(FEED, 1);
+        reader.updated(FEED, 0);
+        reader.read(FEED);
+        assertEquals(1, oracle.reads.get());
+
+        oracle.round = 2;
+        oracle.lastUpdated = ++oracle.now;
+        reader.updated(FEED, 2);
+        assertEquals(2, reader.read(FEED).round());
+        assertEquals(2, reader.read(FEED).round());
+        assertEquals(2, oracle.reads.get());
+        assertEquals(1, reader.metrics().eventMisses());
+    }
+
+    @Test
+    void heartbeatExpiryMisses() {
+        ScriptedOracle oracle = new ScriptedOracle();
+        CachingReader reader = new CachingReader(oracle, STALE_RETRY);
+        reader.read(FEED);
+
+        oracle.now = oracle.lastUpdated + HEARTBEAT;
+        oracle.round = 2;
+        oracle.lastUpdated = oracle.now;
+        assertEquals(2, reader.read(FEED).round());
+        assertEquals(1, reader.metrics().heartbeatMisses());
+        assertEquals(2, oracle.reads.get());
+    }
+
+    @Test
+    void staleReportIsReadAgainAfterRetry() {
+        ScriptedOracle oracle = new ScriptedOracle();
+        oracle.stale = true;
+        oracle.lastUpdated = oracle.now - 2 * HEARTBEAT;
+        CachingReader reader = new CachingReader(oracle, STALE_RETRY);
+
+        assertTrue(reader.read(FEED).stale());
+        oracle.now += STALE_RETRY - 1;
+        reader.read(FEED);
+        assertEquals(1, oracle.reads.get());
+
+        oracle.now += 1;
+        oracle.stale = false;
+        oracle.round = 2;
+        oracle.lastUpdated = oracle.now;
+        assertFalse(reader.read(FEED).stale());
+        assertEquals(2, oracle.reads.get());
+        assertEquals(2, reader.metrics().staleServed());
+    }
+
+    @Test
+    void concurrentMissesShareOneRead() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ScriptedOracle oracle = new ScriptedOracle() {
+            @Override
+            public CharSequence readFeedReport(String feedId) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.readFeedReport(feedId);
+            }
+        };
+        CachingReader reader = new CachingReader(oracle, STALE_RETRY);
+
+        List<Thread> threads = new ArrayList<>();
+        List<Report> reports = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> reports.add(reader.read(FEED)));
+            thread.start();
+            threads.add(thread);
+        }
+
+        // One thread reads, the others wait on the feed's slot
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (threads.stream().filter(t -> t.getState() == Thread.State.BLOCKED).count() < threads.size() - 1) {
+            assertTrue(System.nanoTime() < deadline, "threads never blocked on the slot");
+            Thread.sleep(1);
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, oracle.reads.get());
+        assertEquals(8, reports.size());
+        for (Report report : reports) {
+            assertSame(reports.get(0), report);
+        }
+        assertEquals(1, reader.metrics().misses());
+        assertEquals(7, reader.metrics().hits());
+    }
+}
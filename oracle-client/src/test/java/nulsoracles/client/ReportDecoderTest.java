@@ -0,0 +1,99 @@
+package nulsoracles.client;
+
+import nulsoracles.simulation.HarnessConfig;
+import nulsoracles.simulation.OracleHarness;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportDecoderTest {
+
+    /**
+     * Report laid out as Feed encodes it
+     */
+    static String report(boolean stale, BigInteger price, long lastUpdated, int round) {
+        return "02" + (stale ? "01" : "00") + hex(price.toString(16), 32) + hex(Long.toHexString(lastUpdated), 16)
+                + hex(Integer.toHexString(round), 8);
+    }
+
+    private static String hex(String digits, int width) {
+        return "0".repeat(width - digits.length()) + digits;
+    }
+
+    @Test
+    void decodesEveryField() {
+        Report report = ReportDecoder.decode(report(true, BigInteger.valueOf(2_500_000_000L), 1_700_000_000L, 42));
+        assertTrue(report.stale());
+        assertTrue(report.fitsLong());
+        assertEquals(2_500_000_000L, report.priceLong());
+        assertEquals(1_700_000_000L, report.lastUpdated());
+        assertEquals(42, report.round());
+    }
+
+    @Test
+    void decodesPricesOver64Bits() {
+        BigInteger price = BigInteger.ONE.shiftLeft(127).add(BigInteger.valueOf(12345));
+        Report report = ReportDecoder.decode(report(false, price, 1, 1));
+        assertFalse(report.fitsLong());
+        assertEquals(price, report.price());
+        assertThrows(ArithmeticException.class, report::priceLong);
+
+        BigInteger top = BigInteger.ONE.shiftLeft(63);
+        assertEquals(top, ReportDecoder.decode(report(false, top, 1, 1)).price());
+    }
+
+    @Test
+    void negativeRoundIsTwosComplement() {
+        // No price approved yet, the contract reports round -1
+        assertEquals(-1, ReportDecoder.decode(report(false, BigInteger.ZERO, 0, -1)).round());
+        assertEquals(Integer.MIN_VALUE, ReportDecoder.decode(report(false, BigInteger.ONE, 0, Integer.MIN_VALUE)).round());
+    }
+
+    @Test
+    void refusesMalformedReports() {
+        String good = report(false, BigInteger.TEN, 100, 3);
+
+        IllegalArgumentException version = assertThrows(IllegalArgumentException.class,
+                () -> ReportDecoder.decode("01" + good.substring(2)));
+        assertEquals("Unknown report version 1", version.getMessage());
+
+        IllegalArgumentException stale = assertThrows(IllegalArgumentException.class,
+                () -> ReportDecoder.decode("0202" + good.substring(4)));
+        assertEquals("Invalid stale flag 2", stale.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> ReportDecoder.decode(good.substring(1)));
+        assertThrows(IllegalArgumentException.class, () -> ReportDecoder.decode(good + "0"));
+        assertThrows(IllegalArgumentException.class, () -> ReportDecoder.decode(good.substring(0, 59) + "g"));
+        assertThrows(IllegalArgumentException.class, () -> ReportDecoder.decode(good, 1));
+        assertThrows(IllegalArgumentException.class, () -> ReportDecoder.decode(good, -1));
+    }
+
+    @Test
+    void decodesAtOffset() {
+        String good = report(false, BigInteger.TEN, 100, 3);
+        assertEquals(ReportDecoder.decode(good), ReportDecoder.decode("V1;" + good + ";", 3));
+    }
+
+    @Test
+    void decodesContractReport() {
+        OracleHarness harness = new OracleHarness(HarnessConfig.defaults(1));
+        BigInteger price = harness.config().pricePerRead();
+        Report before = ReportDecoder.decode(harness.call("readFeedReport", harness.admin(), price,
+                o -> o.readFeedReport("DEFAULT")));
+        assertEquals(-1, before.round());
+        assertEquals(BigInteger.ZERO, before.price());
+
+        harness.send("submitFeedInfo", harness.seeders().get(0), BigInteger.ZERO,
+                o -> o.submitFeedInfo("DEFAULT", BigInteger.valueOf(2_500_000_000L)));
+        harness.send("submitRoundCheck", harness.seeders().get(1), BigInteger.ZERO,
+                o -> o.submitRoundCheck("DEFAULT", 0, true));
+        Report after = ReportDecoder.decode(harness.call("readFeedReport", harness.admin(), price,
+                o -> o.readFeedReport("DEFAULT")));
+        assertEquals(new Report(false, 0, 2_500_000_000L, harness.chain().timestamp(), 0), after);
+    }
+}
@@ -0,0 +1,46 @@
+package nulsoracles.feeder;
+
+import java.math.BigInteger;
+
+/**
+ * Node the daemon talks to
+ */
+public interface ChainClient {
+
+    /**
+     * @return timestamp of the last block
+     */
+    long timestamp();
+
+    FeedState feed(String feedId);
+
+    /**
+     * @return feeders counted for quorum, getValidFeeders of the contract
+     */
+    int validFeeders();
+
+    /**
+     * @return true if quorum is counted in stake, isStakeWeighted of the contract
+     */
+    boolean stakeWeighted();
+
+    /**
+     * @return deposits of the feeders counted for quorum, getTotalActiveStake of the contract
+     */
+    BigInteger totalActiveStake();
+
+    /**
+     * @return nonce the next transaction of the account must use
+     */
+    String nonce(String account);
+
+    /**
+     * Put the transaction in the mempool, a transaction already known is ignored
+     */
+    void send(Transaction tx);
+
+    /**
+     * @return receipt, null while the transaction is pending
+     */
+    Receipt receipt(String hash);
+}
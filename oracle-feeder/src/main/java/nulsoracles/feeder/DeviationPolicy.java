@@ -0,0 +1,46 @@
+package nulsoracles.feeder;
+
+import java.math.BigInteger;
+
+/**
+ * Deviation and heartbeat rules of the contract, checked before sending so
+ * transactions the contract would refuse are never paid for
+ */
+public final class DeviationPolicy {
+
+    public static final int MAX_OPEN_ROUNDS = 4;
+
+    private static final BigInteger BASIS_POINTS = BigInteger.valueOf(10_000);
+
+    private DeviationPolicy() {
+    }
+
+    /**
+     * Same check as Feed.canChange: first price, heartbeat passed, or price
+     * on or outside the band around the approved price
+     */
+    public static boolean canChange(FeedState feed, BigInteger price, long timestamp) {
+        if (feed.price() == null || timestamp >= feed.lastUpdated() + feed.heartbeat()) {
+            return true;
+        }
+        return price.compareTo(low(feed.price(), feed.deviationBps())) <= 0
+                || price.compareTo(high(feed.price(), feed.deviationBps())) >= 0;
+    }
+
+    /**
+     * A proposal is approved when it is strictly inside the band around the
+     * feeder own observation, the tolerance the contract gives to prices
+     */
+    public static boolean approves(BigInteger observed, BigInteger proposed, int deviationBps) {
+        return proposed.compareTo(low(observed, deviationBps)) > 0
+                && proposed.compareTo(high(observed, deviationBps)) < 0;
+    }
+
+    public static BigInteger low(BigInteger price, int deviationBps) {
+        return price.multiply(BASIS_POINTS).divide(BASIS_POINTS.add(BigInteger.valueOf(deviationBps)));
+    }
+
+    public static BigInteger high(BigInteger price, int deviationBps) {
+        return price.multiply(BASIS_POINTS).divide(BASIS_POINTS.subtract(BigInteger.valueOf(deviationBps)));
+    }
+}
@@ -0,0 +1,21 @@
+package nulsoracles.feeder;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * What the daemon reads of a feed before deciding
+ *
+ * @param price        last approved price, null before the first one
+ * @param lastUpdated  when it was approved
+ * @param deviationBps band the contract applies, volatility included
+ * @param heartbeat    seconds after which any price can be submitted
+ * @param openRounds   rounds in flight, oldest first
+ */
+public record FeedState(String id,
+                        BigInteger price,
+                        long lastUpdated,
+                        int deviationBps,
+                        long heartbeat,
+                        List<OpenRound> openRounds) {
+}
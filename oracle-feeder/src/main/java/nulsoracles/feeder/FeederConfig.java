@@ -0,0 +1,26 @@
+package nulsoracles.feeder;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Settings of a {@link FeederDaemon}
+ *
+ * @param account     feeder address, the sender of every transaction
+ * @param feeds       feeds the feeder serves
+ * @param journal     journal file, kept across restarts
+ * @param maxInFlight transactions sent and not mined at most
+ * @param waveSeconds delay between waves, about a block
+ * @param voteMargin  voters asked over the votes missing for quorum
+ */
+public record FeederConfig(String account,
+                           List<String> feeds,
+                           Path journal,
+                           int maxInFlight,
+                           long waveSeconds,
+                           int voteMargin) {
+
+    public static FeederConfig defaults(String account, List<String> feeds, Path journal) {
+        return new FeederConfig(account, feeds, journal, 16, 10, 2);
+    }
+}
@@ -0,0 +1,180 @@
+package nulsoracles.feeder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feeder run off chain, called once per block.
+ *
+ * Every feeder sees the same rounds, if all of them voted at once most votes
+ * would land after the quorum and revert. Each feeder draws a score from the
+ * round and its address and feeders vote in score order: a feeder votes once
+ * the votes cast, plus the votes still missing for quorum and a margin, reach
+ * its place. Each wave the round stays open asks for the missing votes again,
+ * making up for offline feeders and for fewer feeders drawn than expected.
+ * With a stake weighted quorum the stake still missing is counted in feeders
+ * of average stake.
+ * Submissions are spread in waves too with one expected submitter per wave,
+ * and only when the contract would accept a new price and no open round
+ * already carries an acceptable one
+ */
+public class FeederDaemon implements Closeable {
+
+    public static final long ALIVE_INTERVAL = 60 * 60 * 12;    // Keepalive when idle, inactivity is 2 days
+
+    private final FeederConfig config;
+    private final ChainClient chain;
+    private final PriceSource source;
+    private final Journal journal;
+    private final FeederMetrics metrics = new FeederMetrics();
+    private final TxPipeline pipeline;
+
+    private Map<String, Long> firstSeen = new HashMap<>();
+    private Map<String, Long> submitNeeded = new HashMap<>();
+    private long lastSent;
+
+    public FeederDaemon(FeederConfig config, ChainClient chain, PriceSource source) throws IOException {
+        this.config = config;
+        this.chain = chain;
+        this.source = source;
+        this.journal = Journal.open(config.journal());
+        this.pipeline = new TxPipeline(chain, journal, metrics, config.account(), config.maxInFlight());
+        this.lastSent = chain.timestamp();
+    }
+
+    public void tick() throws IOException {
+        pipeline.poll();
+
+        long now = chain.timestamp();
+        int feeders = Math.max(1, chain.validFeeders());
+        BigInteger totalStake = chain.stakeWeighted() ? chain.totalActiveStake() : null;
+
+        Map<String, Long> seen = new HashMap<>();
+        Map<String, Long> needed = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        List<String> prices = new ArrayList<>();
+
+        for (String feedId : config.feeds()) {
+            BigInteger observed = source.price(feedId);
+            if (observed == null) {
+                continue;
+            }
+
+            FeedState feed = chain.feed(feedId);
+            boolean covered = false;
+            int open = 0;
+            for (OpenRound round : feed.openRounds()) {
+                if (round.expiresAt() <= now) {
+                    continue;
+                }
+                open++;
+
+                boolean approve = DeviationPolicy.approves(observed, round.price(), feed.deviationBps());
+                covered |= approve;
+                if (journal.ownPrice(feedId, round.price()) || journal.voted(feedId, round.id())) {
+                    continue;
+                }
+
+                String key = feedId + "#" + round.id();
+                long since = firstSeen.getOrDefault(key, now);
+                seen.put(key, since);
+
+                long waves = 1 + (now - since) / config.waveSeconds();
+                int cast = round.approvs() + round.rejects();
+                int missing = missingVotes(round, feeders, totalStake);
+                if (place(key, feeders) < cast + (missing + config.voteMargin()) * waves) {
+                    pipeline.queue(PendingTx.Kind.VOTE, feedId, round.id(), "submitRoundCheck",
+                            feedId, Integer.toString(round.id()), Boolean.toString(approve));
+                }
+            }
+
+            if (covered || open >= DeviationPolicy.MAX_OPEN_ROUNDS || pipeline.submitting(feedId)
+                    || !DeviationPolicy.canChange(feed, observed, now)) {
+                continue;
+            }
+
+            // Keyed by the approved price so a new wave order is drawn after each update
+            String key = feedId + "@" + feed.lastUpdated();
+            long since = submitNeeded.getOrDefault(key, now);
+            needed.put(key, since);
+            if (now - since >= (long) place(key, feeders) * config.waveSeconds()) {
+                ids.add(feedId);
+                prices.add(observed.toString());
+            }
+        }
+        firstSeen = seen;
+        submitNeeded = needed;
+
+        if (ids.size() == 1) {
+            pipeline.queue(PendingTx.Kind.SUBMIT, ids.get(0), -1, "submitFeedInfo", ids.get(0), prices.get(0));
+        } else if (!ids.isEmpty()) {
+            String batch = String.join(",", ids);
+            pipeline.queue(PendingTx.Kind.SUBMIT, batch, -1, "submitFeedsInfo", batch, String.join(",", prices));
+        } else if (now - lastSent >= ALIVE_INTERVAL && pipeline.idle()) {
+            pipeline.queue(PendingTx.Kind.ALIVE, "", -1, "iAmActive");
+        }
+
+        if (pipeline.hasQueued()) {
+            lastSent = now;
+        }
+        pipeline.flush();
+    }
+
+    /**
+     * @return votes the leading side still needs for quorum. When quorum is
+     *         counted in stake, the stake still needed over the average stake
+     *         of a feeder, rounded up
+     */
+    private static int missingVotes(OpenRound round, int feeders, BigInteger totalStake) {
+        if (totalStake == null || totalStake.signum() <= 0) {
+            return feeders / 2 + 1 - Math.max(round.approvs(), round.rejects());
+        }
+        // Contract wants stake * 2 > totalStake
+        BigInteger needed = totalStake.shiftRight(1).add(BigInteger.ONE)
+                .subtract(round.approvStake().max(round.rejectStake()));
+        return needed.multiply(BigInteger.valueOf(feeders)).add(totalStake).subtract(BigInteger.ONE)
+                .divide(totalStake).intValue();
+    }
+
+    /**
+     * @return place of this feeder in the order drawn for the key, between 0
+     *         and the number of feeders, one feeder expected per unit
+     */
+    private int place(String key, int feeders) {
+        return (int) (score(key + "|" + config.account()) * feeders);
+    }
+
+    /**
+     * @return uniform draw in [0, 1) every feeder can compute for any other
+     */
+    private static double score(String seed) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(seed.getBytes(StandardCharsets.UTF_8));
+            return (ByteBuffer.wrap(hash).getLong() >>> 11) * 0x1.0p-53;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public FeederMetrics metrics() {
+        return metrics;
+    }
+
+    public String account() {
+        return config.account();
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+}
@@ -0,0 +1,95 @@
+package nulsoracles.feeder;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * What the daemon sent and what it cost, reverted transactions are gas
+ * paid for nothing
+ */
+public class FeederMetrics {
+
+    private long sent;
+    private long mined;
+    private long reverted;
+    private long dropped;
+    private long submitLatency;
+    private long submitsMined;
+    private long maxSubmitLatency;
+    private final Map<String, Long> sentByKind = new TreeMap<>();
+    private final Map<String, Long> revertReasons = new TreeMap<>();
+
+    public void sent(PendingTx tx) {
+        sent++;
+        sentByKind.merge(tx.kind().name(), 1L, Long::sum);
+    }
+
+    public void mined(PendingTx tx, Receipt receipt) {
+        if (receipt.dropped()) {
+            dropped++;
+            return;
+        }
+
+        mined++;
+        if (!receipt.success()) {
+            reverted++;
+            revertReasons.merge(String.valueOf(receipt.error()), 1L, Long::sum);
+        } else if (tx.kind() == PendingTx.Kind.SUBMIT) {
+            long latency = receipt.timestamp() - tx.sentAt();
+            submitLatency += latency;
+            submitsMined++;
+            maxSubmitLatency = Math.max(maxSubmitLatency, latency);
+        }
+    }
+
+    /**
+     * Add the counters of another daemon
+     */
+    public void add(FeederMetrics other) {
+        sent += other.sent;
+        mined += other.mined;
+        reverted += other.reverted;
+        dropped += other.dropped;
+        submitLatency += other.submitLatency;
+        submitsMined += other.submitsMined;
+        maxSubmitLatency = Math.max(maxSubmitLatency, other.maxSubmitLatency);
+        other.sentByKind.forEach((k, v) -> sentByKind.merge(k, v, Long::sum));
+        other.revertReasons.forEach((k, v) -> revertReasons.merge(k, v, Long::sum));
+    }
+
+    public long sent() {
+        return sent;
+    }
+
+    public long mined() {
+        return mined;
+    }
+
+    public long reverted() {
+        return reverted;
+    }
+
+    public long dropped() {
+        return dropped;
+    }
+
+    /**
+     * @return mean seconds from deciding a submission to it being mined
+     */
+    public double meanSubmitLatency() {
+        return submitsMined == 0 ? 0 : (double) submitLatency / submitsMined;
+    }
+
+    public long maxSubmitLatency() {
+        return maxSubmitLatency;
+    }
+
+    public Map<String, Long> sentByKind() {
+        return Collections.unmodifiableMap(sentByKind);
+    }
+
+    public Map<String, Long> revertReasons() {
+        return Collections.unmodifiableMap(revertReasons);
+    }
+}
@@ -0,0 +1,265 @@
+package nulsoracles.feeder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of the daemon, a transaction is journaled before it is
+ * sent so after a crash the daemon knows what may be in flight, what it
+ * already voted and which nonce comes next.
+ *
+ * Records are framed as length, CRC32 and a tab separated payload. Replay
+ * stops at the first torn or corrupt record and cuts the file there. The
+ * file is rewritten with only the live state once it grows too long
+ */
+public class Journal implements Closeable {
+
+    private static final int MAX_RECORDS = 10_000;      // Records before compaction, at least twice the live ones
+    private static final int MAX_VOTED = 4096;          // Rounds remembered as voted
+    private static final int MAX_OWN_PRICES = 8;        // Own submissions remembered per feed
+    private static final int HEADER = 8;
+
+    private final Path file;
+    private FileChannel channel;
+    private int records;
+    private int compactAt = MAX_RECORDS;
+
+    private final Map<String, PendingTx> pending = new LinkedHashMap<>();
+    private final Set<String> voted = new LinkedHashSet<>();
+    private final Map<String, ArrayDeque<BigInteger>> ownPrices = new HashMap<>();
+    private String nextNonce;
+
+    private Journal(Path file) {
+        this.file = file;
+    }
+
+    public static Journal open(Path file) throws IOException {
+        Journal journal = new Journal(file);
+        journal.replay();
+        journal.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        return journal;
+    }
+
+    /**
+     * @return transactions journaled as sent and not known to be mined, in nonce order
+     */
+    public Collection<PendingTx> pending() {
+        return Collections.unmodifiableCollection(pending.values());
+    }
+
+    public boolean voted(String feedId, int round) {
+        return voted.contains(feedId + "#" + round);
+    }
+
+    /**
+     * @return whether the feeder submitted this price for the feed lately,
+     *         an open round with it is its own and already has its vote
+     */
+    public boolean ownPrice(String feedId, BigInteger price) {
+        ArrayDeque<BigInteger> prices = ownPrices.get(feedId);
+        return prices != null && prices.contains(price);
+    }
+
+    /**
+     * @return nonce after the last journaled transaction, null if there is none
+     */
+    public String nextNonce() {
+        return nextNonce;
+    }
+
+    /**
+     * Journal a transaction about to be sent, durable after {@link #sync()}
+     */
+    public void sent(PendingTx tx) throws IOException {
+        append(sentRecord(tx.tx().hash(), tx));
+    }
+
+    public void done(Receipt receipt) throws IOException {
+        append(List.of("D", receipt.hash(), receipt.success() ? "" : String.valueOf(receipt.error())));
+    }
+
+    /**
+     * Journal the nonce the chain expects, after dropped transactions
+     */
+    public void nonce(String nonce) throws IOException {
+        append(List.of("N", nonce));
+    }
+
+    public void sync() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void append(List<String> fields) throws IOException {
+        apply(fields.toArray(new String[0]));
+        channel.write(frame(String.join("\t", fields)));
+        if (++records > compactAt) {
+            compact();
+        }
+    }
+
+    /**
+     * Update the state with a record, the same code replays the file
+     */
+    private void apply(String[] f) {
+        switch (f[0]) {
+            case "S" -> {
+                Transaction tx = new Transaction(f[6], f[7], f[8], List.of(f).subList(10, f.length).toArray(new String[0]),
+                        new BigInteger(f[9]));
+                PendingTx p = new PendingTx(tx, PendingTx.Kind.valueOf(f[2]), f[3], Integer.parseInt(f[4]),
+                        Long.parseLong(f[5]));
+                pending.put(f[1], p);
+                nextNonce = NonceManager.nonceAfter(tx);
+                if (p.kind() == PendingTx.Kind.VOTE) {
+                    markVoted(p.feedId() + "#" + p.round());
+                } else if (p.kind() == PendingTx.Kind.SUBMIT) {
+                    String[] feeds = tx.args()[0].split(",");
+                    String[] prices = tx.args()[1].split(",");
+                    for (int i = 0; i < feeds.length; i++) {
+                        markOwn(feeds[i], new BigInteger(prices[i]));
+                    }
+                }
+            }
+            case "D" -> {
+                PendingTx p = pending.remove(f[1]);
+                // A dropped vote never reached the round, it can be sent again
+                if (p != null && p.kind() == PendingTx.Kind.VOTE && f.length > 2 && Receipt.INVALID_NONCE.equals(f[2])) {
+                    voted.remove(p.feedId() + "#" + p.round());
+                }
+            }
+            case "N" -> nextNonce = f[1];
+            case "V" -> markVoted(f[1]);
+            case "O" -> markOwn(f[1], new BigInteger(f[2]));
+            default -> throw new IllegalStateException("Unknown journal record " + f[0]);
+        }
+    }
+
+    private void markVoted(String key) {
+        voted.add(key);
+        if (voted.size() > MAX_VOTED) {
+            Iterator<String> oldest = voted.iterator();
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    private void markOwn(String feedId, BigInteger price) {
+        ArrayDeque<BigInteger> prices = ownPrices.computeIfAbsent(feedId, id -> new ArrayDeque<>());
+        prices.addLast(price);
+        if (prices.size() > MAX_OWN_PRICES) {
+            prices.removeFirst();
+        }
+    }
+
+    private void replay() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        int good = 0;
+        while (buffer.remaining() >= HEADER) {
+            int length = buffer.getInt();
+            int crc = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            if (crc(payload) != crc) {
+                break;
+            }
+            apply(new String(payload, StandardCharsets.UTF_8).split("\t", -1));
+            good = buffer.position();
+            records++;
+        }
+
+        // Drop a record torn by a crash in the middle of a write
+        if (good < buffer.capacity()) {
+            try (FileChannel truncate = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                truncate.truncate(good);
+                truncate.force(true);
+            }
+        }
+    }
+
+    /**
+     * Rewrite the file with the live state only, through a temporary file
+     * moved over the journal so a crash leaves either the old or the new one
+     */
+    private void compact() throws IOException {
+        List<String> live = new ArrayList<>();
+        for (String key : voted) {
+            live.add("V\t" + key);
+        }
+        ownPrices.forEach((feedId, prices) -> prices.forEach(p -> live.add("O\t" + feedId + "\t" + p)));
+        if (nextNonce != null) {
+            live.add("N\t" + nextNonce);
+        }
+        for (Map.Entry<String, PendingTx> entry : pending.entrySet()) {
+            live.add(String.join("\t", sentRecord(entry.getKey(), entry.getValue())));
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (String record : live) {
+                out.write(frame(record));
+            }
+            out.force(true);
+        }
+
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        records = live.size();
+        compactAt = Math.max(MAX_RECORDS, 2 * records);
+    }
+
+    private static List<String> sentRecord(String hash, PendingTx p) {
+        Transaction t = p.tx();
+        List<String> fields = new ArrayList<>(List.of("S", hash, p.kind().name(), p.feedId(),
+                Integer.toString(p.round()), Long.toString(p.sentAt()), t.sender(), t.nonce(), t.method(),
+                t.value().toString()));
+        fields.addAll(List.of(t.args()));
+        return fields;
+    }
+
+    private static ByteBuffer frame(String record) {
+        byte[] payload = record.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + payload.length);
+        buffer.putInt(payload.length).putInt(crc(payload)).put(payload).flip();
+        return buffer;
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,43 @@
+package nulsoracles.feeder;
+
+import java.math.BigInteger;
+
+/**
+ * Chains nonces locally so transactions can be sent without waiting for
+ * the previous one to be mined, the nonce of a transaction is the last
+ * 8 bytes of the hash of the one before
+ */
+public class NonceManager {
+
+    private static final int NONCE_HEX = 16;
+
+    private final String account;
+    private String next;
+
+    public NonceManager(String account, String next) {
+        this.account = account;
+        this.next = next;
+    }
+
+    public Transaction sign(String method, String[] args, BigInteger value) {
+        Transaction tx = new Transaction(account, next, method, args, value);
+        next = nonceAfter(tx);
+        return tx;
+    }
+
+    /**
+     * Continue from the nonce the chain expects, after a dropped transaction
+     */
+    public void reset(String chainNonce) {
+        next = chainNonce;
+    }
+
+    public String next() {
+        return next;
+    }
+
+    public static String nonceAfter(Transaction tx) {
+        String hash = tx.hash();
+        return hash.substring(hash.length() - NONCE_HEX);
+    }
+}
@@ -0,0 +1,11 @@
+package nulsoracles.feeder;
+
+import java.math.BigInteger;
+
+/**
+ * Round of a feed that can still be voted, with its tallies so far,
+ * in votes and in the stake of the voters
+ */
+public record OpenRound(int id, BigInteger price, int approvs, int rejects, BigInteger approvStake,
+                        BigInteger rejectStake, long expiresAt) {
+}
@@ -0,0 +1,15 @@
+package nulsoracles.feeder;
+
+/**
+ * Transaction sent and not mined yet
+ *
+ * @param feedId feed voted or submitted, comma separated for a batch submit
+ * @param round  round voted, -1 otherwise
+ * @param sentAt chain time the decision was taken
+ */
+public record PendingTx(Transaction tx, Kind kind, String feedId, int round, long sentAt) {
+
+    public enum Kind {
+        VOTE, SUBMIT, ALIVE
+    }
+}
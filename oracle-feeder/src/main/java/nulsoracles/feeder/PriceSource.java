@@ -0,0 +1,15 @@
+package nulsoracles.feeder;
+
+import java.math.BigInteger;
+
+/**
+ * Price the feeder observes for a feed, in the feed units
+ */
+@FunctionalInterface
+public interface PriceSource {
+
+    /**
+     * @return price, null if there is no trustworthy observation now
+     */
+    BigInteger price(String feedId);
+}
@@ -0,0 +1,16 @@
+package nulsoracles.feeder;
+
+/**
+ * Outcome of a transaction, a reverted one was still mined and paid gas
+ *
+ * @param error     revert message, "Invalid nonce" if it was dropped unmined
+ * @param timestamp block time it was mined at
+ */
+public record Receipt(String hash, boolean success, String error, long timestamp) {
+
+    public static final String INVALID_NONCE = "Invalid nonce";
+
+    public boolean dropped() {
+        return INVALID_NONCE.equals(error);
+    }
+}
@@ -0,0 +1,28 @@
+package nulsoracles.feeder;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Contract call signed by the feeder, the hash is computed locally so the
+ * nonce of the next transaction is known before this one is mined
+ *
+ * @param nonce last 8 bytes of the previous transaction hash of the sender, as hex
+ * @param args  call arguments, arrays are comma separated
+ */
+public record Transaction(String sender, String nonce, String method, String[] args, BigInteger value) {
+
+    public String hash() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((sender + "|" + nonce + "|" + method + "|" + value + "|" + String.join("|", args))
+                    .getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package nulsoracles.feeder;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends transactions without waiting for the previous ones to be mined.
+ *
+ * Queued transactions get chained nonces and are journaled, flush makes
+ * them durable with a single sync and sends them. When the chain drops a
+ * transaction the ones after it can't be mined either, nothing new is
+ * queued until they are all settled, then the nonce is taken again from
+ * the chain and the daemon decides again on the next tick
+ */
+public class TxPipeline {
+
+    public static final long RESEND_AFTER = 60;        // Seconds without receipt before sending again
+
+    private final ChainClient chain;
+    private final Journal journal;
+    private final FeederMetrics metrics;
+    private final String account;
+    private final int maxInFlight;
+    private final NonceManager nonces;
+    private final List<PendingTx> queued = new ArrayList<>();
+    private boolean resyncing;
+
+    public TxPipeline(ChainClient chain, Journal journal, FeederMetrics metrics, String account, int maxInFlight) {
+        this.chain = chain;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.account = account;
+        this.maxInFlight = maxInFlight;
+
+        // Transactions journaled before a crash may not have reached the node, they are sent again
+        boolean recovering = !journal.pending().isEmpty();
+        this.nonces = new NonceManager(account, recovering ? journal.nextNonce() : chain.nonce(account));
+        for (PendingTx tx : journal.pending()) {
+            chain.send(tx.tx());
+        }
+    }
+
+    public boolean full() {
+        return resyncing || journal.pending().size() + queued.size() >= maxInFlight;
+    }
+
+    /**
+     * Sign and journal a call, it is sent by the next flush
+     *
+     * @return false if too many transactions are in flight or the nonce is resyncing
+     */
+    public boolean queue(PendingTx.Kind kind, String feedId, int round, String method, String... args) throws IOException {
+        if (full()) {
+            return false;
+        }
+
+        Transaction tx = nonces.sign(method, args, BigInteger.ZERO);
+        PendingTx pending = new PendingTx(tx, kind, feedId, round, chain.timestamp());
+        journal.sent(pending);
+        queued.add(pending);
+        return true;
+    }
+
+    /**
+     * Sync the journal once for everything queued, then send it
+     */
+    public void flush() throws IOException {
+        if (queued.isEmpty()) {
+            return;
+        }
+
+        journal.sync();
+        for (PendingTx tx : queued) {
+            chain.send(tx.tx());
+            metrics.sent(tx);
+        }
+        queued.clear();
+    }
+
+    /**
+     * Collect the receipts of transactions in flight, the ones pending for
+     * long are sent again in case the node lost them
+     */
+    public void poll() throws IOException {
+        long now = chain.timestamp();
+        for (PendingTx tx : List.copyOf(journal.pending())) {
+            Receipt receipt = chain.receipt(tx.tx().hash());
+            if (receipt == null) {
+                if (now - tx.sentAt() >= RESEND_AFTER) {
+                    chain.send(tx.tx());
+                }
+                continue;
+            }
+            journal.done(receipt);
+            metrics.mined(tx, receipt);
+            resyncing |= receipt.dropped();
+        }
+
+        if (resyncing && journal.pending().isEmpty()) {
+            String nonce = chain.nonce(account);
+            nonces.reset(nonce);
+            journal.nonce(nonce);
+            resyncing = false;
+        }
+    }
+
+    /**
+     * @return whether a submission of the feed is in flight
+     */
+    public boolean submitting(String feedId) {
+        for (PendingTx tx : journal.pending()) {
+            if (tx.kind() == PendingTx.Kind.SUBMIT && List.of(tx.feedId().split(",")).contains(feedId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasQueued() {
+        return !queued.isEmpty();
+    }
+
+    public boolean idle() {
+        return journal.pending().isEmpty() && queued.isEmpty();
+    }
+}
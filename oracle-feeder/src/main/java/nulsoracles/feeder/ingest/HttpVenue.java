@@ -0,0 +1,85 @@
+package nulsoracles.feeder.ingest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Venue answering a JSON ticker over HTTP, the price is read from a field
+ * of the body and scaled to the feed decimals
+ */
+public class HttpVenue implements Venue {
+
+    private final String name;
+    private final String uriTemplate;
+    private final Map<String, String> symbols;
+    private final Pattern field;
+    private final int decimals;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    /**
+     * @param uriTemplate ticker URI, {symbol} is replaced by the venue symbol of the feed
+     * @param symbols     venue symbol of each feed, the feed id when missing
+     * @param field       JSON field holding the price, as a number or a string
+     * @param decimals    decimals of the feed units
+     */
+    public HttpVenue(String name, String uriTemplate, Map<String, String> symbols, String field, int decimals,
+                     Duration timeout, HttpClient client) {
+        this.name = name;
+        this.uriTemplate = uriTemplate;
+        this.symbols = symbols;
+        this.field = Pattern.compile("\"" + Pattern.quote(field) + "\"\\s*:\\s*\"?(-?[0-9]+(?:\\.[0-9]+)?)");
+        this.decimals = decimals;
+        this.timeout = timeout;
+        this.client = client;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Duration timeout() {
+        return timeout;
+    }
+
+    @Override
+    public BigInteger fetch(String feedId) throws IOException, InterruptedException {
+        String symbol = symbols.getOrDefault(feedId, feedId);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uriTemplate.replace("{symbol}", symbol)))
+                .timeout(timeout)
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 404) {
+            return null;
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException(name + " answered " + response.statusCode());
+        }
+
+        Matcher price = field.matcher(response.body());
+        if (!price.find()) {
+            throw new IOException(name + " sent no price");
+        }
+        return new BigDecimal(price.group(1)).movePointRight(decimals).setScale(0, RoundingMode.HALF_EVEN)
+                .toBigIntegerExact();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,181 @@
+package nulsoracles.feeder.ingest;
+
+import nulsoracles.feeder.DeviationPolicy;
+import nulsoracles.feeder.PriceSource;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asks every venue at once, each on its own virtual thread, and feeds the
+ * answers to a {@link MedianFilter} as they arrive. A venue that hasn't
+ * answered by its own timeout is cancelled and left out, so an observation
+ * takes as long as the slowest venue in time, not the sum of them. It ends
+ * sooner once the venues still pending can't move the median by more than
+ * a few basis points
+ */
+public class IngestionEngine implements PriceSource, AutoCloseable {
+
+    private static final long BASIS_POINTS = 10_000;
+
+    private final List<Venue> venues;
+    private final int minVenues;
+    private final double madLimit;
+    private final int minBandBps;
+    private final int settleBps;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param minVenues  answers kept below which there is no price
+     * @param madLimit   distance to the median, in MADs scaled to sigma, beyond which an answer is an outlier
+     * @param minBandBps distance always tolerated, for when most venues agree to the unit and the MAD is 0
+     * @param settleBps  how far the venues still pending may move the median for the observation to end
+     */
+    public IngestionEngine(List<Venue> venues, int minVenues, double madLimit, int minBandBps, int settleBps) {
+        this.venues = List.copyOf(venues);
+        this.minVenues = minVenues;
+        this.madLimit = madLimit;
+        this.minBandBps = minBandBps;
+        this.settleBps = settleBps;
+    }
+
+    public static IngestionEngine defaults(List<Venue> venues) {
+        return new IngestionEngine(venues, Math.max(1, venues.size() / 2), 3.0, 5, 5);
+    }
+
+    public Observation observe(String feedId) throws InterruptedException {
+        long start = System.nanoTime();
+        CompletionService<BigInteger> answers = new ExecutorCompletionService<>(executor);
+        Map<Future<BigInteger>, Venue> pending = new HashMap<>();
+        Map<Future<BigInteger>, Long> deadlines = new HashMap<>();
+        for (Venue venue : venues) {
+            Future<BigInteger> answer = answers.submit(() -> venue.fetch(feedId));
+            pending.put(answer, venue);
+            deadlines.put(answer, start + venue.timeout().toNanos());
+        }
+
+        MedianFilter filter = new MedianFilter(venues.size());
+        int failed = 0;
+        try {
+            while (!pending.isEmpty() && !settled(filter, pending.size())) {
+                long next = Long.MAX_VALUE;
+                for (long deadline : deadlines.values()) {
+                    next = Math.min(next, deadline);
+                }
+
+                Future<BigInteger> answer = answers.poll(Math.max(0, next - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (answer == null) {
+                    failed += expire(pending, deadlines, System.nanoTime());
+                    continue;
+                }
+                // A cancelled request is queued too, it was already counted as failed
+                deadlines.remove(answer);
+                if (pending.remove(answer) == null) {
+                    continue;
+                }
+
+                BigInteger price = price(answer);
+                if (price == null) {
+                    failed++;
+                } else {
+                    filter.add(price.longValueExact());
+                }
+            }
+        } finally {
+            pending.keySet().forEach(answer -> answer.cancel(true));
+        }
+        failed += pending.size();
+
+        int answered = filter.size();
+        if (answered == 0) {
+            return new Observation(feedId, null, 0, 0, 0, failed, System.nanoTime() - start);
+        }
+
+        long median = filter.median();
+        long price = filter.filter(madLimit, median / BASIS_POINTS * minBandBps);
+        long mad = filter.mad();
+        BigInteger result = (filter.kept() >= minVenues) ? BigInteger.valueOf(price) : null;
+        return new Observation(feedId, result, mad, answered, filter.kept(), failed, System.nanoTime() - start);
+    }
+
+    /**
+     * Vote on a round: approve when its price is inside the band around the
+     * observed price
+     *
+     * @return decision, null if there is no observed price
+     */
+    public Decision decide(String feedId, BigInteger challenger, int deviationBps) throws InterruptedException {
+        Observation observation = observe(feedId);
+        if (observation.price() == null) {
+            return null;
+        }
+        return new Decision(observation, DeviationPolicy.approves(observation.price(), challenger, deviationBps));
+    }
+
+    @Override
+    public BigInteger price(String feedId) {
+        try {
+            return observe(feedId).price();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return price the venue answered, null if it failed or is out of range
+     */
+    private static BigInteger price(Future<BigInteger> answer) throws InterruptedException {
+        try {
+            BigInteger price = answer.get();
+            return (price == null || price.signum() <= 0 || price.bitLength() >= Long.SIZE) ? null : price;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private boolean settled(MedianFilter filter, int coming) {
+        return filter.size() >= minVenues
+                && filter.spread(coming) <= filter.median() / BASIS_POINTS * settleBps;
+    }
+
+    /**
+     * Cancel the requests past their venue timeout
+     *
+     * @return requests cancelled
+     */
+    private static int expire(Map<Future<BigInteger>, Venue> pending, Map<Future<BigInteger>, Long> deadlines, long now) {
+        int expired = 0;
+        var entries = deadlines.entrySet().iterator();
+        while (entries.hasNext()) {
+            var entry = entries.next();
+            if (entry.getValue() - now <= 0) {
+                entry.getKey().cancel(true);
+                pending.remove(entry.getKey());
+                entries.remove();
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Vote the engine would send
+     */
+    public record Decision(Observation observation, boolean approve) {
+    }
+}
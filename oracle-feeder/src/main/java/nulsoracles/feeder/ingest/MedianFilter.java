@@ -0,0 +1,151 @@
+package nulsoracles.feeder.ingest;
+
+import java.util.Arrays;
+
+/**
+ * Median and median absolute deviation of samples added as they arrive.
+ *
+ * Samples are kept sorted, each one is inserted in place, so the median is
+ * read directly and the MAD is found by walking outwards from the median,
+ * where deviations on each side are already sorted. Samples far from the
+ * median are a contiguous slice at either end, the filtered median is the
+ * median of the slice left in between. Nothing is allocated after
+ * construction
+ */
+public final class MedianFilter {
+
+    public static final double MAD_TO_SIGMA = 1.4826;      // MAD of a normal distribution is 0.6745 sigma
+
+    private final long[] sorted;
+    private int size;
+    private int keptFrom;
+    private int keptTo;
+
+    public MedianFilter(int capacity) {
+        this.sorted = new long[capacity];
+    }
+
+    public void add(long sample) {
+        if (size == sorted.length) {
+            throw new IllegalStateException("Filter full");
+        }
+
+        int at = Arrays.binarySearch(sorted, 0, size, sample);
+        if (at < 0) {
+            at = -at - 1;
+        }
+        System.arraycopy(sorted, at, sorted, at + 1, size - at);
+        sorted[at] = sample;
+        size++;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long median() {
+        return median(0, size);
+    }
+
+    /**
+     * How far the median can still move when more samples come, they could
+     * all land below or all above the ones already there
+     *
+     * @return distance between the lowest and highest median possible,
+     *         Long.MAX_VALUE while the coming samples could be the majority
+     */
+    public long spread(int coming) {
+        int total = size + coming;
+        int low = (total - 1) / 2 - coming;
+        int high = total / 2;
+        if (low < 0 || high >= size) {
+            return Long.MAX_VALUE;
+        }
+        return sorted[high] - sorted[low];
+    }
+
+    /**
+     * @return median of the distances of the samples to their median
+     */
+    public long mad() {
+        if (size == 0) {
+            throw new IllegalStateException("No samples");
+        }
+
+        long median = median();
+        int left = lowerBound(median) - 1;
+        int right = left + 1;
+
+        // Deviations grow going left from the median and going right from it
+        long previous = 0;
+        for (int k = 0; ; k++) {
+            long deviation;
+            if (left < 0) {
+                deviation = sorted[right++] - median;
+            } else if (right >= size || median - sorted[left] <= sorted[right] - median) {
+                deviation = median - sorted[left--];
+            } else {
+                deviation = sorted[right++] - median;
+            }
+
+            if (k == size / 2) {
+                return (size % 2 == 1) ? deviation : previous + (deviation - previous) / 2;
+            }
+            previous = deviation;
+        }
+    }
+
+    /**
+     * Leave out the samples further than limit MADs, scaled to sigma, from
+     * the median, or further than minBand if the MAD is smaller
+     *
+     * @return median of the samples kept
+     */
+    public long filter(double limit, long minBand) {
+        long median = median();
+        long band = Math.max(minBand, (long) (limit * MAD_TO_SIGMA * mad()));
+        keptFrom = lowerBound(median - band);
+        keptTo = lowerBound(median + band + 1);
+        return median(keptFrom, keptTo);
+    }
+
+    /**
+     * @return samples kept by the last filter
+     */
+    public int kept() {
+        return keptTo - keptFrom;
+    }
+
+    private long median(int from, int to) {
+        if (to <= from) {
+            throw new IllegalStateException("No samples");
+        }
+
+        int mid = from + (to - from) / 2;
+        if ((to - from) % 2 == 1) {
+            return sorted[mid];
+        }
+        return sorted[mid - 1] + (sorted[mid] - sorted[mid - 1]) / 2;
+    }
+
+    /**
+     * @return index of the first sample not below value
+     */
+    private int lowerBound(long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,20 @@
+package nulsoracles.feeder.ingest;
+
+import java.math.BigInteger;
+
+/**
+ * Price of a feed aggregated over the venues
+ *
+ * @param price    median of the venues kept, null if fewer than the minimum answered
+ * @param mad      median absolute deviation of all answers
+ * @param answered venues that answered in time
+ * @param kept     answers left after the outlier filter
+ * @param failed   venues that timed out, failed, had no quote or weren't waited for
+ * @param nanos    time from the first request to the decision
+ */
+public record Observation(String feedId, BigInteger price, long mad, int answered, int kept, int failed, long nanos) {
+
+    public int outliers() {
+        return answered - kept;
+    }
+}
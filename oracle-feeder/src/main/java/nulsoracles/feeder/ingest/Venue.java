@@ -0,0 +1,24 @@
+package nulsoracles.feeder.ingest;
+
+import java.math.BigInteger;
+import java.time.Duration;
+
+/**
+ * Market a feeder pulls prices from
+ */
+public interface Venue {
+
+    String name();
+
+    /**
+     * @return time after which the venue is left out of the observation
+     */
+    Duration timeout();
+
+    /**
+     * Blocking fetch, each one runs on its own virtual thread
+     *
+     * @return price in feed units, null if the venue has no quote for the feed
+     */
+    BigInteger fetch(String feedId) throws Exception;
+}
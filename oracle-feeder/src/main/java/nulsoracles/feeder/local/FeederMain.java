@@ -0,0 +1,189 @@
+package nulsoracles.feeder.local;
+
+import io.nuls.contract.sdk.Address;
+import nulsoracles.feeder.FeederConfig;
+import nulsoracles.feeder.FeederDaemon;
+import nulsoracles.feeder.FeederMetrics;
+import nulsoracles.simulation.ContractRevert;
+import nulsoracles.simulation.HarnessConfig;
+import nulsoracles.simulation.OracleContract;
+import nulsoracles.simulation.OracleHarness;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Daemons of every feeder run against the real contract on a
+ * {@link LocalChain}. Markets follow a random walk and each feeder sees
+ * them with a little noise. Now and then a daemon crashes and restarts
+ * from its journal and a transaction is evicted from the mempool.
+ *
+ * Usage: {@code FeederMain [seed=1] [feeders=20] [feeds=3] [blocks=3000]
+ * [margin=2] [crashEvery=500] [evictEvery=350] [weighted=false] [dir=<temp>]},
+ * a margin at least the number of feeders makes everyone vote at once,
+ * weighted runs with the stake weighted quorum and uneven deposits
+ */
+public final class FeederMain {
+
+    private static final long START_PRICE = 2_500_000_000L;
+    private static final int[] DEVIATIONS = {100, 50, 250};
+    private static final long[] HEARTBEATS = {3600, 1800, 7200};
+    private static final double MARKET_VOLATILITY = 0.001;     // Per block
+    private static final double OBSERVATION_NOISE = 0.0002;
+
+    private FeederMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(pair[0], pair[1]);
+        }
+
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        int feederCount = Integer.parseInt(options.getOrDefault("feeders", "20"));
+        int feedCount = Integer.parseInt(options.getOrDefault("feeds", "3"));
+        int blocks = Integer.parseInt(options.getOrDefault("blocks", "3000"));
+        int margin = Integer.parseInt(options.getOrDefault("margin", "2"));
+        int crashEvery = Integer.parseInt(options.getOrDefault("crashEvery", "500"));
+        int evictEvery = Integer.parseInt(options.getOrDefault("evictEvery", "350"));
+        boolean weighted = Boolean.parseBoolean(options.getOrDefault("weighted", "false"));
+        Path dir = options.containsKey("dir") ? Path.of(options.get("dir"))
+                : Files.createTempDirectory("feeder-journals");
+
+        Random random = new Random(seed);
+        OracleHarness harness = new OracleHarness(HarnessConfig.defaults(seed));
+        harness.chain().recordHistory(false);
+
+        List<String> feeds = new ArrayList<>();
+        double[] market = new double[feedCount];
+        for (int i = 0; i < feedCount; i++) {
+            String id = (i == 0) ? "DEFAULT" : "FEED-" + i;
+            int t = i % DEVIATIONS.length;
+            if (i > 0) {
+                harness.send("addFeed", harness.admin(), BigInteger.ZERO, o -> o.addFeed(id));
+            }
+            harness.send("setFeedThresholds", harness.admin(), BigInteger.ZERO,
+                    o -> o.setFeedThresholds(id, DEVIATIONS[t], HEARTBEATS[t], false));
+            feeds.add(id);
+            market[i] = START_PRICE * (i + 1);
+        }
+
+        List<Address> accounts = new ArrayList<>(harness.seeders());
+        accounts.addAll(harness.admitFeeders(feederCount));
+        if (weighted) {
+            harness.send("setStakeWeighted", harness.admin(), BigInteger.ZERO, o -> o.setStakeWeighted(true));
+            for (Address account : accounts) {
+                BigInteger extra = HarnessConfig.ONE_NULS.multiply(BigInteger.valueOf(1 + random.nextInt(500)));
+                harness.send("depositOnBehalf", account, extra, OracleContract::depositOnBehalf);
+            }
+        }
+
+        LocalChain chain = new LocalChain(harness);
+        int n = accounts.size();
+        BigInteger[][] observed = new BigInteger[n][feedCount];
+        FeederConfig[] configs = new FeederConfig[n];
+        FeederDaemon[] daemons = new FeederDaemon[n];
+        FeederMetrics total = new FeederMetrics();
+        for (int d = 0; d < n; d++) {
+            FeederConfig defaults = FeederConfig.defaults(accounts.get(d).toString(), feeds,
+                    dir.resolve("feeder-" + d + ".journal"));
+            configs[d] = new FeederConfig(defaults.account(), feeds, defaults.journal(), defaults.maxInFlight(),
+                    defaults.waveSeconds(), margin);
+            daemons[d] = start(configs[d], chain, observed[d], feeds);
+        }
+
+        List<Integer> order = new ArrayList<>();
+        for (int d = 0; d < n; d++) {
+            order.add(d);
+        }
+
+        long crashes = 0;
+        long evictions = 0;
+        boolean evictDue = false;
+        double trackingBps = 0;
+        long samples = 0;
+        long start = System.nanoTime();
+        for (int block = 1; block <= blocks; block++) {
+            for (int f = 0; f < feedCount; f++) {
+                market[f] *= 1 + random.nextGaussian() * MARKET_VOLATILITY;
+                for (int d = 0; d < n; d++) {
+                    observed[d][f] = BigInteger.valueOf((long) (market[f] * (1 + random.nextGaussian() * OBSERVATION_NOISE)));
+                }
+            }
+
+            if (crashEvery > 0 && block % crashEvery == 0) {
+                int d = random.nextInt(n);
+                total.add(daemons[d].metrics());
+                daemons[d].close();
+                daemons[d] = start(configs[d], chain, observed[d], feeds);
+                crashes++;
+            }
+
+            Collections.shuffle(order, random);
+            for (int d : order) {
+                daemons[d].tick();
+            }
+
+            // Evict on the first block with something in the mempool
+            evictDue |= evictEvery > 0 && block % evictEvery == 0;
+            List<String> mempool = chain.mempool();
+            if (evictDue && !mempool.isEmpty()) {
+                chain.evict(mempool.get(random.nextInt(mempool.size())));
+                evictions++;
+                evictDue = false;
+            }
+            chain.mine();
+
+            for (int f = 0; f < feedCount; f++) {
+                String id = feeds.get(f);
+                try {
+                    String last = harness.view(harness.admin(), o -> o.getFeedHistory(id, 0));
+                    double price = Double.parseDouble(last.substring(0, last.indexOf(',')));
+                    trackingBps += Math.abs(price - market[f]) / market[f] * 10_000;
+                    samples++;
+                } catch (ContractRevert e) {
+                    // No approved price yet
+                }
+            }
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        for (FeederDaemon daemon : daemons) {
+            // Settle what the last block mined
+            daemon.tick();
+            total.add(daemon.metrics());
+            daemon.close();
+        }
+
+        Map<String, Long> events = harness.chain().eventCounts();
+        System.out.printf("feeders %d, feeds %d, blocks %d in %d ms, crashes %d, evictions %d%n",
+                n, feedCount, blocks, millis, crashes, evictions);
+        System.out.printf("rounds approved %d, rejected %d, mean tracking error %.1f bps%n",
+                events.getOrDefault("ChallengeApprovedEvent", 0L), events.getOrDefault("ChallengeRejectedEvent", 0L),
+                samples == 0 ? 0 : trackingBps / samples);
+        System.out.printf("sent %d %s, mined %d, reverted %d (%.1f%%), dropped %d%n",
+                total.sent(), total.sentByKind(), total.mined(), total.reverted(),
+                total.mined() == 0 ? 0 : 100.0 * total.reverted() / total.mined(), total.dropped());
+        total.revertReasons().forEach((reason, count) -> System.out.printf("  %6d  %s%n", count, reason));
+        System.out.printf("submit latency mean %.1f s, max %d s%n", total.meanSubmitLatency(), total.maxSubmitLatency());
+        System.out.println("journals in " + dir);
+    }
+
+    private static FeederDaemon start(FeederConfig config, LocalChain chain, BigInteger[] observed,
+                                      List<String> feeds) throws IOException {
+        return new FeederDaemon(config, chain, feedId -> observed[feeds.indexOf(feedId)]);
+    }
+}
@@ -0,0 +1,134 @@
+package nulsoracles.feeder.local;
+
+import nulsoracles.feeder.ingest.HttpVenue;
+import nulsoracles.feeder.ingest.IngestionEngine;
+import nulsoracles.feeder.ingest.Observation;
+import nulsoracles.feeder.ingest.Venue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link IngestionEngine} against {@link StubVenues}: honest venues with
+ * latency and a little bias, outliers, a venue slower than its timeout, one
+ * failing, one sending no price and one a price behind. Prints what each observation kept and
+ * how long it took next to asking the venues one after the other, then
+ * decides on challengers around the market price.
+ *
+ * Usage: {@code IngestMain [seed=1] [venues=12] [rounds=20] [timeout=300]}
+ */
+public final class IngestMain {
+
+    private static final String FEED = "DEFAULT";
+    private static final String SYMBOL = "NULSUSDT";
+    private static final int DECIMALS = 8;
+    private static final int DEVIATION_BPS = 100;
+
+    private IngestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(pair[0], pair[1]);
+        }
+
+        Random random = new Random(Long.parseLong(options.getOrDefault("seed", "1")));
+        int honest = Integer.parseInt(options.getOrDefault("venues", "12"));
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "20"));
+        Duration timeout = Duration.ofMillis(Long.parseLong(options.getOrDefault("timeout", "300")));
+
+        List<StubVenues.Stub> stubs = new ArrayList<>();
+        for (int i = 0; i < honest; i++) {
+            stubs.add(new StubVenues.Stub("venue-" + i, random.nextGaussian() * 0.0005, 20 + random.nextInt(120),
+                    StubVenues.Mode.OK));
+        }
+        stubs.add(new StubVenues.Stub("outlier-high", 0.05, 40, StubVenues.Mode.OK));
+        stubs.add(new StubVenues.Stub("outlier-low", -0.2, 60, StubVenues.Mode.OK));
+        stubs.add(new StubVenues.Stub("slow", 0, timeout.toMillis() * 4, StubVenues.Mode.OK));
+        stubs.add(new StubVenues.Stub("failing", 0, 30, StubVenues.Mode.ERROR));
+        stubs.add(new StubVenues.Stub("garbage", 0, 30, StubVenues.Mode.GARBAGE));
+        stubs.add(new StubVenues.Stub("stale", 0, 30, StubVenues.Mode.STALE));
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        try (StubVenues server = new StubVenues(stubs)) {
+            List<Venue> venues = new ArrayList<>();
+            for (StubVenues.Stub stub : stubs) {
+                venues.add(new HttpVenue(stub.name(), server.uri(stub.name()), Map.of(FEED, SYMBOL), "price",
+                        DECIMALS, timeout, client));
+            }
+
+            BigDecimal market = new BigDecimal("25.00000000");
+            long concurrent = 0;
+            long sequential = 0;
+            long worstError = 0;
+            try (IngestionEngine engine = IngestionEngine.defaults(venues)) {
+                // Connections and classes are set up on the first requests
+                server.price(SYMBOL, market);
+                engine.observe(FEED);
+                sequential(venues);
+
+                for (int round = 0; round < rounds; round++) {
+                    market = market.multiply(BigDecimal.valueOf(1 + random.nextGaussian() * 0.002));
+                    server.price(SYMBOL, market);
+                    BigInteger expected = market.movePointRight(DECIMALS).toBigInteger();
+
+                    Observation observation = engine.observe(FEED);
+                    concurrent += observation.nanos();
+                    sequential += sequential(venues);
+                    if (observation.price() != null) {
+                        long error = observation.price().subtract(expected).abs().multiply(BigInteger.valueOf(10_000))
+                                .divide(expected).longValue();
+                        worstError = Math.max(worstError, error);
+                    }
+                    System.out.printf("round %2d: price %s, expected %s, answered %d, kept %d, failed %d, %d ms%n",
+                            round, observation.price(), expected, observation.answered(), observation.kept(),
+                            observation.failed(), observation.nanos() / 1_000_000);
+                }
+
+                BigInteger observed = market.movePointRight(DECIMALS).toBigInteger();
+                for (int bps : new int[]{-150, -50, 0, 50, 150}) {
+                    BigInteger challenger = observed.multiply(BigInteger.valueOf(10_000 + bps)).divide(BigInteger.valueOf(10_000));
+                    IngestionEngine.Decision decision = engine.decide(FEED, challenger, DEVIATION_BPS);
+                    System.out.printf("challenger %+d bps: %s in %d ms%n", bps,
+                            decision == null ? "no price" : decision.approve() ? "approve" : "reject",
+                            decision == null ? 0 : decision.observation().nanos() / 1_000_000);
+                }
+            }
+
+            System.out.printf("mean observation %d ms concurrent, %d ms one venue after the other, worst error %d bps%n",
+                    concurrent / rounds / 1_000_000, sequential / rounds / 1_000_000, worstError);
+        }
+    }
+
+    /**
+     * @return nanoseconds to ask each venue in turn, waiting at most its timeout
+     */
+    private static long sequential(List<Venue> venues) {
+        long start = System.nanoTime();
+        for (Venue venue : venues) {
+            try {
+                venue.fetch(FEED);
+            } catch (Exception e) {
+                // Timed out or failed, the time spent still counts
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
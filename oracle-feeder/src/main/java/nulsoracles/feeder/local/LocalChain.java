@@ -0,0 +1,151 @@
+package nulsoracles.feeder.local;
+
+import io.nuls.contract.sdk.Address;
+import nulsoracles.feeder.ChainClient;
+import nulsoracles.feeder.FeedState;
+import nulsoracles.feeder.NonceManager;
+import nulsoracles.feeder.OpenRound;
+import nulsoracles.feeder.Receipt;
+import nulsoracles.feeder.Transaction;
+import nulsoracles.simulation.ContractRevert;
+import nulsoracles.simulation.OracleContract;
+import nulsoracles.simulation.OracleHarness;
+import nulsoracles.simulation.SimChain;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Node over an {@link OracleHarness}: a mempool mined on demand, nonces
+ * checked like NULS does and receipts kept for the daemons to poll
+ */
+public class LocalChain implements ChainClient {
+
+    public static final String GENESIS_NONCE = "0000000000000000";
+
+    private final OracleHarness harness;
+    private final Map<String, String> nonces = new HashMap<>();
+    private final Map<String, Transaction> mempool = new LinkedHashMap<>();
+    private final Map<String, Receipt> receipts = new HashMap<>();
+
+    public LocalChain(OracleHarness harness) {
+        this.harness = harness;
+    }
+
+    @Override
+    public long timestamp() {
+        return harness.chain().timestamp();
+    }
+
+    @Override
+    public FeedState feed(String feedId) {
+        Address reader = harness.admin();
+        String[] thresholds = harness.view(reader, o -> o.getFeedThresholds(feedId)).split(",");
+
+        BigInteger price = null;
+        long lastUpdated = 0;
+        try {
+            String[] last = harness.view(reader, o -> o.getFeedHistory(feedId, 0)).split(",");
+            price = new BigInteger(last[0]);
+            lastUpdated = Long.parseLong(last[1]);
+        } catch (ContractRevert e) {
+            // No approved price yet
+        }
+
+        List<OpenRound> rounds = new ArrayList<>();
+        for (int id : harness.view(reader, o -> List.copyOf(o.getOpenRounds(feedId)))) {
+            String[] round = harness.view(reader, o -> o.getRound(feedId, id)).split(",");
+            rounds.add(new OpenRound(id, new BigInteger(round[0]), Integer.parseInt(round[1]),
+                    Integer.parseInt(round[2]), new BigInteger(round[5]), new BigInteger(round[6]),
+                    Long.parseLong(round[3])));
+        }
+
+        return new FeedState(feedId, price, lastUpdated, Integer.parseInt(thresholds[4]),
+                Long.parseLong(thresholds[1]), rounds);
+    }
+
+    @Override
+    public int validFeeders() {
+        return harness.view(harness.admin(), OracleContract::getValidFeeders);
+    }
+
+    @Override
+    public boolean stakeWeighted() {
+        return harness.view(harness.admin(), OracleContract::isStakeWeighted);
+    }
+
+    @Override
+    public BigInteger totalActiveStake() {
+        return harness.view(harness.admin(), OracleContract::getTotalActiveStake);
+    }
+
+    @Override
+    public String nonce(String account) {
+        return nonces.getOrDefault(account, GENESIS_NONCE);
+    }
+
+    @Override
+    public void send(Transaction tx) {
+        String hash = tx.hash();
+        if (!receipts.containsKey(hash)) {
+            mempool.putIfAbsent(hash, tx);
+        }
+    }
+
+    @Override
+    public Receipt receipt(String hash) {
+        return receipts.get(hash);
+    }
+
+    /**
+     * Forget a transaction as a node whose mempool overflowed would, the
+     * ones chained after it are dropped when mined
+     */
+    public boolean evict(String hash) {
+        return mempool.remove(hash) != null;
+    }
+
+    public List<String> mempool() {
+        return List.copyOf(mempool.keySet());
+    }
+
+    /**
+     * Move the clock a block and run the mempool in arrival order. A
+     * transaction whose nonce isn't the one expected is dropped, a reverted
+     * one still takes its nonce
+     */
+    public void mine() {
+        harness.chain().advance(SimChain.BLOCK_TIME);
+        long now = timestamp();
+
+        for (Transaction tx : mempool.values()) {
+            String hash = tx.hash();
+            if (!tx.nonce().equals(nonce(tx.sender()))) {
+                receipts.put(hash, new Receipt(hash, false, Receipt.INVALID_NONCE, now));
+                continue;
+            }
+
+            String error = harness.trySend(tx.method(), new Address(tx.sender()), tx.value(), o -> execute(o, tx));
+            nonces.put(tx.sender(), NonceManager.nonceAfter(tx));
+            receipts.put(hash, new Receipt(hash, error == null, error, now));
+        }
+        mempool.clear();
+    }
+
+    private static void execute(OracleContract oracle, Transaction tx) {
+        String[] a = tx.args();
+        switch (tx.method()) {
+            case "submitFeedInfo" -> oracle.submitFeedInfo(a[0], new BigInteger(a[1]));
+            case "submitFeedsInfo" -> oracle.submitFeedsInfo(a[0].split(","),
+                    Arrays.stream(a[1].split(",")).map(BigInteger::new).toArray(BigInteger[]::new));
+            case "submitRoundCheck" -> oracle.submitRoundCheck(a[0], Integer.parseInt(a[1]), Boolean.parseBoolean(a[2]));
+            case "iAmActive" -> oracle.iAmActive();
+            default -> throw new ContractRevert("Unknown method " + tx.method());
+        }
+    }
+}
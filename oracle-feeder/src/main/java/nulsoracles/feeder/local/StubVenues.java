@@ -0,0 +1,100 @@
+package nulsoracles.feeder.local;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP server playing several venues, each one answering
+ * {@code /<venue>/ticker?symbol=<symbol>} from a shared market price with
+ * its own bias, delay and failure mode. A stale venue keeps answering the
+ * price set before the last one
+ */
+public class StubVenues implements AutoCloseable {
+
+    public enum Mode {
+        OK, ERROR, GARBAGE, STALE
+    }
+
+    /**
+     * @param bias  relative error of the venue, 0.05 answers 5% over the market
+     * @param delay milliseconds before answering
+     */
+    public record Stub(String name, double bias, long delay, Mode mode) {
+    }
+
+    private final HttpServer server;
+    private final Map<String, BigDecimal> market = new ConcurrentHashMap<>();
+    private final Map<String, BigDecimal> previous = new ConcurrentHashMap<>();
+
+    public StubVenues(Iterable<Stub> stubs) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        for (Stub stub : stubs) {
+            server.createContext("/" + stub.name() + "/ticker", exchange -> answer(stub, exchange));
+        }
+        server.start();
+    }
+
+    public void price(String symbol, BigDecimal price) {
+        BigDecimal last = market.put(symbol, price);
+        previous.put(symbol, (last != null) ? last : price);
+    }
+
+    /**
+     * @return ticker URI template of a venue, for an HttpVenue
+     */
+    public String uri(String venue) {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + "/" + venue + "/ticker?symbol={symbol}";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void answer(Stub stub, HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Thread.sleep(stub.delay());
+
+            String query = exchange.getRequestURI().getQuery();
+            String symbol = (query != null && query.startsWith("symbol=")) ? query.substring(7) : "";
+            BigDecimal price = (stub.mode() == Mode.STALE) ? previous.get(symbol) : market.get(symbol);
+            if (price == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            String body = switch (stub.mode()) {
+                case OK, STALE -> "{\"symbol\":\"" + symbol + "\",\"price\":\""
+                        + price.multiply(BigDecimal.valueOf(1 + stub.bias()), MathContext.DECIMAL64).toPlainString() + "\"}";
+                case GARBAGE -> "{\"symbol\":\"" + symbol + "\",\"status\":\"maintenance\"}";
+                case ERROR -> null;
+            };
+            if (body == null) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import nulsoracles.feeder.DeviationPolicy;
+import nulsoracles.feeder.FeedState;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * DeviationPolicy of the daemon against Feed.canChange of the contract,
+ * in the default package next to Feed
+ */
+class DeviationPolicyTest {
+
+    private static final BigInteger BASIS_POINTS = BigInteger.valueOf(10000);
+
+    /**
+     * Feed as the contract leaves it after approving the price
+     */
+    private static Feed feed(BigInteger price, int bps, long lastUpdated, long heartbeat) {
+        Feed feed = new Feed("TEST");
+        feed.price = price;
+        feed.setHeartbeatDeadline(lastUpdated + heartbeat);
+        BigInteger deviation = BigInteger.valueOf(bps);
+        feed.setBand(price.multiply(BASIS_POINTS).divide(BASIS_POINTS.add(deviation)),
+                     price.multiply(BASIS_POINTS).divide(BASIS_POINTS.subtract(deviation)));
+        return feed;
+    }
+
+    @Test
+    void agreesWithContract() {
+        Random random = new Random(21);
+        for (int i = 0; i < 20_000; i++) {
+            BigInteger price = new BigInteger(1 + random.nextInt(100), random).add(BigInteger.ONE);
+            int bps = 1 + random.nextInt(2000);
+            long lastUpdated = 1_000_000 + random.nextInt(1_000_000);
+            long heartbeat = 60 + random.nextInt(7200);
+            Feed feed = feed(price, bps, lastUpdated, heartbeat);
+            FeedState state = new FeedState("TEST", price, lastUpdated, bps, heartbeat, List.of());
+
+            for (BigInteger base : new BigInteger[]{feed.bandLow, feed.bandHigh, price}) {
+                for (int delta = -1; delta <= 1; delta++) {
+                    BigInteger candidate = base.add(BigInteger.valueOf(delta)).max(BigInteger.ZERO);
+                    for (long at : new long[]{lastUpdated, lastUpdated + heartbeat - 1, lastUpdated + heartbeat}) {
+                        assertEquals(feed.canChange(candidate, at), DeviationPolicy.canChange(state, candidate, at),
+                                () -> price + " " + bps + " bps, " + candidate + " at " + at);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void firstPriceIsAlwaysAccepted() {
+        Feed feed = new Feed("TEST");
+        FeedState state = new FeedState("TEST", null, 0, 100, 3600, List.of());
+        assertEquals(feed.canChange(BigInteger.ONE, 0), DeviationPolicy.canChange(state, BigInteger.ONE, 0));
+    }
+}
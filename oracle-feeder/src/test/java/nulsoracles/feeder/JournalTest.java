@@ -0,0 +1,173 @@
+package nulsoracles.feeder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalTest {
+
+    private static final String ACCOUNT = "NULSd6HgFeeder";
+    private static final String FEED = "DEFAULT";
+
+    @TempDir
+    Path directory;
+
+    private Path file() {
+        return directory.resolve("feeder.journal");
+    }
+
+    private static PendingTx vote(NonceManager nonces, int round) {
+        Transaction tx = nonces.sign("submitRoundCheck", new String[]{FEED, Integer.toString(round), "true"},
+                BigInteger.ZERO);
+        return new PendingTx(tx, PendingTx.Kind.VOTE, FEED, round, 100 + round);
+    }
+
+    private static PendingTx submit(NonceManager nonces, String feeds, String prices) {
+        Transaction tx = nonces.sign("submitFeedsInfo", new String[]{feeds, prices}, BigInteger.ZERO);
+        return new PendingTx(tx, PendingTx.Kind.SUBMIT, feeds, -1, 100);
+    }
+
+    private static Receipt mined(PendingTx tx) {
+        return new Receipt(tx.tx().hash(), true, null, 200);
+    }
+
+    private static List<String> hashes(Journal journal) {
+        List<String> hashes = new ArrayList<>();
+        for (PendingTx tx : journal.pending()) {
+            hashes.add(tx.tx().hash());
+        }
+        return hashes;
+    }
+
+    @Test
+    void replayRestoresState() throws IOException {
+        NonceManager nonces = new NonceManager(ACCOUNT, "0000000000000000");
+        PendingTx first = vote(nonces, 1);
+        PendingTx second = submit(nonces, "DEFAULT,FEED-1", "100,200");
+        try (Journal journal = Journal.open(file())) {
+            journal.sent(first);
+            journal.sent(second);
+            journal.done(mined(first));
+            journal.sync();
+        }
+
+        try (Journal journal = Journal.open(file())) {
+            assertEquals(List.of(second.tx().hash()), hashes(journal));
+            assertTrue(journal.voted(FEED, 1));
+            assertTrue(journal.ownPrice("FEED-1", BigInteger.valueOf(200)));
+            assertFalse(journal.ownPrice("FEED-1", BigInteger.valueOf(100)));
+            assertEquals(nonces.next(), journal.nextNonce());
+        }
+    }
+
+    @Test
+    void tornTailIsCutOnReplay() throws IOException {
+        NonceManager nonces = new NonceManager(ACCOUNT, "0000000000000000");
+        PendingTx kept = vote(nonces, 1);
+        try (Journal journal = Journal.open(file())) {
+            journal.sent(kept);
+        }
+        long good = Files.size(file());
+
+        // A record whose payload never made it, then one with a bad checksum
+        Files.write(file(), ByteBuffer.allocate(8).putInt(500).putInt(0).array(), StandardOpenOption.APPEND);
+        try (Journal journal = Journal.open(file())) {
+            assertEquals(good, Files.size(file()));
+            assertEquals(List.of(kept.tx().hash()), hashes(journal));
+        }
+
+        byte[] payload = "D\tdeadbeef\t".getBytes();
+        Files.write(file(), ByteBuffer.allocate(8 + payload.length).putInt(payload.length).putInt(12345).put(payload)
+                .array(), StandardOpenOption.APPEND);
+        PendingTx next = vote(nonces, 2);
+        try (Journal journal = Journal.open(file())) {
+            assertEquals(good, Files.size(file()));
+            assertEquals(List.of(kept.tx().hash()), hashes(journal));
+            journal.sent(next);
+        }
+
+        // Records appended after the cut replay as usual
+        try (Journal journal = Journal.open(file())) {
+            assertEquals(List.of(kept.tx().hash(), next.tx().hash()), hashes(journal));
+            assertTrue(journal.voted(FEED, 2));
+        }
+    }
+
+    @Test
+    void compactionKeepsLiveState() throws IOException {
+        NonceManager nonces = new NonceManager(ACCOUNT, "0000000000000000");
+        List<String> pending;
+        String nextNonce;
+        long before;
+        try (Journal journal = Journal.open(file())) {
+            // Enough settled records to compact more than once
+            for (int round = 0; round < 12_000; round++) {
+                PendingTx tx = vote(nonces, round);
+                journal.sent(tx);
+                if (round % 500 != 0) {
+                    journal.done(mined(tx));
+                }
+            }
+            journal.sent(submit(nonces, "DEFAULT,FEED-1", "100,200"));
+            journal.nonce(nonces.next());
+            pending = hashes(journal);
+            nextNonce = journal.nextNonce();
+            before = Files.size(file());
+        }
+        assertTrue(before < 12_000 * 100L, "journal was compacted, " + before + " bytes");
+
+        try (Journal journal = Journal.open(file())) {
+            assertEquals(pending, hashes(journal));
+            assertEquals(nextNonce, journal.nextNonce());
+            assertTrue(journal.ownPrice("DEFAULT", BigInteger.valueOf(100)));
+            assertTrue(journal.ownPrice("FEED-1", BigInteger.valueOf(200)));
+            // Newest rounds and the votes still in flight are remembered as voted
+            assertTrue(journal.voted(FEED, 11_999));
+            assertTrue(journal.voted(FEED, 0));
+            assertFalse(journal.voted(FEED, 1));
+        }
+        assertFalse(Files.exists(directory.resolve("feeder.journal.tmp")));
+    }
+
+    @Test
+    void droppedVoteCanBeSentAgain() throws IOException {
+        NonceManager nonces = new NonceManager(ACCOUNT, "0000000000000000");
+        PendingTx dropped = vote(nonces, 7);
+        PendingTx reverted = vote(nonces, 8);
+        try (Journal journal = Journal.open(file())) {
+            journal.sent(dropped);
+            journal.sent(reverted);
+            journal.done(new Receipt(dropped.tx().hash(), false, Receipt.INVALID_NONCE, 200));
+            journal.done(new Receipt(reverted.tx().hash(), false, "Already voted", 200));
+
+            assertFalse(journal.voted(FEED, 7));
+            assertTrue(journal.voted(FEED, 8));
+            assertTrue(journal.pending().isEmpty());
+        }
+        try (Journal journal = Journal.open(file())) {
+            assertFalse(journal.voted(FEED, 7));
+            assertTrue(journal.voted(FEED, 8));
+        }
+    }
+
+    @Test
+    void emptyJournalHasNoNonce() throws IOException {
+        try (Journal journal = Journal.open(file())) {
+            assertNull(journal.nextNonce());
+            assertTrue(journal.pending().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package nulsoracles.feeder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TxPipelineTest {
+
+    private static final String ACCOUNT = "NULSd6HgFeeder";
+    private static final String FEED = "DEFAULT";
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Node that keeps what it was sent and answers the receipts it is given
+     */
+    static final class ScriptedChain implements ChainClient {
+        long now = 1_000;
+        String nonce = "0000000000000000";
+        final List<Transaction> sent = new ArrayList<>();
+        final Map<String, Receipt> receipts = new HashMap<>();
+
+        @Override
+        public long timestamp() {
+            return now;
+        }
+
+        @Override
+        public FeedState feed(String feedId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int validFeeders() {
+            return 1;
+        }
+
+        @Override
+        public boolean stakeWeighted() {
+            return false;
+        }
+
+        @Override
+        public BigInteger totalActiveStake() {
+            return BigInteger.ZERO;
+        }
+
+        @Override
+        public String nonce(String account) {
+            return nonce;
+        }
+
+        @Override
+        public void send(Transaction tx) {
+            sent.add(tx);
+        }
+
+        @Override
+        public Receipt receipt(String hash) {
+            return receipts.get(hash);
+        }
+    }
+
+    @Test
+    void noncesChainThroughHashes() {
+        NonceManager nonces = new NonceManager(ACCOUNT, "0000000000000000");
+        Transaction first = nonces.sign("iAmActive", new String[0], BigInteger.ZERO);
+        Transaction second = nonces.sign("iAmActive", new String[0], BigInteger.ZERO);
+
+        assertEquals("0000000000000000", first.nonce());
+        assertEquals(first.hash().substring(48), second.nonce());
+        assertEquals(NonceManager.nonceAfter(second), nonces.next());
+
+        nonces.reset("00000000000000ff");
+        assertEquals("00000000000000ff", nonces.sign("iAmActive", new String[0], BigInteger.ZERO).nonce());
+    }
+
+    @Test
+    void droppedVoteIsForgottenAndNonceResynced() throws IOException {
+        ScriptedChain chain = new ScriptedChain();
+        try (Journal journal = Journal.open(directory.resolve("feeder.journal"))) {
+            TxPipeline pipeline = new TxPipeline(chain, journal, new FeederMetrics(), ACCOUNT, 16);
+            assertTrue(pipeline.queue(PendingTx.Kind.VOTE, FEED, 3, "submitRoundCheck", FEED, "3", "true"));
+            assertTrue(pipeline.queue(PendingTx.Kind.VOTE, FEED, 4, "submitRoundCheck", FEED, "4", "true"));
+            pipeline.flush();
+            assertEquals(2, chain.sent.size());
+            assertTrue(journal.voted(FEED, 3));
+
+            // First one evicted by the node, the one chained after it can't be mined either
+            Transaction dropped = chain.sent.get(0);
+            Transaction stuck = chain.sent.get(1);
+            chain.receipts.put(dropped.hash(), new Receipt(dropped.hash(), false, Receipt.INVALID_NONCE, chain.now));
+            pipeline.poll();
+            assertFalse(journal.voted(FEED, 3));
+            assertTrue(pipeline.full());
+            assertFalse(pipeline.queue(PendingTx.Kind.VOTE, FEED, 3, "submitRoundCheck", FEED, "3", "true"));
+
+            chain.nonce = "0123456789abcdef";
+            chain.receipts.put(stuck.hash(), new Receipt(stuck.hash(), false, Receipt.INVALID_NONCE, chain.now));
+            pipeline.poll();
+            assertFalse(journal.voted(FEED, 4));
+            assertFalse(pipeline.full());
+            assertEquals("0123456789abcdef", journal.nextNonce());
+
+            // Voted again from the nonce the chain expects
+            assertTrue(pipeline.queue(PendingTx.Kind.VOTE, FEED, 3, "submitRoundCheck", FEED, "3", "true"));
+            pipeline.flush();
+            assertEquals("0123456789abcdef", chain.sent.get(2).nonce());
+            assertTrue(journal.voted(FEED, 3));
+        }
+    }
+
+    @Test
+    void pendingAreSentAgainAfterRestart() throws IOException {
+        ScriptedChain chain = new ScriptedChain();
+        Path file = directory.resolve("feeder.journal");
+        String next;
+        try (Journal journal = Journal.open(file)) {
+            TxPipeline pipeline = new TxPipeline(chain, journal, new FeederMetrics(), ACCOUNT, 16);
+            pipeline.queue(PendingTx.Kind.ALIVE, "", -1, "iAmActive");
+            pipeline.flush();
+            next = journal.nextNonce();
+        }
+
+        chain.sent.clear();
+        try (Journal journal = Journal.open(file)) {
+            TxPipeline pipeline = new TxPipeline(chain, journal, new FeederMetrics(), ACCOUNT, 16);
+            assertEquals(1, chain.sent.size());
+            pipeline.queue(PendingTx.Kind.ALIVE, "", -1, "iAmActive");
+            pipeline.flush();
+            assertEquals(next, chain.sent.get(1).nonce());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package nulsoracles.feeder.ingest;
+
+import nulsoracles.feeder.local.StubVenues;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Engine asking HTTP venues played by {@link StubVenues}
+ */
+class IngestionEngineTest {
+
+    private static final String FEED = "DEFAULT";
+    private static final String SYMBOL = "NULSUSDT";
+    private static final int DECIMALS = 8;
+    private static final Duration TIMEOUT = Duration.ofMillis(500);
+    private static final BigDecimal MARKET = new BigDecimal("25.00000000");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(TIMEOUT)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private StubVenues server;
+    private IngestionEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    /**
+     * Engine over the stubs waiting for every venue, so results don't depend
+     * on which venues answer first
+     */
+    private IngestionEngine start(List<StubVenues.Stub> stubs, int minVenues) throws IOException {
+        server = new StubVenues(stubs);
+        server.price(SYMBOL, MARKET);
+        List<Venue> venues = new ArrayList<>();
+        for (StubVenues.Stub stub : stubs) {
+            venues.add(new HttpVenue(stub.name(), server.uri(stub.name()), Map.of(FEED, SYMBOL), "price", DECIMALS,
+                    TIMEOUT, client));
+        }
+        engine = new IngestionEngine(venues, minVenues, 3.0, 5, 0);
+        return engine;
+    }
+
+    private static List<StubVenues.Stub> honest(int count) {
+        List<StubVenues.Stub> stubs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            stubs.add(new StubVenues.Stub("venue-" + i, (i - count / 2) * 0.00001, 10, StubVenues.Mode.OK));
+        }
+        return stubs;
+    }
+
+    private static BigInteger units(BigDecimal price) {
+        return price.movePointRight(DECIMALS).toBigInteger();
+    }
+
+    private static long bps(BigInteger price, BigInteger expected) {
+        return price.subtract(expected).abs().multiply(BigInteger.valueOf(10_000)).divide(expected).longValue();
+    }
+
+    @Test
+    void outliersAreLeftOut() throws Exception {
+        List<StubVenues.Stub> stubs = honest(7);
+        stubs.add(new StubVenues.Stub("outlier-high", 0.05, 10, StubVenues.Mode.OK));
+        stubs.add(new StubVenues.Stub("outlier-low", -0.2, 10, StubVenues.Mode.OK));
+        Observation observation = start(stubs, 4).observe(FEED);
+
+        assertEquals(9, observation.answered());
+        assertEquals(7, observation.kept());
+        assertEquals(2, observation.outliers());
+        assertEquals(0, observation.failed());
+        assertEquals(0, bps(observation.price(), units(MARKET)));
+    }
+
+    @Test
+    void tooFewVenuesGiveNoPrice() throws Exception {
+        List<StubVenues.Stub> stubs = honest(1);
+        stubs.add(new StubVenues.Stub("failing", 0, 10, StubVenues.Mode.ERROR));
+        stubs.add(new StubVenues.Stub("garbage", 0, 10, StubVenues.Mode.GARBAGE));
+        IngestionEngine engine = start(stubs, 2);
+
+        Observation observation = engine.observe(FEED);
+        assertNull(observation.price());
+        assertEquals(1, observation.answered());
+        assertEquals(2, observation.failed());
+
+        // A feed no venue quotes has no answer at all
+        Observation unknown = engine.observe("UNKNOWN");
+        assertNull(unknown.price());
+        assertEquals(0, unknown.answered());
+        assertEquals(3, unknown.failed());
+        assertNull(engine.decide("UNKNOWN", BigInteger.ONE, 100));
+    }
+
+    @Test
+    void slowVenueIsCutAtItsTimeout() throws Exception {
+        List<StubVenues.Stub> stubs = honest(4);
+        stubs.add(new StubVenues.Stub("slow", 0, TIMEOUT.toMillis() * 6, StubVenues.Mode.OK));
+        Observation observation = start(stubs, 2).observe(FEED);
+
+        assertEquals(4, observation.answered());
+        assertEquals(1, observation.failed());
+        assertEquals(0, bps(observation.price(), units(MARKET)));
+        assertTrue(observation.nanos() < TIMEOUT.toNanos() * 3, observation.nanos() / 1_000_000 + " ms");
+    }
+
+    @Test
+    void staleVenueIsAnOutlierAfterAMove() throws Exception {
+        List<StubVenues.Stub> stubs = honest(5);
+        stubs.add(new StubVenues.Stub("stale", 0, 10, StubVenues.Mode.STALE));
+        IngestionEngine engine = start(stubs, 3);
+
+        BigDecimal moved = MARKET.multiply(new BigDecimal("1.10"));
+        server.price(SYMBOL, moved);
+        Observation observation = engine.observe(FEED);
+
+        assertEquals(6, observation.answered());
+        assertEquals(5, observation.kept());
+        assertEquals(0, bps(observation.price(), units(moved)));
+
+        // Decisions follow the price kept, not the stale one
+        assertTrue(engine.decide(FEED, units(moved), 100).approve());
+        assertEquals(false, engine.decide(FEED, units(MARKET), 100).approve());
+    }
+}
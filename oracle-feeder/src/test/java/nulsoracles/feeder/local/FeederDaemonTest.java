@@ -0,0 +1,84 @@
+package nulsoracles.feeder.local;
+
+import io.nuls.contract.sdk.Address;
+import nulsoracles.feeder.FeederConfig;
+import nulsoracles.feeder.FeederDaemon;
+import nulsoracles.simulation.HarnessConfig;
+import nulsoracles.simulation.OracleHarness;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Daemons of 2 seeders and 4 feeders against the real contract
+ */
+class FeederDaemonTest {
+
+    private static final String FEED = "DEFAULT";
+
+    @TempDir
+    Path directory;
+
+    private BigInteger observed = BigInteger.valueOf(2_500_000_000L);
+
+    private List<FeederDaemon> start(OracleHarness harness, LocalChain chain) throws IOException {
+        List<Address> accounts = new ArrayList<>(harness.seeders());
+        accounts.addAll(harness.admitFeeders(4));
+        List<FeederDaemon> daemons = new ArrayList<>();
+        for (int i = 0; i < accounts.size(); i++) {
+            FeederConfig config = FeederConfig.defaults(accounts.get(i).toString(), List.of(FEED),
+                    directory.resolve("feeder-" + i + ".journal"));
+            daemons.add(new FeederDaemon(config, chain, feedId -> observed));
+        }
+        return daemons;
+    }
+
+    private static void run(List<FeederDaemon> daemons, LocalChain chain, int blocks) throws IOException {
+        for (int block = 0; block < blocks; block++) {
+            for (FeederDaemon daemon : daemons) {
+                daemon.tick();
+            }
+            chain.mine();
+        }
+    }
+
+    private static BigInteger approved(OracleHarness harness) {
+        String last = harness.view(harness.admin(), o -> o.getFeedHistory(FEED, 0));
+        return new BigInteger(last.substring(0, last.indexOf(',')));
+    }
+
+    @Test
+    void daemonsApproveWhatTheyObserve() throws IOException {
+        OracleHarness harness = new OracleHarness(HarnessConfig.defaults(1));
+        LocalChain chain = new LocalChain(harness);
+        List<FeederDaemon> daemons = start(harness, chain);
+
+        run(daemons, chain, 30);
+        assertEquals(observed, approved(harness));
+
+        // Inside the band nothing is submitted, a 5% move is
+        observed = observed.add(observed.divide(BigInteger.valueOf(1000)));
+        run(daemons, chain, 30);
+        assertEquals(BigInteger.valueOf(2_500_000_000L), approved(harness));
+
+        observed = BigInteger.valueOf(2_625_000_000L);
+        run(daemons, chain, 30);
+        assertEquals(observed, approved(harness));
+
+        long mined = 0;
+        for (FeederDaemon daemon : daemons) {
+            mined += daemon.metrics().mined();
+            assertEquals(0, daemon.metrics().dropped());
+            daemon.close();
+        }
+        assertTrue(mined > 0);
+    }
+}
@@ -0,0 +1,126 @@
+package nulsoracles.indexer;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary layout of an event in the log:
+ * <pre>
+ * int    record length, including this field
+ * byte   type code
+ * long   height
+ * long   timestamp
+ * int    round
+ * long   value
+ * short  length + bytes   feedId, UTF-8
+ * short  length + bytes   account, UTF-8
+ * short  length + bytes   counterparty, UTF-8
+ * short  length + bytes   price, two's complement
+ * </pre>
+ */
+public final class EventCodec {
+
+    static final int HEIGHT_OFFSET = 5;
+
+    private static final int FIXED_SIZE = 4 + 1 + 8 + 8 + 4 + 8 + 4 * 2;
+
+    private EventCodec() {
+    }
+
+    public static int encodedSize(OracleEvent event) {
+        return FIXED_SIZE
+                + utf8Length(event.feedId())
+                + utf8Length(event.account())
+                + utf8Length(event.counterparty())
+                + event.price().bitLength() / 8 + 1;
+    }
+
+    /**
+     * Write event at the buffer position, position ends after the record
+     */
+    public static void encode(OracleEvent event, ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putInt(0);
+        buffer.put((byte) event.type().code());
+        buffer.putLong(event.height());
+        buffer.putLong(event.timestamp());
+        buffer.putInt(event.round());
+        buffer.putLong(event.value());
+        putBytes(buffer, event.feedId().getBytes(StandardCharsets.UTF_8));
+        putBytes(buffer, event.account().getBytes(StandardCharsets.UTF_8));
+        putBytes(buffer, event.counterparty().getBytes(StandardCharsets.UTF_8));
+        putBytes(buffer, event.price().toByteArray());
+        buffer.putInt(start, buffer.position() - start);
+    }
+
+    /**
+     * Read the record at the buffer position, position ends after the record
+     */
+    public static OracleEvent decode(ByteBuffer buffer) {
+        buffer.getInt();
+        EventType type = EventType.fromCode(buffer.get());
+        long height = buffer.getLong();
+        long timestamp = buffer.getLong();
+        int round = buffer.getInt();
+        long value = buffer.getLong();
+        String feedId = new String(getBytes(buffer), StandardCharsets.UTF_8);
+        String account = new String(getBytes(buffer), StandardCharsets.UTF_8);
+        String counterparty = new String(getBytes(buffer), StandardCharsets.UTF_8);
+        BigInteger price = new BigInteger(getBytes(buffer));
+        return new OracleEvent(height, timestamp, type, feedId, round, price, account, counterparty, value);
+    }
+
+    /**
+     * Length of the record at start if it is a whole record ending before
+     * limit, -1 otherwise. Only the length, type code and field lengths are
+     * checked, the buffer position is not moved
+     */
+    static int recordLength(ByteBuffer buffer, int start, int limit) {
+        if (start < 0 || limit - start < FIXED_SIZE) {
+            return -1;
+        }
+        int length = buffer.getInt(start);
+        int code = buffer.get(start + 4);
+        if (length < FIXED_SIZE || length > limit - start || !EventType.isCode(code)) {
+            return -1;
+        }
+        int position = start + FIXED_SIZE - 4 * 2;
+        for (int i = 0; i < 4; i++) {
+            if (position + 2 > start + length) {
+                return -1;
+            }
+            position += 2 + (buffer.getShort(position) & 0xFFFF);
+        }
+        return (position == start + length) ? length : -1;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,16 @@
+package nulsoracles.indexer;
+
+import java.util.List;
+
+/**
+ * Ordered stream of oracle events, index 0 is the first event
+ * the contract emitted
+ */
+public interface EventSource {
+
+    /**
+     * Read up to max events starting at index from, empty when
+     * there is nothing new
+     */
+    List<OracleEvent> read(long from, int max);
+}
@@ -0,0 +1,66 @@
+package nulsoracles.indexer;
+
+/**
+ * Events emitted by NulsOracles, code is the value stored in the log
+ */
+public enum EventType {
+
+    CHALLENGE_OPENED(1, "ChallengeOpenedEvent"),
+    VOTE(2, "VoteEvent"),
+    CHALLENGE_APPROVED(3, "ChallengeApprovedEvent"),
+    CHALLENGE_REJECTED(4, "ChallengeRejectedEvent"),
+    RAT_OUT(5, "RatOutEvent"),
+    YELLOW_CARD(6, "YellowCardEvent"),
+    FEEDER_INACTIVE(7, "FeederInactiveEvent"),
+    FEEDER_APPLIED(8, "FeederAppliedEvent"),
+    FEEDER_ADMITTED(9, "FeederAdmittedEvent"),
+    PUSH_QUEUED(10, "PushQueuedEvent");
+
+    private static final EventType[] BY_CODE = new EventType[16];
+
+    static {
+        for (EventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+    private final String contractName;
+
+    EventType(int code, String contractName) {
+        this.code = code;
+        this.contractName = contractName;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    /**
+     * Name of the event class in the contract
+     */
+    public String contractName() {
+        return contractName;
+    }
+
+    public static boolean isCode(int code) {
+        return code >= 0 && code < BY_CODE.length && BY_CODE[code] != null;
+    }
+
+    public static EventType fromCode(int code) {
+        EventType type = (code >= 0 && code < BY_CODE.length) ? BY_CODE[code] : null;
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown event code " + code);
+        }
+        return type;
+    }
+
+    public static EventType fromContractName(String name) {
+        for (EventType type : values()) {
+            if (type.contractName.equals(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown event " + name);
+    }
+}
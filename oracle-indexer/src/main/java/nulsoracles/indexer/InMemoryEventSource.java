@@ -0,0 +1,27 @@
+package nulsoracles.indexer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local stand-in for the node, events are published by hand
+ * or by a simulated contract
+ */
+public class InMemoryEventSource implements EventSource {
+
+    private final List<OracleEvent> events = new ArrayList<>();
+
+    public synchronized void publish(OracleEvent event) {
+        events.add(event);
+    }
+
+    @Override
+    public synchronized List<OracleEvent> read(long from, int max) {
+        if (from >= events.size()) {
+            return List.of();
+        }
+        int start = (int) from;
+        int end = (int) Math.min(events.size(), from + max);
+        return new ArrayList<>(events.subList(start, end));
+    }
+}
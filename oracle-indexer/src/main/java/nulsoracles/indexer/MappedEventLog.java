@@ -0,0 +1,215 @@
+package nulsoracles.indexer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only event log kept in two memory-mapped files.
+ *
+ * <p>{@code events.dat} holds the encoded events back to back, see {@link EventCodec}.
+ * {@code events.idx} starts with a header of two longs, the number of events and
+ * the bytes used in the data file, followed by the data offset of every event.
+ * An append writes the event before the header, but the pages of a mapping
+ * reach the disk in no set order until {@link #force()}, so after a crash the
+ * header can count events that were never written. Opening the log walks the
+ * records and cuts it at the first one whose offset, length or layout doesn't
+ * check out. Events appended after the last {@code force()} can be lost, and
+ * damage that keeps a record's layout intact is not detected.
+ *
+ * <p>Range queries return read-only slices of the mapped data file, nothing is
+ * copied until an event is decoded. Each file is a single mapping, so the data
+ * file is limited to 2 GB.
+ */
+public class MappedEventLog implements Closeable {
+
+    private static final int HEADER_SIZE = 16;
+    private static final int INITIAL_DATA_SIZE = 1 << 20;
+    private static final int INITIAL_INDEX_SIZE = HEADER_SIZE + (1 << 16) * 8;
+
+    private final FileChannel dataChannel;
+    private final FileChannel indexChannel;
+    private MappedByteBuffer data;
+    private MappedByteBuffer index;
+    private long count;
+    private int dataSize;
+
+    public MappedEventLog(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        dataChannel = FileChannel.open(directory.resolve("events.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(directory.resolve("events.idx"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        data = map(dataChannel, Math.max(INITIAL_DATA_SIZE, dataChannel.size()));
+        index = map(indexChannel, Math.max(INITIAL_INDEX_SIZE, indexChannel.size()));
+
+        count = index.getLong(0);
+        dataSize = (int) index.getLong(8);
+        recover();
+    }
+
+    /**
+     * Number of events in the log
+     */
+    public synchronized long size() {
+        return count;
+    }
+
+    public synchronized void append(OracleEvent event) throws IOException {
+        int length = EventCodec.encodedSize(event);
+        ensureData(dataSize + length);
+        ensureIndex(HEADER_SIZE + (count + 1) * 8);
+
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(dataSize);
+        EventCodec.encode(event, buffer);
+
+        index.putLong(indexPosition(count), dataSize);
+
+        // Header after the event, it is what makes the event part of the log
+        dataSize = buffer.position();
+        count++;
+        index.putLong(8, dataSize);
+        index.putLong(0, count);
+    }
+
+    /**
+     * Flush appended events to disk
+     */
+    public synchronized void force() {
+        data.force();
+        index.force();
+    }
+
+    /**
+     * Encoded events in [from, to) as a read-only view over the mapped file
+     */
+    public synchronized ByteBuffer range(long from, long to) {
+        checkRange(from, to);
+        int start = offset(from);
+        int end = (to == count) ? dataSize : offset(to);
+        return data.slice(start, end - start).asReadOnlyBuffer();
+    }
+
+    /**
+     * Decode events in [from, to) one at a time without building a list
+     */
+    public void forEach(long from, long to, Consumer<OracleEvent> consumer) {
+        ByteBuffer buffer = range(from, to);
+        while (buffer.hasRemaining()) {
+            consumer.accept(EventCodec.decode(buffer));
+        }
+    }
+
+    public List<OracleEvent> read(long from, long to) {
+        List<OracleEvent> events = new ArrayList<>((int) (to - from));
+        forEach(from, to, events::add);
+        return events;
+    }
+
+    /**
+     * Index of the first event at or after the block height, size() if
+     * there is none. Heights never decrease so it is a binary search
+     */
+    public synchronized long firstAtHeight(long height) {
+        long lo = 0;
+        long hi = count;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (data.getLong(offset(mid) + EventCodec.HEIGHT_OFFSET) < height) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        dataChannel.close();
+        indexChannel.close();
+    }
+
+    /**
+     * Keep the events the header counts up to the first one that is not
+     * where the previous one ended or is not a whole record
+     */
+    private void recover() {
+        long maxCount = (index.capacity() - HEADER_SIZE) / 8;
+        long claimed = Math.max(0, Math.min(count, maxCount));
+        int limit = (dataSize > 0 && dataSize <= data.capacity()) ? dataSize : data.capacity();
+
+        long valid = 0;
+        int end = 0;
+        while (valid < claimed && offset(valid) == end) {
+            int length = EventCodec.recordLength(data, end, limit);
+            if (length < 0) {
+                break;
+            }
+            end += length;
+            valid++;
+        }
+
+        if (valid != count || end != dataSize) {
+            count = valid;
+            dataSize = end;
+            index.putLong(8, dataSize);
+            index.putLong(0, count);
+            index.force();
+        }
+    }
+
+    private int offset(long event) {
+        return (int) index.getLong(indexPosition(event));
+    }
+
+    private static int indexPosition(long event) {
+        return (int) (HEADER_SIZE + event * 8);
+    }
+
+    private void checkRange(long from, long to) {
+        if (from < 0 || from > to || to > count) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + count);
+        }
+    }
+
+    private void ensureData(long required) throws IOException {
+        if (required > data.capacity()) {
+            data.force();
+            data = map(dataChannel, grow(data.capacity(), required));
+        }
+    }
+
+    private void ensureIndex(long required) throws IOException {
+        if (required > index.capacity()) {
+            index.force();
+            index = map(indexChannel, grow(index.capacity(), required));
+        }
+    }
+
+    private static long grow(long capacity, long required) {
+        long size = capacity;
+        while (size < required) {
+            size *= 2;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Event log is full");
+        }
+        return size;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+}
@@ -0,0 +1,74 @@
+package nulsoracles.indexer;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * One event emitted by NulsOracles.
+ *
+ * Every event type uses the same fields, unused ones are empty:
+ * <pre>
+ * type                 feedId round price account    counterparty value
+ * CHALLENGE_OPENED     x      x     x     owner                   expiresAt
+ * VOTE                 x      x           feeder                  1 approve, 0 reject
+ * CHALLENGE_APPROVED   x      x     x                             approvs
+ * CHALLENGE_REJECTED   x      x     x     owner                   rejects
+ * RAT_OUT              x      x           offender   reporter
+ * YELLOW_CARD                             feeder                  yellow cards
+ * FEEDER_INACTIVE                         feeder     reporter     last activity
+ * FEEDER_APPLIED                          feeder                  applied at
+ * FEEDER_ADMITTED                         feeder                  valid feeders
+ * PUSH_QUEUED          x      x           consumer
+ * </pre>
+ */
+public record OracleEvent(long height,
+                          long timestamp,
+                          EventType type,
+                          String feedId,
+                          int round,
+                          BigInteger price,
+                          String account,
+                          String counterparty,
+                          long value) {
+
+    public OracleEvent {
+        feedId = (feedId == null) ? "" : feedId;
+        price = (price == null) ? BigInteger.ZERO : price;
+        account = (account == null) ? "" : account;
+        counterparty = (counterparty == null) ? "" : counterparty;
+    }
+
+    /**
+     * Build an event from the payload the node returns for a contract
+     * event, keys are the field names of the event class in the contract
+     */
+    public static OracleEvent fromPayload(long height, long timestamp, String eventName, Map<String, String> payload) {
+        EventType type = EventType.fromContractName(eventName);
+        String feedId = payload.get("feedId");
+        int round = Integer.parseInt(payload.getOrDefault("round", "0"));
+        BigInteger price = new BigInteger(payload.getOrDefault("price", "0"));
+
+        return switch (type) {
+            case CHALLENGE_OPENED -> new OracleEvent(height, timestamp, type, feedId, round, price,
+                    payload.get("owner"), null, Long.parseLong(payload.get("expiresAt")));
+            case VOTE -> new OracleEvent(height, timestamp, type, feedId, round, null,
+                    payload.get("feeder"), null, Boolean.parseBoolean(payload.get("approve")) ? 1 : 0);
+            case CHALLENGE_APPROVED -> new OracleEvent(height, timestamp, type, feedId, round, price,
+                    null, null, Long.parseLong(payload.get("approvs")));
+            case CHALLENGE_REJECTED -> new OracleEvent(height, timestamp, type, feedId, round, price,
+                    payload.get("owner"), null, Long.parseLong(payload.get("rejects")));
+            case RAT_OUT -> new OracleEvent(height, timestamp, type, feedId, round, null,
+                    payload.get("offender"), payload.get("reporter"), 0);
+            case YELLOW_CARD -> new OracleEvent(height, timestamp, type, null, 0, null,
+                    payload.get("feeder"), null, Long.parseLong(payload.get("yellowCards")));
+            case FEEDER_INACTIVE -> new OracleEvent(height, timestamp, type, null, 0, null,
+                    payload.get("feeder"), payload.get("reporter"), Long.parseLong(payload.get("lastActivity")));
+            case FEEDER_APPLIED -> new OracleEvent(height, timestamp, type, null, 0, null,
+                    payload.get("feeder"), null, Long.parseLong(payload.get("appliedAt")));
+            case FEEDER_ADMITTED -> new OracleEvent(height, timestamp, type, null, 0, null,
+                    payload.get("feeder"), null, Long.parseLong(payload.get("validFeeders")));
+            case PUSH_QUEUED -> new OracleEvent(height, timestamp, type, feedId, round, null,
+                    payload.get("consumer"), null, 0);
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package nulsoracles.indexer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Copies events from a source into the log, resuming from the
+ * number of events the log already holds
+ */
+public class OracleIndexer {
+
+    private static final int DEFAULT_BATCH = 512;
+
+    private final EventSource source;
+    private final MappedEventLog log;
+    private final int batchSize;
+
+    public OracleIndexer(EventSource source, MappedEventLog log) {
+        this(source, log, DEFAULT_BATCH);
+    }
+
+    public OracleIndexer(EventSource source, MappedEventLog log, int batchSize) {
+        this.source = source;
+        this.log = log;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Append every new event of the source and flush the log
+     *
+     * @return number of events indexed
+     */
+    public int poll() throws IOException {
+        int indexed = 0;
+        List<OracleEvent> batch;
+        do {
+            batch = source.read(log.size(), batchSize);
+            for (OracleEvent event : batch) {
+                log.append(event);
+            }
+            indexed += batch.size();
+        } while (batch.size() == batchSize);
+
+        if (indexed > 0) {
+            log.force();
+        }
+        return indexed;
+    }
+}
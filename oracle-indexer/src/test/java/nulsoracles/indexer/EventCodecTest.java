@@ -0,0 +1,91 @@
+package nulsoracles.indexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventCodecTest {
+
+    private static final String[] TEXT = {"", "DEFAULT", "NULSd6Hgf4dGsWG1EsV5MZSU2pZGb2u9hLZSm", "BTC/€", "価格", "📈"};
+
+    static OracleEvent randomEvent(Random random, long height) {
+        EventType type = EventType.values()[random.nextInt(EventType.values().length)];
+        BigInteger price = new BigInteger(random.nextInt(200), random);
+        return new OracleEvent(height, 1_700_000_000L + height * 10, type, TEXT[random.nextInt(TEXT.length)],
+                random.nextInt(), random.nextBoolean() ? price : price.negate(), TEXT[random.nextInt(TEXT.length)],
+                TEXT[random.nextInt(TEXT.length)], random.nextLong());
+    }
+
+    @Test
+    void eventsRoundTrip() {
+        Random random = new Random(12);
+        for (int i = 0; i < 10_000; i++) {
+            OracleEvent event = randomEvent(random, i);
+            ByteBuffer buffer = ByteBuffer.allocate(EventCodec.encodedSize(event));
+            EventCodec.encode(event, buffer);
+            assertEquals(buffer.capacity(), buffer.position(), "encodedSize of " + event);
+
+            buffer.flip();
+            assertEquals(buffer.capacity(), EventCodec.recordLength(buffer, 0, buffer.capacity()));
+            assertEquals(event, EventCodec.decode(buffer));
+            assertEquals(buffer.capacity(), buffer.position());
+        }
+    }
+
+    @Test
+    void recordsDecodeBackToBack() {
+        Random random = new Random(13);
+        List<OracleEvent> events = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        for (int i = 0; i < 1000; i++) {
+            OracleEvent event = randomEvent(random, i);
+            events.add(event);
+            EventCodec.encode(event, buffer);
+        }
+        buffer.flip();
+
+        List<OracleEvent> decoded = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            decoded.add(EventCodec.decode(buffer));
+        }
+        assertEquals(events, decoded);
+    }
+
+    @Test
+    void pushQueuedPayloadRoundTrips() {
+        OracleEvent event = OracleEvent.fromPayload(42, 420, "PushQueuedEvent",
+                Map.of("feedId", "DEFAULT", "consumer", "NULSd6HgConsumer", "round", "17"));
+        assertEquals(new OracleEvent(42, 420, EventType.PUSH_QUEUED, "DEFAULT", 17, null, "NULSd6HgConsumer", null, 0),
+                event);
+
+        ByteBuffer buffer = ByteBuffer.allocate(EventCodec.encodedSize(event));
+        EventCodec.encode(event, buffer);
+        buffer.flip();
+        assertEquals(event, EventCodec.decode(buffer));
+    }
+
+    @Test
+    void incompleteRecordsAreRefused() {
+        OracleEvent event = new OracleEvent(7, 70, EventType.VOTE, "DEFAULT", 3, null, "feeder", null, 1);
+        int size = EventCodec.encodedSize(event);
+        ByteBuffer buffer = ByteBuffer.allocate(size * 2);
+        EventCodec.encode(event, buffer);
+
+        assertEquals(size, EventCodec.recordLength(buffer, 0, size));
+        assertEquals(-1, EventCodec.recordLength(buffer, 0, size - 1));
+        assertEquals(-1, EventCodec.recordLength(buffer, size, size * 2));
+
+        buffer.put(4, (byte) 0);
+        assertEquals(-1, EventCodec.recordLength(buffer, 0, size));
+        buffer.put(4, (byte) EventType.VOTE.code());
+        buffer.putInt(0, size + 1);
+        assertEquals(-1, EventCodec.recordLength(buffer, 0, size * 2));
+    }
+}
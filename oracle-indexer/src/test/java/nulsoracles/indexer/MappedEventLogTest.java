@@ -0,0 +1,150 @@
+package nulsoracles.indexer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MappedEventLogTest {
+
+    @TempDir
+    Path directory;
+
+    private static List<OracleEvent> events(long seed, long fromHeight, int count) {
+        Random random = new Random(seed);
+        List<OracleEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(EventCodecTest.randomEvent(random, fromHeight + i / 3));
+        }
+        return events;
+    }
+
+    private static void append(MappedEventLog log, List<OracleEvent> events) throws IOException {
+        for (OracleEvent event : events) {
+            log.append(event);
+        }
+    }
+
+    /**
+     * Overwrite bytes of a log file, as a crash that only wrote part of the pages would
+     */
+    private void write(String file, long position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(file), StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+        }
+    }
+
+    private static ByteBuffer longs(long... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 8).order(ByteOrder.BIG_ENDIAN);
+        for (long value : values) {
+            buffer.putLong(value);
+        }
+        return buffer.flip();
+    }
+
+    private static long dataSize(List<OracleEvent> events) {
+        long size = 0;
+        for (OracleEvent event : events) {
+            size += EventCodec.encodedSize(event);
+        }
+        return size;
+    }
+
+    @Test
+    void reopenedLogKeepsEvents() throws IOException {
+        // Enough events to grow both mappings past their initial size
+        List<OracleEvent> events = events(1, 0, 70_000);
+        try (MappedEventLog log = new MappedEventLog(directory)) {
+            append(log, events.subList(0, 40_000));
+        }
+        try (MappedEventLog log = new MappedEventLog(directory)) {
+            assertEquals(40_000, log.size());
+            append(log, events.subList(40_000, events.size()));
+        }
+        try (MappedEventLog log = new MappedEventLog(directory)) {
+            assertEquals(events.size(), log.size());
+            assertEquals(events, log.read(0, log.size()));
+            assertEquals(events.subList(100, 200), log.read(100, 200));
+            assertEquals(3 * 500L, log.firstAtHeight(500));
+            assertEquals(log.size(), log.firstAtHeight(Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void headerAheadOfEventsIsCut() throws IOException {
+        List<OracleEvent> events = events(2, 0, 100);
+        try (MappedEventLog log = new MappedEventLog(directory)) {
+            append(log, events);
+        }
+        // Header reached the disk for three more events, their data and offsets didn't
+        write("events.idx", 0, longs(103, dataSize(events) + 300));
+
+        List<OracleEvent> more = events(3, 100, 10);
+        try (MappedEventLog log = new MappedEventLog(directory)) {
+            assertEquals(100, log.size());
+            assertEquals(events, log.read(0, 100));
+            append(log, more);
+        }
+        try (MappedEventLog log = new MappedEventLog(directory)) {
+            assertEquals(110, log.size());
+            assertEquals(more, log.read(100, 110));
+        }
+    }
+
+    @Test
+    void tornRecordIsCut() throws IOException {
+        List<OracleEvent> events = events(4, 0, 100);
+        try (MappedEventLog log = new MappedEventLog(directory)) {
+            append(log, events);
+        }
+        // Offsets and header written, the page holding the last records only in part
+        long tornAt = dataSize(events.subList(0, 97)) + 6;
+        write("events.dat", tornAt, ByteBuffer.allocate((int) (dataSize(events) - tornAt)));
+
+        try (MappedEventLog log = new MappedEventLog(directory)) {
+            assertEquals(97, log.size());
+            assertEquals(events.subList(0, 97), log.read(0, 97));
+        }
+    }
+
+    @Test
+    void lostOffsetIsCut() throws IOException {
+        List<OracleEvent> events = events(5, 0, 100);
+        try (MappedEventLog log = new MappedEventLog(directory)) {
+            append(log, events);
+        }
+        write("events.idx", 16 + 95 * 8, longs(0));
+
+        try (MappedEventLog log = new MappedEventLog(directory)) {
+            assertEquals(95, log.size());
+            assertEquals(events.subList(0, 95), log.read(0, 95));
+        }
+    }
+
+    @Test
+    void indexerResumesFromLog() throws IOException {
+        List<OracleEvent> events = events(6, 0, 1500);
+        InMemoryEventSource source = new InMemoryEventSource();
+        events.subList(0, 1000).forEach(source::publish);
+
+        try (MappedEventLog log = new MappedEventLog(directory)) {
+            assertEquals(1000, new OracleIndexer(source, log, 64).poll());
+            assertEquals(0, new OracleIndexer(source, log, 64).poll());
+        }
+        events.subList(1000, 1500).forEach(source::publish);
+        try (MappedEventLog log = new MappedEventLog(directory)) {
+            assertEquals(500, new OracleIndexer(source, log).poll());
+            assertEquals(events, log.read(0, log.size()));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+import io.nuls.contract.sdk.Address;
+import nulsoracles.simulation.OracleContract;
+
+import java.math.BigInteger;
+
+/**
+ * Bridge from packaged simulation code to the contract in the default
+ * package, contract methods are inherited as they are
+ */
+public class SimNulsOracles extends NulsOracles implements OracleContract {
+
+    public SimNulsOracles(BigInteger pricePerRead_,
+                          BigInteger minNULSForFeeder_,
+                          BigInteger minValids_,
+                          Address token_,
+                          Address admin_,
+                          Address treasury_,
+                          String[] seeders_) {
+        super(pricePerRead_, minNULSForFeeder_, minValids_, token_, admin_, treasury_, seeders_);
+    }
+
+    @Override
+    public int validFeeders() {
+        return validFeedinOracle;
+    }
+
+    @Override
+    public int pendingFeeders() {
+        return pendingNewFeeders;
+    }
+
+    @Override
+    public int feederRole(Address feeder) {
+        Feeder record = feeders.get(feeder);
+        return (record == null) ? Feeder.ROLE_NONE : record.role;
+    }
+
+    @Override
+    public int roundCounter(String feedId) {
+        return feeds.get(feedId).roundCounter;
+    }
+
+    @Override
+    public boolean roundOpen(String feedId, int roundId) {
+        return feeds.get(feedId).openRound(roundId) != null;
+    }
+
+    @Override
+    public Object state() {
+        return this;
+    }
+}
@@ -0,0 +1,62 @@
+package io.nuls.contract.sdk;
+
+import nulsoracles.simulation.SimChain;
+
+import java.math.BigInteger;
+
+/**
+ * Stand-in for the SDK address, balances and calls go through the active {@link SimChain}
+ */
+public class Address {
+
+    private final String address;
+
+    public Address(String address) {
+        if (address == null || address.isEmpty()) {
+            throw new IllegalArgumentException("Invalid address");
+        }
+        this.address = address;
+    }
+
+    public BigInteger balance() {
+        return SimChain.active().balance(this);
+    }
+
+    public BigInteger totalBalance() {
+        return balance();
+    }
+
+    /**
+     * Transfer from the contract being executed to this address
+     */
+    public void transfer(BigInteger value) {
+        SimChain.active().transfer(this, value);
+    }
+
+    public void call(String methodName, String methodDesc, String[][] args, BigInteger value) {
+        SimChain.active().invoke(this, methodName, args, value);
+    }
+
+    public String callWithReturnValue(String methodName, String methodDesc, String[][] args, BigInteger value) {
+        return SimChain.active().invoke(this, methodName, args, value);
+    }
+
+    public boolean isContract() {
+        return SimChain.active().isContract(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Address && ((Address) o).address.equals(address);
+    }
+
+    @Override
+    public int hashCode() {
+        return address.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return address;
+    }
+}
@@ -0,0 +1,25 @@
+package io.nuls.contract.sdk;
+
+import nulsoracles.simulation.SimChain;
+
+/**
+ * Stand-in for the SDK block info, read from the active {@link SimChain}
+ */
+public class Block {
+
+    public static long timestamp() {
+        return SimChain.active().timestamp();
+    }
+
+    public static long number() {
+        return SimChain.active().height();
+    }
+
+    public static String blockhash(long blockNumber) {
+        return Utils.sha3(Long.toString(blockNumber));
+    }
+
+    public static Address coinbase() {
+        return SimChain.COINBASE;
+    }
+}
@@ -0,0 +1,7 @@
+package io.nuls.contract.sdk;
+
+public interface Contract {
+
+    default void _payable() {
+    }
+}
@@ -0,0 +1,35 @@
+package io.nuls.contract.sdk;
+
+import nulsoracles.simulation.SimChain;
+
+import java.math.BigInteger;
+
+/**
+ * Stand-in for the SDK message, read from the call frame of the active {@link SimChain}
+ */
+public class Msg {
+
+    public static long gasleft() {
+        return SimChain.GAS_LIMIT;
+    }
+
+    public static Address sender() {
+        return SimChain.active().frame().sender();
+    }
+
+    public static String senderPublicKey() {
+        return SimChain.active().publicKey(sender());
+    }
+
+    public static BigInteger value() {
+        return SimChain.active().frame().value();
+    }
+
+    public static long gasprice() {
+        return SimChain.GAS_PRICE;
+    }
+
+    public static Address address() {
+        return SimChain.active().frame().contract();
+    }
+}
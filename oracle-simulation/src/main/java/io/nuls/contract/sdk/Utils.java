@@ -0,0 +1,61 @@
+package io.nuls.contract.sdk;
+
+import nulsoracles.simulation.ContractRevert;
+import nulsoracles.simulation.SimChain;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Stand-in for the SDK utilities, reverts throw {@link ContractRevert}
+ */
+public class Utils {
+
+    private Utils() {
+    }
+
+    public static void require(boolean expression) {
+        if (!expression) {
+            revert();
+        }
+    }
+
+    public static void require(boolean expression, String errorMessage) {
+        if (!expression) {
+            revert(errorMessage);
+        }
+    }
+
+    public static void revert() {
+        throw new ContractRevert(null);
+    }
+
+    public static void revert(String errorMessage) {
+        throw new ContractRevert(errorMessage);
+    }
+
+    public static void emit(Event event) {
+        SimChain.active().emit(event);
+    }
+
+    /**
+     * SHA3-256 of the UTF-8 bytes of the string, as hex
+     */
+    public static String sha3(String src) {
+        return src == null ? null : sha3(src.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha3(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA3-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static boolean verifySignatureData(String data, String signature, String pubkey) {
+        return SimChain.active().signatures().verify(data, signature, pubkey);
+    }
+}
@@ -0,0 +1,22 @@
+package io.nuls.contract.sdk.event;
+
+import io.nuls.contract.sdk.Event;
+
+public class DebugEvent implements Event {
+
+    private final String name;
+    private final String desc;
+
+    public DebugEvent(String name, String desc) {
+        this.name = name;
+        this.desc = desc;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+}
@@ -0,0 +1,52 @@
+package nulsoracles.simulation;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Calls, reverts and wall time of the transactions sent through the harness
+ */
+public class CallStats {
+
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    public void record(String label, long nanos, boolean reverted) {
+        Entry entry = entries.computeIfAbsent(label, l -> new Entry());
+        entry.calls++;
+        entry.nanos += nanos;
+        if (reverted) {
+            entry.reverts++;
+        }
+    }
+
+    public Map<String, Entry> entries() {
+        return Collections.unmodifiableMap(entries);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-28s %10s %10s %12s%n", "call", "calls", "reverts", "avg us");
+        entries.forEach((label, entry) -> out.printf("%-28s %10d %10d %12.2f%n",
+                label, entry.calls, entry.reverts, entry.calls == 0 ? 0.0 : entry.nanos / 1000.0 / entry.calls));
+    }
+
+    public static final class Entry {
+
+        private long calls;
+        private long reverts;
+        private long nanos;
+
+        public long calls() {
+            return calls;
+        }
+
+        public long reverts() {
+            return reverts;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package nulsoracles.simulation;
+
+/**
+ * Contract other than the oracle reached through {@code Address.call}
+ */
+@FunctionalInterface
+public interface ContractHandler {
+
+    /**
+     * @return value returned to {@code callWithReturnValue}, ignored by {@code call}
+     */
+    String call(String method, String[][] args);
+}
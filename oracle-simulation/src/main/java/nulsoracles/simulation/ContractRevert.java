@@ -0,0 +1,15 @@
+package nulsoracles.simulation;
+
+/**
+ * Thrown when a call reverts, the stand-in of a failed {@code require}
+ */
+public class ContractRevert extends RuntimeException {
+
+    public ContractRevert(String message) {
+        super(message);
+    }
+
+    public ContractRevert(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
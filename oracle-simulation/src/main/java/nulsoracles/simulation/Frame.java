@@ -0,0 +1,11 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+
+import java.math.BigInteger;
+
+/**
+ * Call being executed, what {@code Msg} returns inside it
+ */
+public record Frame(Address contract, Address sender, BigInteger value) {
+}
@@ -0,0 +1,32 @@
+package nulsoracles.simulation;
+
+import java.math.BigInteger;
+
+/**
+ * Deployment parameters of an {@link OracleHarness}
+ *
+ * @param seed         seed of the signature keys
+ * @param startTime    chain timestamp at deployment, in seconds
+ * @param pricePerRead cost of a read
+ * @param minDeposit   minNULSForFeeder, also what each feeder deposits
+ * @param seeders      seed feeders given to the constructor, at most 2
+ * @param tokenSupply  totalSupply answered by the mocked token
+ */
+public record HarnessConfig(long seed,
+                            long startTime,
+                            BigInteger pricePerRead,
+                            BigInteger minDeposit,
+                            int seeders,
+                            BigInteger tokenSupply) {
+
+    public static final BigInteger ONE_NULS = BigInteger.valueOf(100_000_000L);
+
+    public static HarnessConfig defaults(long seed) {
+        return new HarnessConfig(seed,
+                1_700_000_000L,
+                ONE_NULS.divide(BigInteger.TEN),
+                ONE_NULS.multiply(BigInteger.valueOf(100)),
+                2,
+                ONE_NULS.multiply(BigInteger.valueOf(100_000_000L)));
+    }
+}
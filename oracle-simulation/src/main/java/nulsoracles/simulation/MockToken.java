@@ -0,0 +1,34 @@
+package nulsoracles.simulation;
+
+import java.math.BigInteger;
+
+/**
+ * Token contract answering the calls the oracle makes to it
+ */
+public class MockToken implements ContractHandler {
+
+    private final BigInteger totalSupply;
+    private long transfers;
+
+    public MockToken(BigInteger totalSupply) {
+        this.totalSupply = totalSupply;
+    }
+
+    @Override
+    public String call(String method, String[][] args) {
+        switch (method) {
+            case "totalSupply":
+                return totalSupply.toString();
+            case "transfer":
+            case "transferFrom":
+                transfers++;
+                return "true";
+            default:
+                throw new ContractRevert("MockToken: unknown method " + method);
+        }
+    }
+
+    public long transfers() {
+        return transfers;
+    }
+}
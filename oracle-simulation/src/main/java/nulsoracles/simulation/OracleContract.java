@@ -0,0 +1,194 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Public methods of the oracle contract.
+ *
+ * The contract is in the default package, which packaged code can't name.
+ * The {@code SimNulsOracles} bridge extends it, inherits these methods and
+ * adds raw state accessors, {@link OracleHarness} creates it by name
+ */
+public interface OracleContract {
+
+    String BRIDGE_CLASS = "SimNulsOracles";
+
+    // Views
+
+    Address getOracleNulsoken();
+
+    Boolean isAdmin(Address admin);
+
+    BigInteger getChallengerPrice();
+
+    BigInteger getFeedChallengerPrice(String feedId);
+
+    List<Integer> getOpenRounds(String feedId);
+
+    String getRound(String feedId, int roundId);
+
+    String getRoundsPage(String feedId, int cursor, int size);
+
+    BigInteger getFeedTwap(String feedId, long window);
+
+    String getFeedHistory(String feedId, int back);
+
+    String getFeedHistoryPage(String feedId, int cursor, int size);
+
+    String getLatestPrice(String feedId);
+
+    long getViewAccessUntil(Address consumer);
+
+    String getPendingPush(String feedId, Address consumer);
+
+    String getFeedThresholds(String feedId);
+
+    List<String> getFeedIds();
+
+    String getFeedIdsPage(int cursor, int size);
+
+    String getFeedersPage(int cursor, int size);
+
+    String getApplicantsPage(int cursor, int size);
+
+    String getYellowCardsPage(int cursor, int size);
+
+    BigInteger getUserBalance(Address addr);
+
+    int getYellowCards(Address addr);
+
+    Boolean newChallenger();
+
+    Boolean newFeedChallenger(String feedId);
+
+    int getValidFeeders();
+
+    BigInteger getTotalActiveStake();
+
+    Boolean isStakeWeighted();
+
+    BigInteger getAccruedTreasuryFees();
+
+    String getStats();
+
+    BigInteger getFeederRewards(Address addr);
+
+    Boolean isPaused();
+
+    String reportMessage(String feedId, int round, BigInteger price, Address signer);
+
+    // Feeders
+
+    void openOracleToPublic();
+
+    void enterNewFeeder();
+
+    void completeProcess(int seedersNumber);
+
+    void iAmActive();
+
+    void alertInactive(Address inactiveUser);
+
+    void alertInactiveBatch(Address[] inactiveUsers);
+
+    void sweepInactive(int maxFeeders);
+
+    void depositOnBehalf();
+
+    void withdraw(BigInteger amount);
+
+    void claimFeederRewards();
+
+    void registerReportKey();
+
+    // Rounds
+
+    void submitOracleInfo(BigInteger newPrice);
+
+    void submitFeedInfo(String feedId, BigInteger newPrice);
+
+    void submitFeedsInfo(String[] feedIds, BigInteger[] newPrices);
+
+    void submitOracleInfoCheck(Boolean feedbackPrice);
+
+    void submitFeedInfoCheck(String feedId, Boolean feedbackPrice);
+
+    void submitRoundCheck(String feedId, int roundId, Boolean feedbackPrice);
+
+    void submitAggregatedReport(String feedId, BigInteger median, String[] signers, BigInteger[] prices, String[] signatures);
+
+    void ratOut(int challengeRound, Address maliciousUser);
+
+    void ratOutFeed(String feedId, int challengeRound, Address maliciousUser);
+
+    void ratOutBatch(String feedId, int[] challengeRounds, Address[] maliciousUsers);
+
+    // Consumers
+
+    String readInfo();
+
+    String readFeedInfo(String feedId);
+
+    String readReport();
+
+    String readFeedReport(String feedId);
+
+    String readFeedsInfo(String[] feedIds);
+
+    void buyViewAccess(Address consumer, int days);
+
+    void subscribe(String feedId, int deviationBps);
+
+    void unsubscribe(String feedId);
+
+    String pullPrice(String feedId);
+
+    void deliverPush(String feedId, Address consumer);
+
+    // Admin
+
+    void addAdmin(Address newAdmin);
+
+    void removeAdmin(Address removeAdmin);
+
+    void cleanYellowCards(Address addr);
+
+    void claimTreasuryFees();
+
+    void removeSubscription(String feedId, Address consumer);
+
+    void claimLeftOvers(Address recipient);
+
+    void addFeed(String feedId);
+
+    void setFeedThresholds(String feedId, int deviationBps, long heartbeat, boolean adaptive);
+
+    void setStakeWeighted(boolean weighted);
+
+    void setPaused();
+
+    void setUnpaused();
+
+    // Raw state, read without a call
+
+    int validFeeders();
+
+    int pendingFeeders();
+
+    /**
+     * @return feeder role, 0 if it has no record
+     */
+    int feederRole(Address feeder);
+
+    int roundCounter(String feedId);
+
+    boolean roundOpen(String feedId, int roundId);
+
+    /**
+     * @return contract object, for tools walking its fields
+     */
+    Object state();
+}
@@ -0,0 +1,205 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Oracle deployed on a fresh {@link SimChain} with its token, admin,
+ * treasury and seeders, plus helpers to send timed transactions and
+ * admit feeders
+ */
+public class OracleHarness {
+
+    public static final BigInteger APPLY_FEE = HarnessConfig.ONE_NULS.multiply(BigInteger.valueOf(25));
+    public static final long ADMISSION_WAIT = 60 * 60 * 24 * 3 + 1;
+
+    private static final BigInteger ACCOUNT_FUNDS = HarnessConfig.ONE_NULS.multiply(BigInteger.valueOf(1_000_000));
+
+    private final HarnessConfig config;
+    private final SimChain chain;
+    private final CallStats stats = new CallStats();
+    private final Address oracleAddress;
+    private final Address admin;
+    private final Address treasury;
+    private final List<Address> seeders = new ArrayList<>();
+    private final List<Address> feeders = new ArrayList<>();
+    private final OracleContract oracle;
+
+    public OracleHarness(HarnessConfig config) {
+        this.config = config;
+        this.chain = new SimChain(config.startTime(), new P256Signatures(config.seed()));
+        SimChain.install(chain);
+
+        Address token = new Address("NULSdSimToken");
+        chain.deploy(token, new MockToken(config.tokenSupply()));
+
+        oracleAddress = new Address("NULSdSimOracle");
+        chain.markContract(oracleAddress);
+        admin = account("admin");
+        treasury = account("treasury");
+
+        String[] seederIds = new String[config.seeders()];
+        for (int i = 0; i < seederIds.length; i++) {
+            Address seeder = account("seeder-" + i);
+            seeders.add(seeder);
+            seederIds[i] = seeder.toString();
+        }
+
+        oracle = chain.send(oracleAddress, admin, BigInteger.ZERO,
+                () -> create(config, token, admin, treasury, seederIds));
+        chain.track(oracle);
+
+        for (Address seeder : seeders) {
+            send("depositOnBehalf", seeder, config.minDeposit(), OracleContract::depositOnBehalf);
+        }
+    }
+
+    private static OracleContract create(HarnessConfig config, Address token, Address admin,
+                                         Address treasury, String[] seeders) {
+        try {
+            return (OracleContract) Class.forName(OracleContract.BRIDGE_CLASS)
+                    .getConstructor(BigInteger.class, BigInteger.class, BigInteger.class,
+                            Address.class, Address.class, Address.class, String[].class)
+                    .newInstance(config.pricePerRead(), config.minDeposit(), BigInteger.ONE,
+                            token, admin, treasury, seeders);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Oracle bridge not on the class path", e);
+        }
+    }
+
+    /**
+     * Funded account with a stable address for the label
+     */
+    public Address account(String label) {
+        Address account = new Address("NULSdSim" + label);
+        if (chain.balance(account).signum() == 0) {
+            chain.mint(account, ACCOUNT_FUNDS);
+        }
+        return account;
+    }
+
+    /**
+     * Send a transaction to the oracle, timed under the label
+     *
+     * @throws ContractRevert if it reverts
+     */
+    public <T> T call(String label, Address sender, BigInteger value, Function<OracleContract, T> body) {
+        long start = System.nanoTime();
+        boolean reverted = true;
+        try {
+            T result = chain.send(oracleAddress, sender, value, () -> body.apply(oracle));
+            reverted = false;
+            return result;
+        } finally {
+            stats.record(label, System.nanoTime() - start, reverted);
+        }
+    }
+
+    public void send(String label, Address sender, BigInteger value, Consumer<OracleContract> body) {
+        call(label, sender, value, o -> {
+            body.accept(o);
+            return null;
+        });
+    }
+
+    /**
+     * @return revert message, null if the transaction went through
+     */
+    public String trySend(String label, Address sender, BigInteger value, Consumer<OracleContract> body) {
+        try {
+            send(label, sender, value, body);
+            return null;
+        } catch (ContractRevert e) {
+            return String.valueOf(e.getMessage());
+        }
+    }
+
+    public <T> T view(Address sender, Function<OracleContract, T> body) {
+        return chain.view(oracleAddress, sender, () -> body.apply(oracle));
+    }
+
+    /**
+     * Open the oracle and admit new contract feeders until there are count
+     * of them, in as many admission cycles as the contract allows. The
+     * clock moves 3 days per cycle
+     *
+     * @return every feeder admitted so far
+     */
+    public List<Address> admitFeeders(int count) {
+        if (feeders.isEmpty()) {
+            send("openOracleToPublic", admin, BigInteger.ZERO, OracleContract::openOracleToPublic);
+        }
+
+        List<Address> waiting = new ArrayList<>();
+        for (int i = feeders.size(); i < count; i++) {
+            Address feeder = account("feeder-" + i);
+            chain.markContract(feeder);
+            send("depositOnBehalf", feeder, config.minDeposit(), OracleContract::depositOnBehalf);
+            waiting.add(feeder);
+        }
+
+        int next = 0;
+        while (next < waiting.size()) {
+            List<Address> applied = new ArrayList<>();
+            while (next < waiting.size() && oracle.pendingFeeders() < oracle.validFeeders() / 2) {
+                Address feeder = waiting.get(next++);
+                send("enterNewFeeder", feeder, APPLY_FEE, OracleContract::enterNewFeeder);
+                applied.add(feeder);
+            }
+            if (applied.isEmpty()) {
+                throw new IllegalStateException("No admission slot, " + oracle.validFeeders() + " valid feeders");
+            }
+
+            chain.advance(ADMISSION_WAIT);
+            for (Address feeder : applied) {
+                send("completeProcess", feeder, BigInteger.ZERO, o -> o.completeProcess(0));
+                feeders.add(feeder);
+            }
+        }
+        return Collections.unmodifiableList(feeders);
+    }
+
+    public HarnessConfig config() {
+        return config;
+    }
+
+    public SimChain chain() {
+        return chain;
+    }
+
+    public OracleContract oracle() {
+        return oracle;
+    }
+
+    public CallStats stats() {
+        return stats;
+    }
+
+    public Address oracleAddress() {
+        return oracleAddress;
+    }
+
+    public Address admin() {
+        return admin;
+    }
+
+    public Address treasury() {
+        return treasury;
+    }
+
+    public List<Address> seeders() {
+        return Collections.unmodifiableList(seeders);
+    }
+}
@@ -0,0 +1,84 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * ECDSA over P-256 with keys derived from a seed and the account, so runs
+ * are repeatable. The node uses secp256k1, which the JDK no longer ships,
+ * the contract only sees hex strings so the curve doesn't change its path
+ */
+public class P256Signatures implements SignatureScheme {
+
+    private static final String ALGORITHM = "SHA256withECDSA";
+
+    private final long seed;
+    private final Map<Address, KeyPair> keys = new HashMap<>();
+
+    public P256Signatures(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public String publicKey(Address account) {
+        return HexFormat.of().formatHex(keyPair(account).getPublic().getEncoded());
+    }
+
+    @Override
+    public String sign(Address account, String dataHex) {
+        try {
+            Signature signature = Signature.getInstance(ALGORITHM);
+            signature.initSign(keyPair(account).getPrivate(), random(account + "/sign/" + dataHex));
+            signature.update(HexFormat.of().parseHex(dataHex));
+            return HexFormat.of().formatHex(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean verify(String dataHex, String signatureHex, String publicKeyHex) {
+        try {
+            PublicKey key = KeyFactory.getInstance("EC")
+                    .generatePublic(new X509EncodedKeySpec(HexFormat.of().parseHex(publicKeyHex)));
+            Signature signature = Signature.getInstance(ALGORITHM);
+            signature.initVerify(key);
+            signature.update(HexFormat.of().parseHex(dataHex));
+            return signature.verify(HexFormat.of().parseHex(signatureHex));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private KeyPair keyPair(Address account) {
+        return keys.computeIfAbsent(account, a -> {
+            try {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"), random(a.toString()));
+                return generator.generateKeyPair();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private SecureRandom random(String label) throws GeneralSecurityException {
+        // SHA1PRNG only uses the given seed when seeded before the first output
+        SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
+        random.setSeed((seed + "/" + label).getBytes(StandardCharsets.UTF_8));
+        return random;
+    }
+}
@@ -0,0 +1,21 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+
+/**
+ * Keys of the simulated accounts and the check behind {@code Utils.verifySignatureData}
+ */
+public interface SignatureScheme {
+
+    /**
+     * @return hex public key returned by {@code Msg.senderPublicKey}
+     */
+    String publicKey(Address account);
+
+    /**
+     * @return hex signature of the hex data with the account key
+     */
+    String sign(Address account, String dataHex);
+
+    boolean verify(String dataHex, String signatureHex, String publicKeyHex);
+}
@@ -0,0 +1,278 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+import io.nuls.contract.sdk.Event;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory chain behind the SDK stand-ins: clock, balances, call frames,
+ * transfers and events.
+ *
+ * A transaction that reverts gets its balance changes, transfers and events
+ * rolled back, and the fields of every tracked contract restored to what
+ * they were before it, as a real chain does. Writes made before a failed
+ * check leave nothing behind, the reentrancy flag included
+ */
+public final class SimChain {
+
+    public static final long GAS_LIMIT = 10_000_000L;
+    public static final long GAS_PRICE = 25L;
+    public static final long BLOCK_TIME = 10;
+    public static final Address COINBASE = new Address("NULSdSimCoinbase");
+
+    private static SimChain active;
+
+    private final SignatureScheme signatures;
+    private final Map<Address, BigInteger> balances = new HashMap<>();
+    private final Map<Address, ContractHandler> handlers = new HashMap<>();
+    private final Set<Address> contracts = new HashSet<>();
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+    private final List<Transfer> transfers = new ArrayList<>();
+    private final List<Event> events = new ArrayList<>();
+    private final List<Event> pendingEvents = new ArrayList<>();
+    private final Map<String, Long> eventCounts = new TreeMap<>();
+    private final Map<Address, BigInteger> journal = new HashMap<>();
+    private final List<Object> states = new ArrayList<>();
+
+    private long timestamp;
+    private long height;
+    private long txCount;
+    private boolean recordHistory = true;
+
+    public SimChain(long timestamp, SignatureScheme signatures) {
+        this.timestamp = timestamp;
+        this.signatures = signatures;
+    }
+
+    /**
+     * Chain the SDK stand-ins read from
+     */
+    public static SimChain active() {
+        if (active == null) {
+            throw new IllegalStateException("No SimChain installed");
+        }
+        return active;
+    }
+
+    public static void install(SimChain chain) {
+        active = chain;
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public long height() {
+        return height;
+    }
+
+    public void advance(long seconds) {
+        timestamp += seconds;
+        height += Math.max(1, seconds / BLOCK_TIME);
+    }
+
+    public long txCount() {
+        return txCount;
+    }
+
+    public SignatureScheme signatures() {
+        return signatures;
+    }
+
+    public String publicKey(Address account) {
+        return signatures.publicKey(account);
+    }
+
+    public BigInteger balance(Address account) {
+        return balances.getOrDefault(account, BigInteger.ZERO);
+    }
+
+    public void mint(Address account, BigInteger amount) {
+        balances.put(account, balance(account).add(amount));
+    }
+
+    /**
+     * Account passes {@code isContract} but can't be called
+     */
+    public void markContract(Address account) {
+        contracts.add(account);
+    }
+
+    public void deploy(Address account, ContractHandler handler) {
+        contracts.add(account);
+        handlers.put(account, handler);
+        states.add(handler);
+    }
+
+    /**
+     * Contract object whose fields are rolled back when a transaction reverts
+     */
+    public void track(Object state) {
+        states.add(state);
+    }
+
+    public boolean isContract(Address account) {
+        return contracts.contains(account);
+    }
+
+    /**
+     * Keep committed transfers and events, off for long runs where only
+     * the event counts are needed
+     */
+    public void recordHistory(boolean record) {
+        recordHistory = record;
+    }
+
+    public List<Transfer> transfers() {
+        return Collections.unmodifiableList(transfers);
+    }
+
+    public List<Event> events() {
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * @return committed events by class simple name
+     */
+    public Map<String, Long> eventCounts() {
+        return Collections.unmodifiableMap(eventCounts);
+    }
+
+    public Frame frame() {
+        Frame frame = frames.peek();
+        if (frame == null) {
+            throw new IllegalStateException("No call in progress");
+        }
+        return frame;
+    }
+
+    /**
+     * Run a transaction of sender to the contract, value is moved to the
+     * contract before the body runs
+     *
+     * @throws ContractRevert if the body reverts or throws, after rolling back
+     */
+    public <T> T send(Address contract, Address sender, BigInteger value, Supplier<T> body) {
+        if (!frames.isEmpty()) {
+            throw new IllegalStateException("Transactions can't be nested");
+        }
+
+        txCount++;
+        int transferMark = transfers.size();
+        StateSnapshot snapshot = StateSnapshot.take(states);
+        frames.push(new Frame(contract, sender, value));
+        try {
+            move(sender, contract, value);
+            T result = body.get();
+            commit();
+            return result;
+        } catch (RuntimeException e) {
+            rollback(transferMark, snapshot);
+            throw (e instanceof ContractRevert) ? e : new ContractRevert(e.toString(), e);
+        } finally {
+            frames.pop();
+            journal.clear();
+        }
+    }
+
+    public void send(Address contract, Address sender, BigInteger value, Runnable body) {
+        send(contract, sender, value, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run a view call, nothing is recorded
+     */
+    public <T> T view(Address contract, Address sender, Supplier<T> body) {
+        frames.push(new Frame(contract, sender, BigInteger.ZERO));
+        try {
+            return body.get();
+        } finally {
+            frames.pop();
+        }
+    }
+
+    /**
+     * Transfer from the contract being executed
+     */
+    public void transfer(Address to, BigInteger amount) {
+        Address from = frame().contract();
+        move(from, to, amount);
+        if (recordHistory) {
+            transfers.add(new Transfer(txCount, from, to, amount));
+        }
+    }
+
+    /**
+     * Call from the contract being executed to a deployed handler
+     */
+    public String invoke(Address target, String method, String[][] args, BigInteger value) {
+        ContractHandler handler = handlers.get(target);
+        if (handler == null) {
+            throw new ContractRevert("No contract at " + target);
+        }
+
+        BigInteger amount = (value == null) ? BigInteger.ZERO : value;
+        Address caller = frame().contract();
+        frames.push(new Frame(target, caller, amount));
+        try {
+            move(caller, target, amount);
+            return handler.call(method, args);
+        } finally {
+            frames.pop();
+        }
+    }
+
+    public void emit(Event event) {
+        pendingEvents.add(event);
+    }
+
+    private void move(Address from, Address to, BigInteger amount) {
+        if (amount.signum() < 0) {
+            throw new ContractRevert("Negative amount");
+        }
+        if (amount.signum() == 0) {
+            return;
+        }
+
+        BigInteger fromBalance = balance(from);
+        if (fromBalance.compareTo(amount) < 0) {
+            throw new ContractRevert("Insufficient balance of " + from);
+        }
+
+        journal.putIfAbsent(from, fromBalance);
+        journal.putIfAbsent(to, balance(to));
+        balances.put(from, fromBalance.subtract(amount));
+        balances.put(to, balance(to).add(amount));
+    }
+
+    private void commit() {
+        for (Event event : pendingEvents) {
+            eventCounts.merge(event.getClass().getSimpleName(), 1L, Long::sum);
+        }
+        if (recordHistory) {
+            events.addAll(pendingEvents);
+        }
+        pendingEvents.clear();
+    }
+
+    private void rollback(int transferMark, StateSnapshot snapshot) {
+        balances.putAll(journal);
+        transfers.subList(transferMark, transfers.size()).clear();
+        pendingEvents.clear();
+        snapshot.restore();
+    }
+}
@@ -0,0 +1,558 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+import io.nuls.contract.sdk.Utils;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic run of the real contract with many feeders and rounds.
+ *
+ * Prices follow a random walk per feed. Feeders submit whenever the
+ * contract should accept the price, honest feeders approve market prices
+ * and reject bad ones, a few malicious feeders do the opposite and get
+ * ratted out, a few feeders drop out and get swept. Every outcome is checked
+ * against a model of the deviation and heartbeat rules and against the
+ * report consumers read. The same seed always gives the same digest.
+ *
+ * Usage: {@code Simulation [seed=1] [feeders=1000] [rounds=2000] [feeds=3] [weighted=false]},
+ * weighted runs with the stake weighted quorum
+ */
+public final class Simulation {
+
+    private static final BigInteger BASIS_POINTS = BigInteger.valueOf(10_000);
+    private static final long ONE_DAY = 60 * 60 * 24;
+    private static final long START_PRICE = 2_500_000_000L;
+    private static final int[] DEVIATIONS = {100, 50, 250};
+    private static final long[] HEARTBEATS = {3600, 1800, 7200};
+    private static final int MALICIOUS_PERCENT = 2;
+    private static final int DROPOUT_PERCENT = 1;
+    private static final int RAT_OUT_BATCH = 100;
+    private static final int MAX_STEPS_PER_ROUND = 50;
+    private static final int MAX_FAILURES_SHOWN = 20;
+
+    private final long seed;
+    private final int feederCount;
+    private final int roundTarget;
+    private final Random random;
+    private final OracleHarness harness;
+    private final OracleContract oracle;
+    private final SimChain chain;
+    private final BigInteger pricePerRead;
+    private final MessageDigest digest;
+
+    private final List<FeedModel> feeds = new ArrayList<>();
+    private final List<Address> participants = new ArrayList<>();
+    private boolean[] malicious;
+    private boolean[] dropout;
+    private boolean[] hasReportKey;
+    private long[] lastActive;
+    private int[] order;
+    private int drawn;
+    private boolean droppedOut;
+
+    private final List<Address> consumers = new ArrayList<>();
+    private Address watcher;
+    private Address reader;
+
+    private long checks;
+    private final List<String> failures = new ArrayList<>();
+    private long failureCount;
+    private long approved;
+    private long rejected;
+    private long reports;
+    private long ratOuts;
+    private long tooSoon;
+
+    public Simulation(long seed, int feederCount, int roundTarget, int feedCount, boolean stakeWeighted) {
+        this.seed = seed;
+        this.feederCount = feederCount;
+        this.roundTarget = roundTarget;
+        this.random = new Random(seed);
+        this.harness = new OracleHarness(HarnessConfig.defaults(seed));
+        this.oracle = harness.oracle();
+        this.chain = harness.chain();
+        this.pricePerRead = harness.config().pricePerRead();
+        chain.recordHistory(false);
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        for (int i = 0; i < feedCount; i++) {
+            String id = (i == 0) ? "DEFAULT" : "FEED-" + i;
+            int t = i % DEVIATIONS.length;
+            if (i > 0) {
+                harness.send("addFeed", harness.admin(), BigInteger.ZERO, o -> o.addFeed(id));
+            }
+            harness.send("setFeedThresholds", harness.admin(), BigInteger.ZERO,
+                    o -> o.setFeedThresholds(id, DEVIATIONS[t], HEARTBEATS[t], false));
+            feeds.add(new FeedModel(id, START_PRICE * (i + 1), DEVIATIONS[t], HEARTBEATS[t]));
+        }
+        if (stakeWeighted) {
+            harness.send("setStakeWeighted", harness.admin(), BigInteger.ZERO, o -> o.setStakeWeighted(true));
+        }
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(pair[0], pair[1]);
+        }
+
+        Simulation simulation = new Simulation(
+                Long.parseLong(options.getOrDefault("seed", "1")),
+                Integer.parseInt(options.getOrDefault("feeders", "1000")),
+                Integer.parseInt(options.getOrDefault("rounds", "2000")),
+                Integer.parseInt(options.getOrDefault("feeds", "3")),
+                Boolean.parseBoolean(options.getOrDefault("weighted", "false")));
+
+        long start = System.nanoTime();
+        simulation.run();
+        simulation.print((System.nanoTime() - start) / 1_000_000);
+
+        System.exit(simulation.failureCount == 0 ? 0 : 1);
+    }
+
+    public void run() {
+        participants.addAll(harness.seeders());
+        participants.addAll(harness.admitFeeders(feederCount));
+
+        int n = participants.size();
+        malicious = new boolean[n];
+        dropout = new boolean[n];
+        hasReportKey = new boolean[n];
+        lastActive = new long[n];
+        order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            // Seeders stay honest so the oracle always has a majority to start from
+            if (i >= harness.seeders().size()) {
+                int roll = random.nextInt(100);
+                malicious[i] = roll < MALICIOUS_PERCENT;
+                dropout[i] = !malicious[i] && roll < MALICIOUS_PERCENT + DROPOUT_PERCENT;
+            }
+        }
+
+        watcher = harness.account("watcher");
+        reader = harness.account("reader");
+        chain.markContract(reader);
+        harness.send("buyViewAccess", reader, pricePerRead.multiply(BigInteger.valueOf(24 * 365)),
+                o -> o.buyViewAccess(reader, 365));
+        for (int i = 0; i < 4; i++) {
+            consumers.add(harness.account("consumer-" + i));
+        }
+
+        int steps = 0;
+        while (approved + rejected < roundTarget && steps < roundTarget * MAX_STEPS_PER_ROUND) {
+            step(steps++);
+        }
+        checkStats();
+        checkStake();
+    }
+
+    /**
+     * Stats of the contract count every round closed, by vote or report
+     */
+    private void checkStats() {
+        String[] stats = harness.view(watcher, OracleContract::getStats).split(",");
+        check(Long.parseLong(stats[1]) == approved, "stats count " + stats[1] + " rounds approved, expected " + approved);
+        check(Long.parseLong(stats[2]) == rejected, "stats count " + stats[2] + " rounds rejected, expected " + rejected);
+    }
+
+    /**
+     * Feeder count and stake kept by the contract must match the feeders
+     * that are seeders or admitted and not expelled
+     */
+    private void checkStake() {
+        int counted = 0;
+        BigInteger stake = BigInteger.ZERO;
+        for (Address feeder : participants) {
+            if (oracle.feederRole(feeder) != 0 && harness.view(watcher, o -> o.getYellowCards(feeder)) <= 5) {
+                counted++;
+                stake = stake.add(harness.view(watcher, o -> o.getUserBalance(feeder)));
+            }
+        }
+        BigInteger total = harness.view(watcher, OracleContract::getTotalActiveStake);
+        check(oracle.validFeeders() == counted, "valid feeders " + oracle.validFeeders() + ", counted " + counted);
+        check(total.equals(stake), "total active stake " + total + ", counted " + stake);
+    }
+
+    private void step(int step) {
+        chain.advance(60 + random.nextInt(1140));
+
+        if (!droppedOut && approved + rejected >= roundTarget / 3) {
+            droppedOut = true;
+        }
+        keepAlive();
+
+        for (FeedModel feed : feeds) {
+            long move = (long) (feed.market * random.nextGaussian() * 0.003);
+            feed.market = Math.max(1, feed.market + move);
+        }
+
+        FeedModel feed = feeds.get(random.nextInt(feeds.size()));
+        startDraw();
+        int owner = nextVoter(-1);
+        if (owner >= 0) {
+            boolean bad = malicious[owner] && random.nextInt(2) == 0;
+            BigInteger price = BigInteger.valueOf(bad ? feed.market + feed.market / 4 : feed.market);
+
+            if (allowed(feed, price)) {
+                if (!bad && random.nextInt(5) == 0) {
+                    aggregatedReport(feed, owner, price);
+                } else {
+                    round(feed, owner, price, !bad);
+                }
+            } else if (random.nextInt(4) == 0) {
+                probeTooSoon(feed, owner, price);
+            }
+        }
+
+        for (int i = random.nextInt(3); i > 0; i--) {
+            read(feeds.get(random.nextInt(feeds.size())));
+        }
+
+        if (step % 10 == 0) {
+            for (FeedModel f : feeds) {
+                ratOut(f);
+            }
+        }
+        if (step % 25 == 0) {
+            harness.trySend("sweepInactive", watcher, BigInteger.ZERO, o -> o.sweepInactive(50));
+            if (oracle.getAccruedTreasuryFees().signum() > 0) {
+                harness.send("claimTreasuryFees", harness.treasury(), BigInteger.ZERO, OracleContract::claimTreasuryFees);
+            }
+        }
+    }
+
+    /**
+     * Open a round and vote it until it closes
+     */
+    private void round(FeedModel feed, int owner, BigInteger price, boolean honest) {
+        String revert = harness.trySend("submitFeedInfo", participants.get(owner), BigInteger.ZERO,
+                o -> o.submitFeedInfo(feed.id, price));
+        record("submit", feed.id, price, revert);
+        if (!check(revert == null, "submit of allowed price " + price + " on " + feed.id + " reverted: " + revert)) {
+            return;
+        }
+        lastActive[owner] = chain.timestamp();
+
+        int roundId = oracle.roundCounter(feed.id) - 1;
+        List<Integer> against = new ArrayList<>();
+
+        startDraw();
+        while (oracle.roundOpen(feed.id, roundId)) {
+            int voter = nextVoter(owner);
+            if (voter < 0) {
+                break;
+            }
+
+            boolean approve = honest != malicious[voter];
+            String vote = harness.trySend("submitRoundCheck", participants.get(voter), BigInteger.ZERO,
+                    o -> o.submitRoundCheck(feed.id, roundId, approve));
+            check(vote == null, "vote on round " + roundId + " of " + feed.id + " reverted: " + vote);
+            lastActive[voter] = chain.timestamp();
+
+            if (approve != honest) {
+                against.add(voter);
+            }
+        }
+
+        if (!check(!oracle.roundOpen(feed.id, roundId), "round " + roundId + " of " + feed.id + " got no quorum")) {
+            return;
+        }
+
+        if (honest) {
+            approved++;
+            commit(feed, price, roundId);
+        } else {
+            rejected++;
+        }
+        for (int voter : against) {
+            feed.disputes.add(new int[]{roundId, voter});
+        }
+        record("round", feed.id, BigInteger.valueOf(roundId), honest ? "approved" : "rejected");
+    }
+
+    /**
+     * Approve the price with signed observations of a quorum in one transaction
+     */
+    private void aggregatedReport(FeedModel feed, int owner, BigInteger price) {
+        int quorum = oracle.validFeeders() / 2 + 1;
+        int roundId = oracle.roundCounter(feed.id);
+
+        List<String> signers = new ArrayList<>();
+        List<String> signatures = new ArrayList<>();
+        startDraw();
+        while (signers.size() < quorum) {
+            int signer = nextVoter(-1);
+            if (signer < 0) {
+                return;
+            }
+            if (malicious[signer]) {
+                continue;
+            }
+
+            Address account = participants.get(signer);
+            if (!hasReportKey[signer]) {
+                harness.send("registerReportKey", account, BigInteger.ZERO, OracleContract::registerReportKey);
+                hasReportKey[signer] = true;
+            }
+
+            String message = harness.view(account, o -> o.reportMessage(feed.id, roundId, price, account));
+            signers.add(account.toString());
+            signatures.add(chain.signatures().sign(account, Utils.sha3(message)));
+            lastActive[signer] = chain.timestamp();
+        }
+
+        BigInteger[] prices = new BigInteger[signers.size()];
+        Arrays.fill(prices, price);
+
+        String revert = harness.trySend("submitAggregatedReport", participants.get(owner), BigInteger.ZERO,
+                o -> o.submitAggregatedReport(feed.id, price, signers.toArray(new String[0]), prices,
+                        signatures.toArray(new String[0])));
+        record("report", feed.id, price, revert);
+        if (check(revert == null, "aggregated report of " + price + " on " + feed.id + " reverted: " + revert)) {
+            reports++;
+            approved++;
+            lastActive[owner] = chain.timestamp();
+            commit(feed, price, roundId);
+        }
+    }
+
+    /**
+     * Price inside the band before the heartbeat must be refused
+     */
+    private void probeTooSoon(FeedModel feed, int owner, BigInteger price) {
+        String revert = harness.trySend("submitFeedInfo", participants.get(owner), BigInteger.ZERO,
+                o -> o.submitFeedInfo(feed.id, price));
+        record("probe", feed.id, price, revert);
+        if (check("Too soon".equals(revert), "price " + price + " inside band of " + feed.id + " got: " + revert)) {
+            tooSoon++;
+        }
+    }
+
+    private void commit(FeedModel feed, BigInteger price, int roundId) {
+        feed.price = price;
+        feed.lastUpdated = chain.timestamp();
+        feed.round = roundId;
+        read(feed);
+    }
+
+    /**
+     * Report read by a consumer and by the free view must match the model
+     */
+    private void read(FeedModel feed) {
+        Address consumer = consumers.get(random.nextInt(consumers.size()));
+        String report = harness.call("readFeedReport", consumer, pricePerRead, o -> o.readFeedReport(feed.id));
+        if (feed.price == null) {
+            return;
+        }
+
+        boolean stale = chain.timestamp() >= feed.lastUpdated + feed.heartbeat;
+        String expected = stale ? "01" : "00";
+        check(report.length() == 60
+                        && report.startsWith("02")
+                        && report.startsWith(expected, 2)
+                        && new BigInteger(report.substring(4, 36), 16).equals(feed.price)
+                        && Long.parseLong(report.substring(36, 52), 16) == feed.lastUpdated
+                        && Integer.parseInt(report.substring(52, 60), 16) == feed.round,
+                "report of " + feed.id + " is " + report + ", expected price " + feed.price
+                        + " at " + feed.lastUpdated + " round " + feed.round + " stale " + stale);
+
+        String free = harness.view(reader, o -> o.getLatestPrice(feed.id));
+        check(report.equals(free), "getLatestPrice of " + feed.id + " is " + free + ", read " + report);
+    }
+
+    /**
+     * Report every vote against a round result, in batches
+     */
+    private void ratOut(FeedModel feed) {
+        while (!feed.disputes.isEmpty()) {
+            List<int[]> batch = feed.disputes.subList(0, Math.min(RAT_OUT_BATCH, feed.disputes.size()));
+            int[] rounds = new int[batch.size()];
+            Address[] offenders = new Address[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                rounds[i] = batch.get(i)[0];
+                offenders[i] = participants.get(batch.get(i)[1]);
+            }
+
+            BigInteger before = chain.balance(watcher);
+            String revert = harness.trySend("ratOutBatch", watcher, BigInteger.ZERO,
+                    o -> o.ratOutBatch(feed.id, rounds, offenders));
+            record("ratOut", feed.id, BigInteger.valueOf(rounds.length), revert);
+            if (check(revert == null, "rat out of " + rounds.length + " votes on " + feed.id + " reverted: " + revert)) {
+                BigInteger paid = chain.balance(watcher).subtract(before);
+                check(paid.equals(HarnessConfig.ONE_NULS.multiply(BigInteger.valueOf(5L * rounds.length))),
+                        "rat out of " + rounds.length + " votes paid " + paid);
+                ratOuts += rounds.length;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Feeders that didn't act for a day ping the oracle, drop outs stop
+     */
+    private void keepAlive() {
+        long now = chain.timestamp();
+        for (int i = 0; i < participants.size(); i++) {
+            if (lastActive[i] + ONE_DAY > now || (droppedOut && dropout[i]) || !eligible(i)) {
+                continue;
+            }
+            harness.send("iAmActive", participants.get(i), BigInteger.ZERO, OracleContract::iAmActive);
+            lastActive[i] = now;
+        }
+    }
+
+    private void startDraw() {
+        drawn = 0;
+    }
+
+    /**
+     * Draw the next participant of a shuffle started with startDraw, each
+     * one is drawn at most once, skipping the excluded one and those that
+     * can't vote
+     *
+     * @return participant index, -1 when every participant was drawn
+     */
+    private int nextVoter(int excluded) {
+        while (drawn < order.length) {
+            int pick = drawn + random.nextInt(order.length - drawn);
+            int voter = order[pick];
+            order[pick] = order[drawn];
+            order[drawn++] = voter;
+
+            if (voter != excluded && !(droppedOut && dropout[voter]) && eligible(voter)) {
+                return voter;
+            }
+        }
+        return -1;
+    }
+
+    private boolean eligible(int i) {
+        Address account = participants.get(i);
+        return oracle.feederRole(account) != 0 && oracle.getYellowCards(account) <= 5;
+    }
+
+    /**
+     * Deviation and heartbeat rules as documented, computed apart from the contract
+     */
+    private boolean allowed(FeedModel feed, BigInteger price) {
+        if (feed.price == null || chain.timestamp() >= feed.lastUpdated + feed.heartbeat) {
+            return true;
+        }
+        BigInteger bps = BigInteger.valueOf(feed.deviationBps);
+        BigInteger low = feed.price.multiply(BASIS_POINTS).divide(BASIS_POINTS.add(bps));
+        BigInteger high = feed.price.multiply(BASIS_POINTS).divide(BASIS_POINTS.subtract(bps));
+        return price.compareTo(low) <= 0 || price.compareTo(high) >= 0;
+    }
+
+    private boolean check(boolean condition, String failure) {
+        checks++;
+        if (!condition) {
+            failureCount++;
+            if (failures.size() < MAX_FAILURES_SHOWN) {
+                failures.add("t=" + chain.timestamp() + " " + failure);
+            }
+        }
+        return condition;
+    }
+
+    private void record(String kind, String feedId, BigInteger value, String outcome) {
+        digest.update((kind + "|" + feedId + "|" + value + "|" + chain.timestamp() + "|" + outcome + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long checks() {
+        return checks;
+    }
+
+    public long failureCount() {
+        return failureCount;
+    }
+
+    /**
+     * @return first failed checks, at most 20
+     */
+    public List<String> failures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public long approved() {
+        return approved;
+    }
+
+    public long rejected() {
+        return rejected;
+    }
+
+    public long reports() {
+        return reports;
+    }
+
+    public OracleHarness harness() {
+        return harness;
+    }
+
+    /**
+     * @return digest of every outcome recorded so far, the run goes on recording
+     */
+    public String digest() {
+        try {
+            return HexFormat.of().formatHex(((MessageDigest) digest.clone()).digest());
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void print(long millis) {
+        System.out.printf("seed %d, %d participants, %d valid feeders at the end%n",
+                seed, participants.size(), oracle.validFeeders());
+        System.out.printf("rounds approved %d (%d by report), rejected %d, too soon %d, votes ratted out %d%n",
+                approved, reports, rejected, tooSoon, ratOuts);
+        System.out.printf("transactions %d in %d ms%n", chain.txCount(), millis);
+        System.out.println("events " + chain.eventCounts());
+        harness.stats().print(System.out);
+        System.out.printf("checks %d, failures %d%n", checks, failureCount);
+        failures.forEach(f -> System.out.println("  " + f));
+        System.out.println("digest " + digest());
+    }
+
+    private static final class FeedModel {
+
+        private final String id;
+        private final int deviationBps;
+        private final long heartbeat;
+        private final List<int[]> disputes = new ArrayList<>();
+        private long market;
+        private BigInteger price;
+        private long lastUpdated;
+        private int round;
+
+        private FeedModel(String id, long market, int deviationBps, long heartbeat) {
+            this.id = id;
+            this.market = market;
+            this.deviationBps = deviationBps;
+            this.heartbeat = heartbeat;
+        }
+    }
+}
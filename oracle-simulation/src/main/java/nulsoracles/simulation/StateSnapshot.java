@@ -0,0 +1,170 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Copy of everything reachable from contract objects, restored in place
+ * when a transaction reverts.
+ *
+ * Objects keep their identity: fields, array elements and collection
+ * contents are written back into the instances that held them before the
+ * transaction, objects created by it are left unreachable. Strings,
+ * numbers, booleans, enums and addresses are immutable and not copied.
+ * Maps and collections are copied through their API, other objects field
+ * by field, final fields are only walked
+ */
+final class StateSnapshot {
+
+    private static final ClassValue<Field[]> FIELDS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields.toArray(new Field[0]);
+        }
+    };
+
+    private static final Set<Class<?>> IMMUTABLE = Set.of(String.class, BigInteger.class, BigDecimal.class,
+            Long.class, Integer.class, Boolean.class, Address.class);
+
+    private final List<Object> objects = new ArrayList<>();
+    private final List<Object> saved = new ArrayList<>();
+    private final IdentityHashMap<Object, Boolean> seen = new IdentityHashMap<>();
+    private final ArrayDeque<Object> pending = new ArrayDeque<>();
+
+    private StateSnapshot() {
+    }
+
+    static StateSnapshot take(Collection<Object> roots) {
+        StateSnapshot snapshot = new StateSnapshot();
+        for (Object root : roots) {
+            snapshot.visit(root);
+        }
+        while (!snapshot.pending.isEmpty()) {
+            snapshot.copy(snapshot.pending.pop());
+        }
+        snapshot.seen.clear();
+        return snapshot;
+    }
+
+    void restore() {
+        for (int i = 0; i < objects.size(); i++) {
+            restore(objects.get(i), saved.get(i));
+        }
+    }
+
+    private void visit(Object value) {
+        if (value != null && !immutable(value) && seen.put(value, Boolean.TRUE) == null) {
+            pending.push(value);
+        }
+    }
+
+    private void copy(Object object) {
+        Object copy;
+        if (object instanceof Map<?, ?> map) {
+            Object[] entries = new Object[map.size() * 2];
+            int i = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                visit(entries[i++] = entry.getKey());
+                visit(entries[i++] = entry.getValue());
+            }
+            copy = entries;
+        } else if (object instanceof Collection<?> collection) {
+            Object[] elements = collection.toArray();
+            for (Object element : elements) {
+                visit(element);
+            }
+            copy = elements;
+        } else if (object.getClass().isArray()) {
+            int length = Array.getLength(object);
+            copy = Array.newInstance(object.getClass().getComponentType(), length);
+            System.arraycopy(object, 0, copy, 0, length);
+            if (copy instanceof Object[] elements && !IMMUTABLE.contains(object.getClass().getComponentType())) {
+                for (Object element : elements) {
+                    visit(element);
+                }
+            }
+        } else if (object.getClass().getName().startsWith("java.")) {
+            throw new IllegalStateException("Can't snapshot " + object.getClass().getName());
+        } else {
+            Field[] fields = FIELDS.get(object.getClass());
+            Object[] values = new Object[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                visit(values[i] = get(fields[i], object));
+            }
+            copy = values;
+        }
+        objects.add(object);
+        saved.add(copy);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void restore(Object object, Object copy) {
+        if (object instanceof Map<?, ?> map) {
+            Map<Object, Object> target = (Map<Object, Object>) map;
+            Object[] entries = (Object[]) copy;
+            target.clear();
+            for (int i = 0; i < entries.length; i += 2) {
+                target.put(entries[i], entries[i + 1]);
+            }
+        } else if (object instanceof Collection<?> collection) {
+            Collection<Object> target = (Collection<Object>) collection;
+            target.clear();
+            target.addAll(Arrays.asList((Object[]) copy));
+        } else if (object.getClass().isArray()) {
+            System.arraycopy(copy, 0, object, 0, Array.getLength(copy));
+        } else {
+            Field[] fields = FIELDS.get(object.getClass());
+            Object[] values = (Object[]) copy;
+            for (int i = 0; i < fields.length; i++) {
+                if (!Modifier.isFinal(fields[i].getModifiers())) {
+                    set(fields[i], object, values[i]);
+                }
+            }
+        }
+    }
+
+    private static boolean immutable(Object value) {
+        return value instanceof String || value instanceof BigInteger || value instanceof BigDecimal
+                || (value instanceof Number && value.getClass().getPackageName().equals("java.lang")) || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum<?> || value instanceof Address
+                || value instanceof Class<?>;
+    }
+
+    private static Object get(Field field, Object object) {
+        try {
+            return field.get(object);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void set(Field field, Object object, Object value) {
+        try {
+            field.set(object, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+
+import java.math.BigInteger;
+
+/**
+ * Value moved by a contract with {@code Address.transfer} or sent with a call
+ */
+public record Transfer(long tx, Address from, Address to, BigInteger amount) {
+}
@@ -0,0 +1,194 @@
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Long fast path of Feed.canChange against the same check done with BigInteger only,
+ * and against the per-submission check it replaced
+ */
+class FeedBandTest {
+
+    private static final BigInteger BASIS_POINTS = BigInteger.valueOf(10000);
+    private static final int MAX_DEVIATION_BPS = 2000;
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+    private static final BigInteger BASIS_1PLUS = BigInteger.valueOf(10100);
+    private static final BigInteger BASIS_1MINUS = BigInteger.valueOf(9900);
+    private static final BigInteger ONE_HOUR = BigInteger.valueOf(60 * 60);
+
+    /**
+     * Feed with an approved price and the band the oracle would give it
+     */
+    private static Feed feed(BigInteger price, int bps) {
+        Feed feed = new Feed("TEST");
+        feed.price = price;
+        feed.setHeartbeatDeadline(Long.MAX_VALUE);
+        BigInteger deviation = BigInteger.valueOf(bps);
+        feed.setBand(price.multiply(BASIS_POINTS).divide(BASIS_POINTS.add(deviation)),
+                     price.multiply(BASIS_POINTS).divide(BASIS_POINTS.subtract(deviation)));
+        return feed;
+    }
+
+    private static boolean expected(Feed feed, BigInteger newPrice) {
+        return newPrice.compareTo(feed.bandLow) <= 0 || newPrice.compareTo(feed.bandHigh) >= 0;
+    }
+
+    /**
+     * Prices on and around the band limits, the exact deviation and the long limit
+     */
+    private static List<BigInteger> candidates(Feed feed, BigInteger price, int bps, Random random) {
+        List<BigInteger> candidates = new ArrayList<>();
+        BigInteger move = price.multiply(BigInteger.valueOf(bps)).divide(BASIS_POINTS);
+        for (BigInteger base : new BigInteger[]{feed.bandLow, feed.bandHigh, price, price.add(move),
+                price.subtract(move), LONG_MAX}) {
+            for (int delta = -2; delta <= 2; delta++) {
+                BigInteger candidate = base.add(BigInteger.valueOf(delta));
+                if (candidate.signum() > 0) {
+                    candidates.add(candidate);
+                }
+            }
+        }
+        candidates.add(new BigInteger(1 + random.nextInt(Feed.MAX_PRICE_BITS), random).add(BigInteger.ONE));
+        return candidates;
+    }
+
+    private static void assertSame(BigInteger price, int bps, Random random) {
+        Feed feed = feed(price, bps);
+        for (BigInteger candidate : candidates(feed, price, bps, random)) {
+            assertEquals(expected(feed, candidate), feed.canChange(candidate, 0),
+                    () -> "price " + price + ", " + bps + " bps, new price " + candidate);
+        }
+    }
+
+    @Test
+    void randomPricesMatchBigInteger() {
+        Random random = new Random(15);
+        for (int i = 0; i < 20_000; i++) {
+            BigInteger price = new BigInteger(1 + random.nextInt(Feed.MAX_PRICE_BITS), random).add(BigInteger.ONE);
+            assertSame(price, 1 + random.nextInt(MAX_DEVIATION_BPS), random);
+        }
+    }
+
+    @Test
+    void pricesNearLongLimitMatchBigInteger() {
+        Random random = new Random(16);
+        for (int i = 0; i < 20_000; i++) {
+            int bps = 1 + random.nextInt(MAX_DEVIATION_BPS);
+            // Upper band limit within a few units of Long.MAX_VALUE, on either side
+            BigInteger price = LONG_MAX.multiply(BASIS_POINTS.subtract(BigInteger.valueOf(bps))).divide(BASIS_POINTS)
+                    .add(BigInteger.valueOf(random.nextInt(2001) - 1000));
+            assertSame(price, bps, random);
+        }
+    }
+
+    @Test
+    void exactDeviationMovesThePrice() {
+        for (int bps = 1; bps <= MAX_DEVIATION_BPS; bps++) {
+            for (BigInteger price : new BigInteger[]{BigInteger.valueOf(100_000_000L), BigInteger.valueOf(1L << 40),
+                    LONG_MAX.divide(BigInteger.valueOf(2)), LONG_MAX.shiftLeft(8)}) {
+                Feed feed = feed(price, bps);
+                assertTrue(feed.canChange(feed.bandLow, 0));
+                assertTrue(feed.canChange(feed.bandHigh, 0));
+                assertFalse(feed.canChange(price, 0));
+                assertEquals(expected(feed, feed.bandLow.add(BigInteger.ONE)), feed.canChange(feed.bandLow.add(BigInteger.ONE), 0));
+                assertEquals(expected(feed, feed.bandHigh.subtract(BigInteger.ONE)), feed.canChange(feed.bandHigh.subtract(BigInteger.ONE), 0));
+            }
+        }
+    }
+
+    /**
+     * Feed with a price approved at the given time, band and deadline set as commitRound does
+     */
+    private static Feed approved(BigInteger price, long timestamp) {
+        Feed feed = new Feed("TEST");
+        feed.commitPrice(new VoteRound(0, price, null, 0), timestamp, BASIS_POINTS);
+        BigInteger bps = BigInteger.valueOf(feed.effectiveDeviationBps());
+        feed.setBand(price.multiply(BASIS_POINTS).divide(BASIS_POINTS.add(bps)),
+                     price.multiply(BASIS_POINTS).divide(BASIS_POINTS.subtract(bps)));
+        return feed;
+    }
+
+    /**
+     * Check done on every submission before the band was precomputed
+     */
+    private static boolean original(BigInteger price, BigInteger lastUpdated, long timestamp, BigInteger newPrice) {
+        if (price == null) {
+            return true;
+        }
+        BigInteger allow1perDeltaPos = price.multiply(BASIS_POINTS).divide(BASIS_1PLUS);
+        BigInteger allow1perDeltaNeg = price.multiply(BASIS_POINTS).divide(BASIS_1MINUS);
+        return lastUpdated.add(ONE_HOUR).compareTo(BigInteger.valueOf(timestamp)) <= 0
+                || newPrice.compareTo(allow1perDeltaPos) <= 0 || newPrice.compareTo(allow1perDeltaNeg) >= 0;
+    }
+
+    @Test
+    void heartbeatDeadlineOpensTheBand() {
+        BigInteger price = BigInteger.valueOf(2_500_000_000L);
+        long lastUpdated = 1_700_000_000L;
+        Feed feed = approved(price, lastUpdated);
+        long deadline = lastUpdated + Feed.DEFAULT_HEARTBEAT;
+        assertEquals(deadline, feed.staleAt);
+
+        BigInteger inside = price.add(BigInteger.ONE);
+        for (long timestamp : new long[]{lastUpdated, deadline - 1}) {
+            assertFalse(feed.canChange(price, timestamp));
+            assertFalse(feed.canChange(inside, timestamp));
+            assertTrue(feed.canChange(feed.bandLow, timestamp));
+            assertTrue(feed.canChange(feed.bandHigh, timestamp));
+        }
+        for (long timestamp : new long[]{deadline, deadline + 1, Long.MAX_VALUE}) {
+            assertTrue(feed.canChange(price, timestamp));
+            assertTrue(feed.canChange(inside, timestamp));
+        }
+    }
+
+    @Test
+    void firstPriceCanAlwaysBeProposed() {
+        Feed feed = new Feed("TEST");
+        assertTrue(feed.canChange(BigInteger.ONE, 0));
+        assertTrue(feed.canChange(BigInteger.ONE.shiftLeft(Feed.MAX_PRICE_BITS - 1), Long.MAX_VALUE));
+    }
+
+    @Test
+    void randomSubmissionsMatchOriginalCheck() {
+        Random random = new Random(17);
+        for (int i = 0; i < 200_000; i++) {
+            BigInteger price = new BigInteger(1 + random.nextInt(Feed.MAX_PRICE_BITS), random).add(BigInteger.ONE);
+            long lastUpdated = 1_600_000_000L + random.nextInt(100_000_000);
+            Feed feed = approved(price, lastUpdated);
+
+            // Around the deadline most of the time, anywhere in the hour otherwise
+            long timestamp = random.nextBoolean()
+                    ? lastUpdated + Feed.DEFAULT_HEARTBEAT + random.nextInt(5) - 2
+                    : lastUpdated + random.nextInt((int) (2 * Feed.DEFAULT_HEARTBEAT));
+
+            BigInteger newPrice;
+            switch (random.nextInt(4)) {
+                case 0:
+                    newPrice = feed.bandLow.add(BigInteger.valueOf(random.nextInt(5) - 2));
+                    break;
+                case 1:
+                    newPrice = feed.bandHigh.add(BigInteger.valueOf(random.nextInt(5) - 2));
+                    break;
+                case 2:
+                    newPrice = price.multiply(BigInteger.valueOf(9850 + random.nextInt(301))).divide(BASIS_POINTS);
+                    break;
+                default:
+                    newPrice = new BigInteger(1 + random.nextInt(Feed.MAX_PRICE_BITS), random);
+            }
+            if (newPrice.signum() < 0) {
+                newPrice = BigInteger.ZERO;
+            }
+
+            BigInteger proposed = newPrice;
+            assertEquals(original(price, feed.lastUpdated, timestamp, proposed), feed.canChange(proposed, timestamp),
+                    () -> "price " + price + " at " + lastUpdated + ", new price " + proposed + " at " + timestamp);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+import io.nuls.contract.sdk.Utils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Reports signed with keys generated from the harness seed
+ */
+class AggregatedReportTest {
+
+    private static final String FEED = "DEFAULT";
+    private static final BigInteger PRICE = BigInteger.valueOf(2_500_000_000L);
+
+    private OracleHarness harness;
+    private List<Address> signers;
+
+    @BeforeEach
+    void setUp() {
+        harness = new OracleHarness(HarnessConfig.defaults(3));
+        signers = new ArrayList<>(harness.seeders());
+        signers.addAll(harness.admitFeeders(4));
+        for (Address signer : signers) {
+            harness.send("registerReportKey", signer, BigInteger.ZERO, OracleContract::registerReportKey);
+        }
+    }
+
+    private String submit(List<Address> by, List<BigInteger> prices, BigInteger median) {
+        int round = harness.oracle().roundCounter(FEED);
+        String[] ids = new String[by.size()];
+        String[] signatures = new String[by.size()];
+        for (int i = 0; i < by.size(); i++) {
+            Address account = by.get(i);
+            BigInteger price = prices.get(i);
+            ids[i] = account.toString();
+            signatures[i] = sign(account, harness.view(account, o -> o.reportMessage(FEED, round, price, account)));
+        }
+        return submit(ids, prices, median, signatures);
+    }
+
+    private String submit(String[] ids, List<BigInteger> prices, BigInteger median, String[] signatures) {
+        BigInteger[] values = prices.toArray(new BigInteger[0]);
+        return harness.trySend("submitAggregatedReport", signers.get(0), BigInteger.ZERO,
+                o -> o.submitAggregatedReport(FEED, median, ids, values, signatures));
+    }
+
+    private String sign(Address account, String message) {
+        return harness.chain().signatures().sign(account, Utils.sha3(message));
+    }
+
+    private static List<BigInteger> prices(long... values) {
+        List<BigInteger> prices = new ArrayList<>();
+        for (long value : values) {
+            prices.add(BigInteger.valueOf(value));
+        }
+        return prices;
+    }
+
+    private static List<BigInteger> same(int count) {
+        return Collections.nCopies(count, PRICE);
+    }
+
+    @Test
+    void quorumOfSignersApprovesMedian() {
+        int round = harness.oracle().roundCounter(FEED);
+        assertNull(submit(signers.subList(0, 4), prices(2_499_000_000L, 2_500_000_000L, 2_500_000_000L, 2_501_000_000L), PRICE));
+
+        String info = harness.call("readFeedInfo", signers.get(0), harness.config().pricePerRead(), o -> o.readFeedInfo(FEED));
+        assertEquals(PRICE.toString(), info.split(",")[0]);
+        assertEquals(round + 1, harness.oracle().roundCounter(FEED));
+        assertEquals(false, harness.oracle().roundOpen(FEED, round));
+
+        // Counted as opened and approved, with no latency
+        String[] stats = harness.view(signers.get(0), OracleContract::getStats).split(",");
+        assertEquals(List.of("1", "1", "0", "0", "0"), List.of(stats).subList(0, 5));
+    }
+
+    @Test
+    void duplicatedSignerIsRefused() {
+        List<Address> by = List.of(signers.get(0), signers.get(1), signers.get(2), signers.get(2));
+        assertEquals("Duplicated signer", submit(by, prices(2_500_000_000L, 2_500_000_000L, 2_500_000_000L, 2_500_000_000L), PRICE));
+    }
+
+    @Test
+    void missingQuorumIsRefused() {
+        // 6 feeders, quorum is 4
+        assertEquals("No quorum", submit(signers.subList(0, 3), prices(2_500_000_000L, 2_500_000_000L, 2_500_000_000L), PRICE));
+        assertEquals(0, harness.oracle().roundCounter(FEED));
+    }
+
+    @Test
+    void priceOutsideTheMiddleIsRefused() {
+        // 3 of 4 observations are below the proposed median
+        assertEquals("Not the median", submit(signers.subList(0, 4),
+                prices(2_400_000_000L, 2_400_000_000L, 2_400_000_000L, 2_500_000_000L), PRICE));
+    }
+
+    @Test
+    void signatureOfAnotherDeploymentIsRefused() {
+        List<Address> by = signers.subList(0, 4);
+        List<BigInteger> prices = prices(2_500_000_000L, 2_500_000_000L, 2_500_000_000L, 2_500_000_000L);
+        String[] ids = new String[by.size()];
+        String[] signatures = new String[by.size()];
+        for (int i = 0; i < by.size(); i++) {
+            ids[i] = by.get(i).toString();
+            signatures[i] = sign(by.get(i), "NULSdSimOtherOracle," + FEED + ",0," + PRICE + "," + ids[i]);
+        }
+        assertEquals("Invalid signature", submit(ids, prices, PRICE, signatures));
+    }
+
+    @Test
+    void signerCapFollowsQuorum() {
+        List<Address> feeders = harness.admitFeeders(130);
+        for (Address feeder : feeders.subList(4, feeders.size())) {
+            harness.send("registerReportKey", feeder, BigInteger.ZERO, OracleContract::registerReportKey);
+            signers.add(feeder);
+        }
+
+        // 132 feeders, quorum is 67, over the 64 signers a report can always carry
+        assertEquals(132, harness.oracle().validFeeders());
+        assertEquals("Too many signers", submit(signers.subList(0, 68), same(68), PRICE));
+        assertEquals("No quorum", submit(signers.subList(0, 66), same(66), PRICE));
+        assertNull(submit(signers.subList(0, 67), same(67), PRICE));
+        assertEquals(1, harness.oracle().roundCounter(FEED));
+    }
+}
@@ -0,0 +1,237 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Feeders applying, getting expelled and removed, and the read rewards they
+ * earn meanwhile, 2 seeders and 4 admitted feeders
+ */
+class FeederLifecycleTest {
+
+    private static final String FEED = "DEFAULT";
+    private static final long TWO_DAYS = 60 * 60 * 24 * 2;
+    private static final BigInteger TREASURY_FEE = BigInteger.valueOf(5_000_000L); // 0.05 NULS of every read
+
+    private OracleHarness harness;
+    private List<Address> feeders;
+    private Address watcher;
+    private BigInteger share;
+    private long price = 1_000_000;
+
+    @BeforeEach
+    void setUp() {
+        harness = new OracleHarness(HarnessConfig.defaults(1));
+        feeders = harness.admitFeeders(4);
+        watcher = harness.account("watcher");
+        share = harness.config().pricePerRead().subtract(TREASURY_FEE);
+    }
+
+    /**
+     * Seeders and feeders admitted so far
+     */
+    private List<Address> everyFeeder() {
+        List<Address> all = new ArrayList<>(harness.seeders());
+        all.addAll(feeders);
+        return all;
+    }
+
+    /**
+     * Pay for count reads of the feed
+     */
+    private void read(int count) {
+        Address reader = harness.account("reader");
+        for (int i = 0; i < count; i++) {
+            harness.call("readFeedInfo", reader, harness.config().pricePerRead(), o -> o.readFeedInfo(FEED));
+        }
+    }
+
+    /**
+     * Feeder share of count reads
+     */
+    private BigInteger reads(int count) {
+        return share.multiply(BigInteger.valueOf(count));
+    }
+
+    /**
+     * Claim the feeder rewards, checking the view told the amount paid
+     *
+     * @return amount paid
+     */
+    private BigInteger claim(Address feeder) {
+        BigInteger owed = harness.view(watcher, o -> o.getFeederRewards(feeder));
+        BigInteger before = harness.chain().balance(feeder);
+        harness.send("claimFeederRewards", feeder, BigInteger.ZERO, OracleContract::claimFeederRewards);
+        BigInteger paid = harness.chain().balance(feeder).subtract(before);
+        assertEquals(owed, paid);
+        assertEquals(BigInteger.ZERO, harness.view(watcher, o -> o.getFeederRewards(feeder)));
+        assertEquals("Nothing to claim", harness.trySend("claimFeederRewards", feeder, BigInteger.ZERO,
+                OracleContract::claimFeederRewards));
+        return paid;
+    }
+
+    /**
+     * Approve a price 10% above the last one with every seeder and feeder
+     * but the dissenter, who rejects it
+     *
+     * @return round of the price
+     */
+    private int approveAgainst(Address dissenter) {
+        price += price / 10;
+        BigInteger next = BigInteger.valueOf(price);
+        harness.chain().advance(60);
+        harness.send("submitFeedInfo", harness.seeders().get(0), BigInteger.ZERO, o -> o.submitFeedInfo(FEED, next));
+        int round = harness.oracle().roundCounter(FEED) - 1;
+
+        harness.send("submitRoundCheck", dissenter, BigInteger.ZERO, o -> o.submitRoundCheck(FEED, round, false));
+        List<Address> voters = new ArrayList<>(feeders);
+        voters.add(harness.seeders().get(1));
+        for (Address voter : voters) {
+            if (!voter.equals(dissenter) && harness.oracle().roundOpen(FEED, round)) {
+                harness.send("submitRoundCheck", voter, BigInteger.ZERO, o -> o.submitRoundCheck(FEED, round, true));
+            }
+        }
+        return round;
+    }
+
+    /**
+     * Yellow card the feeder until it is expelled
+     */
+    private void expel(Address feeder) {
+        while (harness.view(watcher, o -> o.getYellowCards(feeder)) <= 5) {
+            int round = approveAgainst(feeder);
+            assertNull(harness.trySend("ratOutFeed", watcher, BigInteger.ZERO, o -> o.ratOutFeed(FEED, round, feeder)));
+        }
+    }
+
+    /**
+     * Let the feeder miss two days while everyone else pings, then remove it
+     */
+    private void removeInactive(Address feeder) {
+        harness.chain().advance(TWO_DAYS + 1);
+        for (Address active : everyFeeder()) {
+            if (!active.equals(feeder) && harness.oracle().feederRole(active) != 0) {
+                harness.send("iAmActive", active, BigInteger.ZERO, OracleContract::iAmActive);
+            }
+        }
+        assertNull(harness.trySend("alertInactive", watcher, BigInteger.ZERO, o -> o.alertInactive(feeder)));
+        assertEquals(0, harness.oracle().feederRole(feeder));
+    }
+
+    @Test
+    void firstDepositTakesASlotOnlyAtMin() {
+        Address newcomer = harness.account("newcomer");
+        BigInteger min = harness.config().minDeposit();
+        assertEquals("First deposit below min", harness.trySend("depositOnBehalf", newcomer, BigInteger.ZERO,
+                OracleContract::depositOnBehalf));
+        assertEquals("First deposit below min", harness.trySend("depositOnBehalf", newcomer,
+                min.subtract(BigInteger.ONE), OracleContract::depositOnBehalf));
+
+        assertNull(harness.trySend("depositOnBehalf", newcomer, min, OracleContract::depositOnBehalf));
+        // Topping up an existing record has no minimum
+        assertNull(harness.trySend("depositOnBehalf", newcomer, BigInteger.ONE, OracleContract::depositOnBehalf));
+        assertEquals(min.add(BigInteger.ONE), harness.view(watcher, o -> o.getUserBalance(newcomer)));
+    }
+
+    @Test
+    void expelledFeederCantApplyAgain() {
+        Address expelled = feeders.get(3);
+        expel(expelled);
+        assertEquals(5, harness.oracle().validFeeders());
+
+        // Removed as inactive, it has no role left but keeps its cards
+        removeInactive(expelled);
+
+        // Deposit slashed by the yellow cards topped up again
+        harness.send("depositOnBehalf", expelled, harness.config().minDeposit(), OracleContract::depositOnBehalf);
+        int pending = harness.oracle().pendingFeeders();
+        BigInteger balance = harness.chain().balance(expelled);
+        assertEquals("NulsOraclesV1: Expelled from feeders", harness.trySend("enterNewFeeder", expelled,
+                OracleHarness.APPLY_FEE, OracleContract::enterNewFeeder));
+        assertEquals(pending, harness.oracle().pendingFeeders());
+        assertEquals(balance, harness.chain().balance(expelled));
+    }
+
+    @Test
+    void readRewardsAreSharedExactly() {
+        assertEquals(6, harness.oracle().validFeeders());
+        read(60);
+        for (Address feeder : everyFeeder()) {
+            assertEquals(reads(10), claim(feeder));
+        }
+
+        read(6);
+        for (Address feeder : everyFeeder()) {
+            assertEquals(reads(1), claim(feeder));
+        }
+    }
+
+    @Test
+    void lateJoinerOnlyEarnsLaterReads() {
+        List<Address> early = everyFeeder();
+        read(60);
+
+        feeders = harness.admitFeeders(5);
+        Address late = feeders.get(4);
+        assertEquals(7, harness.oracle().validFeeders());
+        assertEquals(BigInteger.ZERO, harness.view(watcher, o -> o.getFeederRewards(late)));
+
+        read(70);
+        assertEquals(reads(10), claim(late));
+        for (Address feeder : early) {
+            assertEquals(reads(20), claim(feeder));
+        }
+    }
+
+    @Test
+    void expelledFeederKeepsOnlyWhatItEarned() {
+        Address expelled = feeders.get(3);
+        read(60);
+        expel(expelled);
+        assertEquals(5, harness.oracle().validFeeders());
+
+        read(50);
+        assertEquals(reads(10), harness.view(watcher, o -> o.getFeederRewards(expelled)));
+
+        BigInteger paid = BigInteger.ZERO;
+        for (Address feeder : everyFeeder()) {
+            BigInteger claimed = claim(feeder);
+            assertEquals(feeder.equals(expelled) ? reads(10) : reads(20), claimed);
+            paid = paid.add(claimed);
+        }
+        assertEquals(reads(110), paid);
+
+        read(5);
+        assertEquals(BigInteger.ZERO, harness.view(watcher, o -> o.getFeederRewards(expelled)));
+    }
+
+    @Test
+    void inactiveFeederKeepsOnlyWhatItEarned() {
+        Address removed = feeders.get(3);
+        read(60);
+        removeInactive(removed);
+        assertEquals(5, harness.oracle().validFeeders());
+
+        read(50);
+        BigInteger paid = BigInteger.ZERO;
+        for (Address feeder : everyFeeder()) {
+            BigInteger claimed = claim(feeder);
+            assertEquals(feeder.equals(removed) ? reads(10) : reads(20), claimed);
+            paid = paid.add(claimed);
+        }
+        assertEquals(reads(110), paid);
+
+        read(5);
+        assertEquals(BigInteger.ZERO, harness.view(watcher, o -> o.getFeederRewards(removed)));
+        assertEquals("Nothing to claim", harness.trySend("claimFeederRewards", removed, BigInteger.ZERO,
+                OracleContract::claimFeederRewards));
+    }
+}
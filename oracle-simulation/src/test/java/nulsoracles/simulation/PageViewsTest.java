@@ -0,0 +1,181 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Page views and the batched info read, page boundaries and response layout
+ */
+class PageViewsTest {
+
+    private static final String FEED = "DEFAULT";
+    private static final String INVALID_PAGE = "NulsOraclesV1: Invalid page";
+
+    private final OracleHarness harness = new OracleHarness(HarnessConfig.defaults(2));
+    private final Address reader = harness.account("reader");
+
+    private <T> String revert(Function<OracleContract, T> body) {
+        return assertThrows(ContractRevert.class, () -> harness.view(reader, body)).getMessage();
+    }
+
+    /**
+     * Add feeds until there are count of them, DEFAULT included
+     */
+    private List<String> feeds(int count) {
+        for (int i = 1; i < count; i++) {
+            String feedId = "F" + i;
+            harness.send("addFeed", harness.admin(), BigInteger.ZERO, o -> o.addFeed(feedId));
+        }
+        return harness.view(reader, OracleContract::getFeedIds);
+    }
+
+    /**
+     * Open a round for the price, approved when approve is set
+     */
+    private void round(long price, boolean approve) {
+        int round = harness.oracle().roundCounter(FEED);
+        harness.chain().advance(60);
+        harness.send("submitFeedInfo", harness.seeders().get(0), BigInteger.ZERO,
+                o -> o.submitFeedInfo(FEED, BigInteger.valueOf(price)));
+        if (approve) {
+            harness.send("submitRoundCheck", harness.seeders().get(1), BigInteger.ZERO,
+                    o -> o.submitRoundCheck(FEED, round, true));
+        }
+    }
+
+    private String roundEntry(int round) {
+        return round + "," + harness.view(reader, o -> o.getRound(FEED, round));
+    }
+
+    @Test
+    void pagesRefuseInvalidCursorOrSize() {
+        assertEquals(INVALID_PAGE, revert(o -> o.getFeedIdsPage(-1, 10)));
+        assertEquals(INVALID_PAGE, revert(o -> o.getFeedIdsPage(0, 0)));
+        assertEquals(INVALID_PAGE, revert(o -> o.getFeedIdsPage(0, 51)));
+        assertEquals(INVALID_PAGE, revert(o -> o.getRoundsPage(FEED, 0, 0)));
+        assertEquals(INVALID_PAGE, revert(o -> o.getFeedHistoryPage(FEED, -1, 1)));
+        assertEquals("NulsOraclesV1: Unknown feed", revert(o -> o.getRoundsPage("NONE", 0, 10)));
+    }
+
+    @Test
+    void feedIdsPageBoundaries() {
+        assertEquals("-1;DEFAULT", harness.view(reader, o -> o.getFeedIdsPage(0, 50)));
+        assertEquals("-1", harness.view(reader, o -> o.getFeedIdsPage(1, 10)));
+
+        List<String> ids = feeds(10);
+        assertEquals(10, ids.size());
+
+        // Exact multiple, the second page is the last one
+        assertEquals("5;DEFAULT;F1;F2;F3;F4", harness.view(reader, o -> o.getFeedIdsPage(0, 5)));
+        assertEquals("-1;F5;F6;F7;F8;F9", harness.view(reader, o -> o.getFeedIdsPage(5, 5)));
+
+        // Last page partial
+        assertEquals("4;DEFAULT;F1;F2;F3", harness.view(reader, o -> o.getFeedIdsPage(0, 4)));
+        assertEquals("8;F4;F5;F6;F7", harness.view(reader, o -> o.getFeedIdsPage(4, 4)));
+        assertEquals("-1;F8;F9", harness.view(reader, o -> o.getFeedIdsPage(8, 4)));
+
+        // Past the end
+        assertEquals("-1", harness.view(reader, o -> o.getFeedIdsPage(10, 4)));
+        assertEquals("-1", harness.view(reader, o -> o.getFeedIdsPage(Integer.MAX_VALUE, 50)));
+
+        // Walking every page gives every id once, in creation order
+        List<String> walked = new ArrayList<>();
+        int cursor = 0;
+        while (cursor != -1) {
+            int from = cursor;
+            String[] page = harness.view(reader, o -> o.getFeedIdsPage(from, 3)).split(";");
+            cursor = Integer.parseInt(page[0]);
+            walked.addAll(List.of(page).subList(1, page.length));
+        }
+        assertEquals(ids, walked);
+    }
+
+    @Test
+    void roundsPageBoundaries() {
+        assertEquals("-1", harness.view(reader, o -> o.getRoundsPage(FEED, 0, 10)));
+
+        round(1_000_000, true);
+        round(1_100_000, true);
+        round(1_210_000, true);
+        round(1_331_000, false);
+
+        assertEquals("approved", harness.view(reader, o -> o.getRound(FEED, 2)).split(",")[4]);
+        assertEquals("open", harness.view(reader, o -> o.getRound(FEED, 3)).split(",")[4]);
+        assertEquals(7, harness.view(reader, o -> o.getRound(FEED, 3)).split(",").length);
+
+        assertEquals("2;" + roundEntry(0) + ";" + roundEntry(1), harness.view(reader, o -> o.getRoundsPage(FEED, 0, 2)));
+        assertEquals("-1;" + roundEntry(2) + ";" + roundEntry(3), harness.view(reader, o -> o.getRoundsPage(FEED, 2, 2)));
+
+        assertEquals("3;" + roundEntry(0) + ";" + roundEntry(1) + ";" + roundEntry(2),
+                harness.view(reader, o -> o.getRoundsPage(FEED, 0, 3)));
+        assertEquals("-1;" + roundEntry(3), harness.view(reader, o -> o.getRoundsPage(FEED, 3, 3)));
+        assertEquals("-1", harness.view(reader, o -> o.getRoundsPage(FEED, 4, 3)));
+    }
+
+    @Test
+    void historyPageIsNewestFirst() {
+        assertEquals("-1", harness.view(reader, o -> o.getFeedHistoryPage(FEED, 0, 10)));
+
+        round(1_000_000, true);
+        long first = harness.chain().timestamp();
+        round(1_100_000, true);
+        long second = harness.chain().timestamp();
+        round(1_210_000, true);
+        long third = harness.chain().timestamp();
+
+        assertEquals("2;1210000," + third + ";1100000," + second,
+                harness.view(reader, o -> o.getFeedHistoryPage(FEED, 0, 2)));
+        assertEquals("-1;1000000," + first, harness.view(reader, o -> o.getFeedHistoryPage(FEED, 2, 2)));
+        assertEquals("-1;1210000," + third + ";1100000," + second + ";1000000," + first,
+                harness.view(reader, o -> o.getFeedHistoryPage(FEED, 0, 3)));
+    }
+
+    @Test
+    void feedsInfoFollowsRequestOrder() {
+        feeds(3);
+        BigInteger price = harness.config().pricePerRead();
+
+        // No price yet
+        assertEquals("V1;0,0", harness.call("readFeedsInfo", reader, price, o -> o.readFeedsInfo(new String[]{"F1"})));
+
+        round(1_000_000, true);
+        long updated = harness.chain().timestamp();
+        String[] request = {"F2", FEED, "F1", FEED};
+        assertEquals("V1;0,0;1000000," + updated + ";0,0;1000000," + updated,
+                harness.call("readFeedsInfo", reader, price.multiply(BigInteger.valueOf(4)), o -> o.readFeedsInfo(request)));
+
+        // Same price and time as the single feed read
+        String info = harness.call("readFeedInfo", reader, price, o -> o.readFeedInfo(FEED));
+        assertEquals("1000000,V1," + updated, info);
+
+        assertEquals("Invalid batch", harness.trySend("readFeedsInfo", reader, price,
+                o -> o.readFeedsInfo(new String[0])));
+        assertEquals("Invalid batch", harness.trySend("readFeedsInfo", reader, price.multiply(BigInteger.valueOf(101)),
+                o -> o.readFeedsInfo(new String[101])));
+        assertEquals("NulsOraclesV1: You need to pay", harness.trySend("readFeedsInfo", reader,
+                price.multiply(BigInteger.valueOf(4)).subtract(BigInteger.ONE), o -> o.readFeedsInfo(request)));
+        assertEquals("NulsOraclesV1: Unknown feed", harness.trySend("readFeedsInfo", reader,
+                price.multiply(BigInteger.TWO), o -> o.readFeedsInfo(new String[]{FEED, "NONE"})));
+    }
+
+    @Test
+    void feedIdsCantBreakResponses() {
+        for (String feedId : new String[]{"", "BTC,USD", "BTC;USD", "BTC USD", "BTC\u20acUSD", "X".repeat(33)}) {
+            assertEquals("Invalid feed id", harness.trySend("addFeed", harness.admin(), BigInteger.ZERO,
+                    o -> o.addFeed(feedId)), feedId);
+        }
+        for (String feedId : new String[]{"NULS/USDT", "btc-usd_1.5:x", "X".repeat(32)}) {
+            harness.send("addFeed", harness.admin(), BigInteger.ZERO, o -> o.addFeed(feedId));
+        }
+        assertEquals("-1;DEFAULT;NULS/USDT;btc-usd_1.5:x;" + "X".repeat(32),
+                harness.view(reader, o -> o.getFeedIdsPage(0, 10)));
+    }
+}
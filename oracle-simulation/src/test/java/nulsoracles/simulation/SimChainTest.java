@@ -0,0 +1,122 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SimChainTest {
+
+    private static final long TWO_DAYS = 60 * 60 * 24 * 2;
+    private static final long EPOCH = 60 * 60 * 12;
+
+    static final class Ledger {
+        long total;
+        Entry last;
+        final List<Entry> entries = new ArrayList<>();
+        final Map<String, Entry> byName = new HashMap<>();
+        final long[] slots = new long[4];
+    }
+
+    static final class Entry {
+        String name;
+        long amount;
+
+        Entry(String name, long amount) {
+            this.name = name;
+            this.amount = amount;
+        }
+    }
+
+    @Test
+    void revertRestoresTrackedFields() {
+        SimChain chain = new SimChain(1_000, new P256Signatures(1));
+        Address contract = new Address("NULSdSimLedger");
+        Address sender = new Address("NULSdSimSender");
+        Ledger ledger = new Ledger();
+        chain.track(ledger);
+
+        chain.send(contract, sender, BigInteger.ZERO, () -> {
+            Entry entry = new Entry("a", 5);
+            ledger.total = 5;
+            ledger.last = entry;
+            ledger.entries.add(entry);
+            ledger.byName.put("a", entry);
+            ledger.slots[0] = 5;
+        });
+        Entry kept = ledger.last;
+
+        assertThrows(ContractRevert.class, () -> chain.send(contract, sender, BigInteger.ZERO, () -> {
+            kept.amount = 9;
+            ledger.total = 14;
+            ledger.last = new Entry("b", 9);
+            ledger.entries.add(ledger.last);
+            ledger.byName.remove("a");
+            ledger.slots[1] = 9;
+            throw new ContractRevert("checked after writing");
+        }));
+
+        assertEquals(5, ledger.total);
+        assertSame(kept, ledger.last);
+        assertEquals(5, kept.amount);
+        assertEquals(List.of(kept), ledger.entries);
+        assertSame(kept, ledger.byName.get("a"));
+        assertEquals(0, ledger.slots[1]);
+    }
+
+    @Test
+    void revertClearsReentrancyFlag() {
+        OracleHarness harness = new OracleHarness(HarnessConfig.defaults(1));
+        Address seeder = harness.seeders().get(0);
+
+        // Reverts after setEntrance, a later call must not see the flag set
+        String revert = harness.trySend("submitFeedInfo", seeder, BigInteger.ZERO,
+                o -> o.submitFeedInfo("DEFAULT", BigInteger.ONE.negate()));
+        assertEquals("Invalid price", revert);
+        assertNull(harness.trySend("submitFeedInfo", seeder, BigInteger.ZERO,
+                o -> o.submitFeedInfo("DEFAULT", BigInteger.valueOf(1_000))));
+    }
+
+    /**
+     * A batch that removes nobody must keep its progress, otherwise a
+     * seeder at the head of an expired bucket blocks the sweep for good
+     */
+    @Test
+    void sweepMovesOnWithoutRemovals() {
+        OracleHarness harness = new OracleHarness(HarnessConfig.defaults(1));
+        SimChain chain = harness.chain();
+        List<Address> feeders = harness.admitFeeders(4);
+        Address seeder = harness.seeders().get(0);
+        Address idle = feeders.get(3);
+        Address watcher = harness.account("watcher");
+
+        // Seeder is touched last, it is the head of the bucket the idle feeder is in
+        chain.advance(EPOCH);
+        harness.send("iAmActive", idle, BigInteger.ZERO, OracleContract::iAmActive);
+        harness.send("iAmActive", seeder, BigInteger.ZERO, OracleContract::iAmActive);
+
+        chain.advance(TWO_DAYS + 2 * EPOCH);
+        for (Address active : List.of(harness.seeders().get(1), feeders.get(0), feeders.get(1), feeders.get(2))) {
+            harness.send("iAmActive", active, BigInteger.ZERO, OracleContract::iAmActive);
+        }
+
+        BigInteger before = chain.balance(watcher);
+        for (int i = 0; i < 100 && harness.oracle().feederRole(idle) != 0; i++) {
+            assertNull(harness.trySend("sweepInactive", watcher, BigInteger.ZERO, o -> o.sweepInactive(1)));
+        }
+
+        assertEquals(0, harness.oracle().feederRole(idle));
+        assertEquals(1, harness.oracle().feederRole(seeder));
+        assertEquals(5, harness.oracle().validFeeders());
+        assertEquals(before.add(HarnessConfig.ONE_NULS.divide(BigInteger.TEN)), chain.balance(watcher));
+    }
+}
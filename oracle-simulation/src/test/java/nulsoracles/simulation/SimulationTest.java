@@ -0,0 +1,45 @@
+package nulsoracles.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationTest {
+
+    private static Simulation run(long seed, boolean stakeWeighted) {
+        Simulation simulation = new Simulation(seed, 30, 80, 3, stakeWeighted);
+        simulation.run();
+        return simulation;
+    }
+
+    @Test
+    void runsWithoutFailedChecks() {
+        for (long seed = 1; seed <= 3; seed++) {
+            Simulation simulation = run(seed, false);
+            assertEquals(0, simulation.failureCount(), () -> "seed failed: " + simulation.failures());
+            assertEquals(80, simulation.approved() + simulation.rejected());
+            assertTrue(simulation.checks() > 1000);
+        }
+    }
+
+    @Test
+    void submitsAggregatedReports() {
+        Simulation simulation = run(1, false);
+        assertTrue(simulation.reports() > 0, "no aggregated report submitted");
+    }
+
+    @Test
+    void runsWithStakeWeightedQuorum() {
+        Simulation simulation = run(5, true);
+        assertEquals(0, simulation.failureCount(), () -> "failed: " + simulation.failures());
+        assertEquals(80, simulation.approved() + simulation.rejected());
+    }
+
+    @Test
+    void sameSeedGivesSameDigest() {
+        assertEquals(run(7, false).digest(), run(7, false).digest());
+        assertNotEquals(run(7, false).digest(), run(8, false).digest());
+    }
+}
@@ -0,0 +1,46 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counters of getStats
+ */
+class StatsTest {
+
+    private static final String FEED = "DEFAULT";
+    private static final int READS_24H = 8;
+    private static final int PAID_READS = 12;
+
+    @Test
+    void onlyReadCallsCountAsReads() {
+        OracleHarness harness = new OracleHarness(HarnessConfig.defaults(1));
+        BigInteger price = harness.config().pricePerRead();
+        Address reader = harness.account("reader");
+        Address consumer = harness.account("consumer");
+        harness.chain().deploy(consumer, (method, args) -> "");
+
+        harness.call("readFeedInfo", reader, price, o -> o.readFeedInfo(FEED));
+        harness.call("readFeedReport", reader, price, o -> o.readFeedReport(FEED));
+        harness.call("readFeedsInfo", reader, price.multiply(BigInteger.TWO),
+                o -> o.readFeedsInfo(new String[]{FEED, FEED}));
+
+        // A year of view access and a queued push are paid but not read calls
+        harness.send("buyViewAccess", reader, price.multiply(BigInteger.valueOf(24 * 365)),
+                o -> o.buyViewAccess(consumer, 365));
+        harness.send("subscribe", consumer, price, o -> o.subscribe(FEED, 100));
+        harness.send("submitFeedInfo", harness.seeders().get(0), BigInteger.ZERO,
+                o -> o.submitFeedInfo(FEED, BigInteger.valueOf(1_000_000)));
+        harness.send("submitRoundCheck", harness.seeders().get(1), BigInteger.ZERO,
+                o -> o.submitRoundCheck(FEED, 0, true));
+        assertEquals(false, harness.view(consumer, o -> o.getPendingPush(FEED, consumer)).isEmpty());
+
+        String[] stats = harness.view(reader, OracleContract::getStats).split(",");
+        assertEquals("4", stats[READS_24H]);
+        assertEquals(Long.toString(4 + 24 * 365 + 1), stats[PAID_READS]);
+    }
+}
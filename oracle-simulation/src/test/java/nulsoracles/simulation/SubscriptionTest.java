@@ -0,0 +1,140 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pushes queued on approval, pulled or delivered by consumer contracts
+ */
+class SubscriptionTest {
+
+    private static final String FEED = "DEFAULT";
+
+    private OracleHarness harness;
+    private BigInteger pricePerRead;
+    private long price = 1_000_000;
+
+    @BeforeEach
+    void setUp() {
+        harness = new OracleHarness(HarnessConfig.defaults(1));
+        pricePerRead = harness.config().pricePerRead();
+    }
+
+    /**
+     * Approve a price 10% above the last one with both seeders
+     */
+    private void approve() {
+        price += price / 10;
+        BigInteger next = BigInteger.valueOf(price);
+        harness.chain().advance(60);
+        harness.send("submitFeedInfo", harness.seeders().get(0), BigInteger.ZERO, o -> o.submitFeedInfo(FEED, next));
+        int round = harness.oracle().roundCounter(FEED) - 1;
+        harness.send("submitRoundCheck", harness.seeders().get(1), BigInteger.ZERO,
+                o -> o.submitRoundCheck(FEED, round, true));
+    }
+
+    private Address consumer(String label, ContractHandler handler) {
+        Address consumer = harness.account(label);
+        harness.chain().deploy(consumer, handler);
+        return consumer;
+    }
+
+    private String subscribe(Address consumer, BigInteger value) {
+        return harness.trySend("subscribe", consumer, value, o -> o.subscribe(FEED, 100));
+    }
+
+    @Test
+    void failingConsumerDoesNotBlockApprovals() {
+        Address failing = consumer("failing", (method, args) -> {
+            throw new ContractRevert("consumer failed");
+        });
+        assertNull(subscribe(failing, pricePerRead.multiply(BigInteger.TEN)));
+
+        approve();
+        approve();
+        String pending = harness.view(failing, o -> o.getPendingPush(FEED, failing));
+        assertFalse(pending.isEmpty());
+
+        assertTrue(harness.trySend("deliverPush", harness.admin(), BigInteger.ZERO,
+                o -> o.deliverPush(FEED, failing)).contains("consumer failed"));
+        assertEquals(pending, harness.call("pullPrice", failing, BigInteger.ZERO, o -> o.pullPrice(FEED)));
+        assertEquals("", harness.view(failing, o -> o.getPendingPush(FEED, failing)));
+    }
+
+    @Test
+    void deliveryCallsConsumerOnce() {
+        List<String> received = new ArrayList<>();
+        Address consumer = consumer("receiver", (method, args) -> {
+            received.add(method + ":" + args[0][0] + ":" + args[1][0]);
+            return "";
+        });
+        assertNull(subscribe(consumer, pricePerRead.multiply(BigInteger.TEN)));
+
+        approve();
+        String report = harness.view(consumer, o -> o.getPendingPush(FEED, consumer));
+        assertNull(harness.trySend("deliverPush", harness.admin(), BigInteger.ZERO, o -> o.deliverPush(FEED, consumer)));
+        assertEquals(List.of("onOraclePrice:" + FEED + ":" + report), received);
+        assertEquals("Nothing to deliver", harness.trySend("deliverPush", harness.admin(), BigInteger.ZERO,
+                o -> o.deliverPush(FEED, consumer)));
+    }
+
+    @Test
+    void consumerCantReenterDuringDelivery() {
+        OracleContract oracle = harness.oracle();
+        Address consumer = consumer("reentrant", (method, args) -> {
+            oracle.unsubscribe(FEED);
+            return "";
+        });
+        assertNull(subscribe(consumer, pricePerRead.multiply(BigInteger.TEN)));
+
+        approve();
+        assertEquals("ReentrancyGuard Reverted", harness.trySend("deliverPush", harness.admin(), BigInteger.ZERO,
+                o -> o.deliverPush(FEED, consumer)));
+    }
+
+    @Test
+    void emptySubscriptionsAreRefusedAndEvicted() {
+        Address consumer = consumer("short", (method, args) -> "");
+        assertEquals("Pay at least one push", subscribe(consumer, BigInteger.ZERO));
+        assertNull(subscribe(consumer, pricePerRead));
+
+        // One push paid, kept until taken
+        approve();
+        approve();
+        assertFalse(harness.view(consumer, o -> o.getPendingPush(FEED, consumer)).isEmpty());
+        harness.call("pullPrice", consumer, BigInteger.ZERO, o -> o.pullPrice(FEED));
+
+        // Nothing left to pay the next push
+        approve();
+        assertEquals("Not subscribed", harness.trySend("pullPrice", consumer, BigInteger.ZERO, o -> o.pullPrice(FEED)));
+    }
+
+    @Test
+    void fullFeedMakesRoomByEvicting() {
+        List<Address> consumers = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            Address consumer = consumer("consumer-" + i, (method, args) -> "");
+            assertNull(subscribe(consumer, pricePerRead));
+            consumers.add(consumer);
+        }
+        Address late = consumer("late", (method, args) -> "");
+        assertEquals("Max subscribers", subscribe(late, pricePerRead));
+
+        // 8 pushes per approval, then the drained ones give their slot back once taken
+        approve();
+        for (Address consumer : consumers) {
+            harness.call("pullPrice", consumer, BigInteger.ZERO, o -> o.pullPrice(FEED));
+        }
+        assertNull(subscribe(late, pricePerRead));
+    }
+}
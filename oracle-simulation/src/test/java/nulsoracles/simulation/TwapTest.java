@@ -0,0 +1,120 @@
+package nulsoracles.simulation;
+
+import io.nuls.contract.sdk.Address;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * getFeedTwap against the same average summed over every approved price
+ */
+class TwapTest {
+
+    private static final String FEED = "DEFAULT";
+    private static final int HISTORY = 256;
+    private static final String NOT_IN_HISTORY = "Window not in history";
+
+    private final OracleHarness harness = new OracleHarness(HarnessConfig.defaults(4));
+    private final Address reader = harness.account("reader");
+    private final List<long[]> approved = new ArrayList<>();
+
+    /**
+     * Approve a price as the next round of the feed and remember it
+     */
+    private void approve(long price) {
+        int round = harness.oracle().roundCounter(FEED);
+        harness.send("submitFeedInfo", harness.seeders().get(0), BigInteger.ZERO,
+                o -> o.submitFeedInfo(FEED, BigInteger.valueOf(price)));
+        harness.send("submitRoundCheck", harness.seeders().get(1), BigInteger.ZERO,
+                o -> o.submitRoundCheck(FEED, round, true));
+        approved.add(new long[]{harness.chain().timestamp(), price});
+    }
+
+    private BigInteger twap(long window) {
+        return harness.view(reader, o -> o.getFeedTwap(FEED, window));
+    }
+
+    private String twapRevert(long window) {
+        return assertThrows(ContractRevert.class, () -> twap(window)).getMessage();
+    }
+
+    /**
+     * Price times seconds of every approved price inside the window, over the window
+     */
+    private BigInteger expected(long window) {
+        long now = harness.chain().timestamp();
+        long start = now - window;
+        BigInteger sum = BigInteger.ZERO;
+        for (int i = 0; i < approved.size(); i++) {
+            long from = Math.max(approved.get(i)[0], start);
+            long to = (i + 1 < approved.size()) ? approved.get(i + 1)[0] : now;
+            if (to > from) {
+                sum = sum.add(BigInteger.valueOf(approved.get(i)[1]).multiply(BigInteger.valueOf(to - from)));
+            }
+        }
+        return sum.divide(BigInteger.valueOf(window));
+    }
+
+    @Test
+    void singleSampleIsItsOwnAverage() {
+        assertEquals(NOT_IN_HISTORY, twapRevert(1));
+
+        approve(1_000_000);
+        harness.chain().advance(600);
+
+        assertEquals(BigInteger.valueOf(1_000_000), twap(1));
+        assertEquals(BigInteger.valueOf(1_000_000), twap(600));
+        assertEquals(NOT_IN_HISTORY, twapRevert(601));
+        assertEquals(NOT_IN_HISTORY, twapRevert(0));
+    }
+
+    @Test
+    void windowOlderThanHistoryReverts() {
+        approve(1_000_000);
+        harness.chain().advance(100);
+        approve(2_000_000);
+        harness.chain().advance(50);
+
+        // Starts exactly at the first price, then one second before it
+        assertEquals(expected(150), twap(150));
+        assertEquals(BigInteger.valueOf((1_000_000L * 100 + 2_000_000L * 50) / 150), twap(150));
+        assertEquals(expected(120), twap(120));
+        assertEquals(NOT_IN_HISTORY, twapRevert(151));
+    }
+
+    @Test
+    void historyWrapsPastCapacity() {
+        Random random = new Random(4);
+        long price = 1_000_000;
+        for (int i = 0; i < HISTORY + 44; i++) {
+            // Every move is at least 2%, so each price can be proposed right away
+            price = random.nextBoolean() ? price * (102 + random.nextInt(10)) / 100 : price * 100 / (102 + random.nextInt(10));
+            approve(price);
+            harness.chain().advance(1 + random.nextInt(120));
+        }
+
+        // Only the newest HISTORY prices are kept, older windows revert even though they were approved
+        long now = harness.chain().timestamp();
+        long oldestKept = approved.get(approved.size() - HISTORY)[0];
+        assertEquals(expected(now - oldestKept), twap(now - oldestKept));
+        assertEquals(NOT_IN_HISTORY, twapRevert(now - oldestKept + 1));
+        assertEquals(NOT_IN_HISTORY, twapRevert(now - approved.get(0)[0]));
+
+        for (int i = 0; i < 500; i++) {
+            long window = 1 + random.nextInt((int) (now - oldestKept));
+            assertEquals(expected(window), twap(window), "window " + window);
+        }
+        for (int back = 0; back < HISTORY; back++) {
+            long window = now - approved.get(approved.size() - 1 - back)[0];
+            if (window > 0) {
+                assertEquals(expected(window), twap(window), "window to price " + back);
+            }
+        }
+    }
+}
@@ -0,0 +1,374 @@
+import io.nuls.contract.sdk.Address;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @notice State of a single asset served by NulsOracles
+ *
+ * @dev Feeders, deposits and yellow cards are shared by the whole
+ *      contract, everything that is specific to one price lives here
+ *      so a single deployment can feed many assets
+ * */
+public class Feed {
+
+    public static final String REPORT_VERSION = "02";   // Version of the encoded report
+    public static final int REPORT_LENGTH     = 60;     // Length of the encoded report
+    public static final int MAX_PRICE_BITS    = 128;    // Max bits of a price in the report
+    public static final int HISTORY_CAPACITY  = 256;    // Approved prices kept in the history
+    public static final int MAX_PRUNE_PER_CLOSE = 4;    // Max old rounds dropped when a round closes
+    public static final int MAX_OPEN_ROUNDS   = 4;      // Max rounds in flight at the same time
+    public static final int MAX_SUBSCRIBERS   = 32;     // Max consumer subscriptions
+    public static final int DEFAULT_DEVIATION_BPS = 100; // 1% band
+    public static final long DEFAULT_HEARTBEAT  = 60 * 60; // 1 hour
+    public static final int VOLATILITY_WEIGHT = 8;      // Volatility is an average of about the last 8 moves
+    public static final int VOLATILITY_SHARE  = 50;     // Adaptive band is at least 50% of the volatility
+
+    public String id;                       // Asset id of the feed
+    public int deviationBps;                // Min move in basis points to propose a price
+    public long heartbeat;                  // Seconds after which a price can be proposed without moving
+    public boolean adaptive;                // Widen the band with the volatility of the feed
+    public int volatilityBps;               // Moving average of the approved moves in basis points
+    public BigInteger price;                // price of asset
+    public BigInteger lastUpdated;          // When was the last oracle update
+    public int roundCounter;                // Id of the next round
+
+    public int priceRound;                  // Round that committed the current price
+    public long staleAt;                    // Time after which the price missed its heartbeat
+    public BigInteger bandLow;              // New prices at or below this moved enough
+    public BigInteger bandHigh;             // New prices at or above this moved enough
+    public long bandLowLong;                // bandLow when band fits in a long
+    public long bandHighLong;               // bandHigh when band fits in a long
+    public boolean bandFitsLong;            // True if both band limits fit in a long
+    public String info;                     // Cached readInfo response
+    public String batchInfo;                // Cached readFeedsInfo entry, "price,lastUpdated"
+    public String report;                   // Cached encoded report while price is fresh
+    public String staleReport;              // Cached encoded report once price is stale
+
+    // History ring buffer, slot historyHead holds the newest approved price
+    public long[] historyTime               = new long[HISTORY_CAPACITY];       // When price was approved
+    public BigInteger[] historyPrice        = new BigInteger[HISTORY_CAPACITY]; // Approved price
+    public BigInteger[] historyCumulative   = new BigInteger[HISTORY_CAPACITY]; // Sum of price * seconds until approval
+    public int historyHead;
+    public int historyCount;
+
+    public Map<Integer, VoteRound> rounds = new HashMap<>(); // Rounds still inside the dispute window
+    public List<Integer> openRounds       = new ArrayList<>(); // Rounds in flight, oldest first
+    public int oldestRound;                 // Oldest round not pruned yet
+
+    public List<Subscription> subscribers = new ArrayList<>(); // Consumers getting prices pushed
+    public int pushCursor;                  // Subscriber checked first on the next push
+
+    public Feed(String id_) {
+        id                  = id_;
+        deviationBps        = DEFAULT_DEVIATION_BPS;
+        heartbeat           = DEFAULT_HEARTBEAT;
+        adaptive            = false;
+        volatilityBps       = 0;
+        lastUpdated         = BigInteger.ZERO;
+        roundCounter        = 0;
+        oldestRound         = 0;
+        pushCursor          = 0;
+        priceRound          = -1;
+        staleAt             = 0;
+        historyHead         = HISTORY_CAPACITY - 1;
+        historyCount        = 0;
+        encode();
+    }
+
+    /**
+     * Store the price approved in the round and rebuild
+     * the cached read responses
+     * */
+    public void commitPrice(VoteRound round, long timestamp, BigInteger basisPoints) {
+        updateVolatility(round.price, basisPoints);
+        price       = round.price;
+        lastUpdated = BigInteger.valueOf(timestamp);
+        priceRound  = round.id;
+        staleAt     = timestamp + heartbeat;
+        recordHistory(timestamp);
+        encode();
+    }
+
+    /**
+     * Move the volatility average with the move from the current
+     * price to the new one
+     * */
+    private void updateVolatility(BigInteger newPrice, BigInteger basisPoints) {
+        if(price == null || price.signum() == 0){
+            return;
+        }
+        BigInteger move = newPrice.subtract(price).abs().multiply(basisPoints).divide(price);
+        int moveBps = (move.bitLength() < 31) ? move.intValue() : Integer.MAX_VALUE;
+        volatilityBps = (int) (((long) volatilityBps * (VOLATILITY_WEIGHT - 1) + moveBps) / VOLATILITY_WEIGHT);
+    }
+
+    /**
+     * Band used for the current price, deviationBps or, when adaptive,
+     * half the recent volatility if that is wider
+     * */
+    public int effectiveDeviationBps() {
+        if(!adaptive){
+            return deviationBps;
+        }
+        return Math.max(deviationBps, (int) ((long) volatilityBps * VOLATILITY_SHARE / 100));
+    }
+
+    /**
+     * Move the heartbeat deadline of the current price
+     * */
+    public void setHeartbeatDeadline(long deadline) {
+        staleAt = deadline;
+    }
+
+    /**
+     * Store the deviation band of the current price, a long copy is kept
+     * when it fits so most checks never touch BigInteger
+     * */
+    public void setBand(BigInteger low, BigInteger high) {
+        bandLow         = low;
+        bandHigh        = high;
+        bandFitsLong    = high.bitLength() < 64;
+        bandLowLong     = bandFitsLong ? low.longValue() : 0;
+        bandHighLong    = bandFitsLong ? high.longValue() : 0;
+    }
+
+    /**
+     * Check if a new price can be proposed, price must be out of the
+     * band or the heartbeat deadline must have passed
+     * */
+    public boolean canChange(BigInteger newPrice, long timestamp) {
+
+        // First price of the feed has nothing to be compared to
+        if(price == null || timestamp >= staleAt){
+            return true;
+        }
+
+        if(bandFitsLong && newPrice.bitLength() < 64){
+            long p = newPrice.longValue();
+            return p <= bandLowLong || p >= bandHighLong;
+        }
+
+        return newPrice.compareTo(bandLow) <= 0 || newPrice.compareTo(bandHigh) >= 0;
+    }
+
+    /**
+     * Push the new price to the history, overwriting the oldest one
+     * when the buffer is full, and move the price-time accumulator
+     * */
+    private void recordHistory(long timestamp) {
+        BigInteger cumulative = BigInteger.ZERO;
+        if(historyCount > 0){
+            cumulative = cumulativeAt(historyHead, timestamp);
+        }
+
+        historyHead = (historyHead + 1) % HISTORY_CAPACITY;
+        historyTime[historyHead]        = timestamp;
+        historyPrice[historyHead]       = price;
+        historyCumulative[historyHead]  = cumulative;
+
+        if(historyCount < HISTORY_CAPACITY){
+            historyCount++;
+        }
+    }
+
+    /**
+     * Time weighted average price over the last window seconds
+     *
+     * @dev Window must start after the oldest price kept. The observation
+     *      active at the window start is found with a binary search over the
+     *      fixed size buffer, so cost is bounded by log2(HISTORY_CAPACITY)
+     *      no matter how long the feed has been running
+     * */
+    public BigInteger twap(long now, long window) {
+        long start = now - window;
+
+        int oldest = historyIndex(historyCount - 1);
+        if(window <= 0 || historyCount == 0 || start < historyTime[oldest]){
+            return null;
+        }
+
+        // Newest observation at or before start, 0 is the newest one
+        int lo = 0;
+        int hi = historyCount - 1;
+        while(lo < hi){
+            int mid = (lo + hi) >>> 1;
+            if(historyTime[historyIndex(mid)] <= start){
+                hi = mid;
+            }else{
+                lo = mid + 1;
+            }
+        }
+
+        BigInteger sum = cumulativeAt(historyHead, now).subtract(cumulativeAt(historyIndex(lo), start));
+        return sum.divide(BigInteger.valueOf(window));
+    }
+
+    /**
+     * Index in the buffer of the observation that is back positions
+     * older than the newest one
+     * */
+    public int historyIndex(int back) {
+        return (historyHead - back + HISTORY_CAPACITY) % HISTORY_CAPACITY;
+    }
+
+    private BigInteger cumulativeAt(int index, long timestamp) {
+        return historyCumulative[index].add(historyPrice[index].multiply(BigInteger.valueOf(timestamp - historyTime[index])));
+    }
+
+    /**
+     * Build read responses, only done when price changes so reads
+     * never need to work with strings
+     *
+     * @dev Report layout, all fields are fixed width lower case hex:
+     *      [0,2)   version, REPORT_VERSION
+     *      [2,4)   stale flag, 00 fresh or 01 missed heartbeat
+     *      [4,36)  price, 128 bits
+     *      [36,52) last update timestamp, 64 bits
+     *      [52,60) round that committed the price, 32 bits two's complement
+     * */
+    private void encode() {
+        BigInteger current = (price != null) ? price : BigInteger.ZERO;
+
+        info        = current.toString() + ",V1," + lastUpdated.toString();
+        batchInfo   = current.toString() + "," + lastUpdated.toString();
+
+        StringBuilder body = new StringBuilder(REPORT_LENGTH - 4);
+        appendHex(body, current.toString(16), 32);
+        appendHex(body, Long.toHexString(lastUpdated.longValue()), 16);
+        appendHex(body, Integer.toHexString(priceRound), 8);
+
+        report      = REPORT_VERSION + "00" + body;
+        staleReport = REPORT_VERSION + "01" + body;
+    }
+
+    private static void appendHex(StringBuilder sb, String hex, int width) {
+        for(int i = hex.length(); i < width; i++){
+            sb.append('0');
+        }
+        sb.append(hex);
+    }
+
+    /**
+     * Get the subscription of a consumer, null if there is none
+     * */
+    public Subscription subscription(Address consumer) {
+        for(int i = 0; i < subscribers.size(); i++){
+            if(subscribers.get(i).consumer.equals(consumer)){
+                return subscribers.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remove the subscription of a consumer
+     * */
+    public void removeSubscription(Subscription subscription) {
+        int index = subscribers.indexOf(subscription);
+        subscribers.remove(index);
+        if(pushCursor > index){
+            pushCursor--;
+        }
+        if(pushCursor >= subscribers.size()){
+            pushCursor = 0;
+        }
+    }
+
+    /**
+     * Open a new round with the owner approval
+     * */
+    public VoteRound openRound(BigInteger price_, Address owner, int ownerSlot, BigInteger ownerStake, long expiresAt) {
+        VoteRound round = new VoteRound(roundCounter++, price_, owner, expiresAt);
+        round.setVote(ownerSlot, true);
+        round.approvs       = 1;
+        round.approvStake   = ownerStake;
+        rounds.put(round.id, round);
+        openRounds.add(round.id);
+        return round;
+    }
+
+    /**
+     * Get an open round, null if it is closed or pruned
+     * */
+    public VoteRound openRound(int roundId) {
+        VoteRound round = rounds.get(roundId);
+        return (round != null && !round.closed) ? round : null;
+    }
+
+    /**
+     * Get the newest open round, null if there is none
+     * */
+    public VoteRound newestOpenRound() {
+        if(openRounds.isEmpty()){
+            return null;
+        }
+        return rounds.get(openRounds.get(openRounds.size() - 1));
+    }
+
+    /**
+     * Store the signers of an aggregated report as the approvals
+     * of a new round
+     * */
+    public VoteRound recordReport(BigInteger price_, Address owner, BigInteger signers, BigInteger signedStake, long timestamp) {
+        VoteRound round = new VoteRound(roundCounter++, price_, owner, timestamp);
+        round.voted         = signers;
+        round.approvals     = signers;
+        round.approvs       = signers.bitCount();
+        round.approvStake   = signedStake;
+        rounds.put(round.id, round);
+        openRounds.add(round.id);
+        return round;
+    }
+
+    /**
+     * Close open rounds that can't be voted anymore, those have no result
+     * */
+    public void closeExpired(long timestamp, long disputeWindow) {
+        for(int i = openRounds.size() - 1; i >= 0; i--){
+            VoteRound round = rounds.get(openRounds.get(i));
+            if(round.expiresAt <= timestamp){
+                closeRound(round, null, timestamp, disputeWindow);
+            }
+        }
+    }
+
+    /**
+     * Close every open round older than the given one, they
+     * lost to a newer price so they have no result
+     * */
+    public void supersede(VoteRound newer, long timestamp, long disputeWindow) {
+        for(int i = openRounds.size() - 1; i >= 0; i--){
+            VoteRound round = rounds.get(openRounds.get(i));
+            if(round.id < newer.id){
+                closeRound(round, null, timestamp, disputeWindow);
+            }
+        }
+    }
+
+    /**
+     * Close the round and drop rounds that can't be disputed anymore
+     *
+     * @dev At most MAX_PRUNE_PER_CLOSE rounds are dropped per close, as
+     *      rounds are only created and closed one at a time the backlog
+     *      never grows
+     * */
+    public void closeRound(VoteRound round, Boolean result, long timestamp, long disputeWindow) {
+        round.closed    = true;
+        round.result    = result;
+        round.closedAt  = timestamp;
+        openRounds.remove(Integer.valueOf(round.id));
+
+        for(int i = 0; i < MAX_PRUNE_PER_CLOSE && oldestRound < roundCounter; i++){
+            VoteRound oldest = rounds.get(oldestRound);
+            if(oldest != null && (!oldest.closed || oldest.closedAt + disputeWindow > timestamp)){
+                break;
+            }
+            rounds.remove(oldestRound);
+            oldestRound++;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import io.nuls.contract.sdk.Address;
+
+import java.math.BigInteger;
+
+/**
+ * @notice Everything the oracle knows about one feeder
+ *
+ * @dev Kept in a single record so hot paths do one lookup per sender.
+ *      The slot is a dense id given when the record is created, it
+ *      indexes round vote bitsets and feeder iteration
+ * */
+public class Feeder {
+
+    public static final int ROLE_NONE   = 0;    // Only deposited or applying
+    public static final int ROLE_SEED   = 1;    // Seed filler set when oracle was created
+    public static final int ROLE_NORMAL = 2;    // Feeder admitted through completeProcess
+
+    public static final int MAX_YELLOW_CARDS = 5;   // More than this is expelled
+
+    public Address address;                 // Feeder address
+    public int slot;                        // Dense slot id
+    public int role;                        // ROLE_NONE, ROLE_SEED or ROLE_NORMAL
+    public BigInteger balance;              // Amount deposited to check if can fill oracle needs
+    public int yellowCards;                 // Feeder yellow cards
+    public long lastActivity;               // Last submit, vote or iAmActive
+    public long activityEpoch;              // Activity bucket the feeder is in, -1 if none
+    public int bucketPrev;                  // Slot before it in its activity bucket, -1 if first
+    public int bucketNext;                  // Slot after it in its activity bucket, -1 if last
+    public long appliedAt;                  // When feeder applied with enterNewFeeder, 0 if not applying
+    public String reportKey;                // Public key used to sign off chain observations
+    public BigInteger rewardCheckpoint;     // rewardPerFeeder when rewards were last settled
+    public BigInteger rewardsOwed;          // Read rewards settled and not claimed yet
+
+    public Feeder(Address address_, int slot_) {
+        address         = address_;
+        slot            = slot_;
+        role            = ROLE_NONE;
+        balance         = BigInteger.ZERO;
+        yellowCards     = 0;
+        lastActivity    = 0;
+        activityEpoch   = -1;
+        bucketPrev      = -1;
+        bucketNext      = -1;
+        appliedAt       = 0;
+        rewardCheckpoint = BigInteger.ZERO;
+        rewardsOwed     = BigInteger.ZERO;
+    }
+
+    /**
+     * Seeders and admitted feeders count in validFeedinOracle
+     * */
+    public boolean isActive() {
+        return role != ROLE_NONE;
+    }
+
+    public boolean isExpelled() {
+        return yellowCards > MAX_YELLOW_CARDS;
+    }
+
+    /**
+     * Counts in validFeedinOracle and its balance in totalActiveStake
+     * */
+    public boolean isCounted() {
+        return isActive() && !isExpelled();
+    }
+}
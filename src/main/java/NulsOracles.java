@@ -1,12 +1,6 @@
-import ch.qos.logback.core.util.COWArrayList;
-import com.fasterxml.jackson.databind.BeanProperty;
 import io.nuls.contract.sdk.*;
 import io.nuls.contract.sdk.annotation.*;
-import io.nuls.contract.sdk.event.DebugEvent;
-import org.checkerframework.checker.units.qual.A;
 
-import javax.validation.constraints.Min;
-import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -21,18 +15,22 @@ import static io.nuls.contract.sdk.Utils.require;
  * @notice Nuls Contract that feeds price info into contracts
  *           that need off chain prices
  *
- * @dev Each oracle can only feed one price,
- *     in the beggining only seeder fillers can
+ * @dev Each oracle can feed many prices, one feed per asset id,
+ *     feeders and their deposits are shared by every feed.
+ *     In the beggining only seeder fillers can
  *     change the oracle price and those are submited in the beggining
  *     when the oracle is created, only when the oracle is open
  *     that other feeders can enter.
  *     The approval of a new price must be done when prices change
  *     at least 1% up or down so anyone who implements this oracle
  *     needs to account for a potential 1% discrepancy or when the
- *     last update was made over 1 hour ago.
+ *     last update was made over 1 hour ago. Those are the defaults,
+ *     band and heartbeat can be tuned per feed by admins.
  *     Note: This discrepancy can be even higher in moments of high volatily
  *            so take into consideration at least 10% discrepancy in very rare cases
  *    To reach consensus in the price a feeder creates a challenger proposal.
+ *    Up to 4 proposals per feed can be in flight, each one expires after
+ *    1 hour and the newest one to be approved wins over older ones.
  *    And the other valid feeders can either approve or reject, if
  *    they reject a yellow card is given to challengeOwner and all
  *    that approved. If a challenger is accepcted who rejected receives
@@ -66,15 +64,35 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
     private static final BigInteger FEE_NULS        = BigInteger.valueOf(10000000L);    // 0.1 NULS
     private static final BigInteger SLASH_FEE       = BigInteger.valueOf(1000000000L);  // 10 NULS
     private static final BigInteger BASIS_POINTS    = BigInteger.valueOf(10000);        // 10.000
-    private static final BigInteger BASIS_1PLUS     = BigInteger.valueOf(10100);        // 10.100
-    private static final BigInteger BASIS_1MINUS    = BigInteger.valueOf(9900);         // 9.900
-    private static final BigInteger ONE_HOUR        = BigInteger.valueOf(60 * 60);      // 1 hour
+    private static final int MAX_DEVIATION_BPS      = 2000;                             // 20%, widest band a feed can use
+    private static final long MIN_HEARTBEAT         = 60 * 5;                           // 5 minutes
+    private static final long MAX_HEARTBEAT         = 60 * 60 * 24 * 7;                 // 7 days
+    private static final BigInteger REWARD_PRECISION = BigInteger.valueOf(1000000000000L); // 1e12, scale of rewardPerFeeder
+    private static final long ONE_HOUR_LONG         = 60 * 60;                          // 1 hour
     private static final BigInteger RAT_OUT_PAYOUT  = BigInteger.valueOf(500000000L);   // 5 NULS
     private static final BigInteger INACTIVE_PAYOUT = BigInteger.valueOf(10000000L);    // 0.1 NULS
     private static final BigInteger TWO_DAYS        = BigInteger.valueOf(60 * 60 * 24 * 2); // 2 days
     private static final int TWO_DAYS_LONG          = 60 * 60 * 24 * 2;                 // 2 days
     private static final int THREE_DAYS_LONG        = 60 * 60 * 24 * 3;                 // 3 days
+    private static final long ACTIVITY_EPOCH        = 60 * 60 * 12;                     // 12 hours, width of the activity buckets
+    private static final int MAX_RAT_OUT_BATCH      = 100;                              // Max pairs in a batch rat out
+    private static final int MAX_SWEEP              = 50;                               // Max feeders checked in a liveness sweep
+    private static final long ONE_DAY               = 60 * 60 * 24;                     // 1 day
+    private static final long VIEW_READS_PER_DAY    = 24;                               // View access is priced as one read per hour
+    private static final int MAX_VIEW_DAYS          = 365;                              // Max days of view access bought at once
+    private static final int MAX_PAGE_SIZE          = 50;                               // Max entries returned by a page view
+    private static final int PAGE_FEEDERS           = 0;                                // Page filter, active feeders
+    private static final int PAGE_APPLICANTS        = 1;                                // Page filter, feeders waiting completeProcess
+    private static final int PAGE_YELLOW_CARDS      = 2;                                // Page filter, feeders with yellow cards
     private static final long FIVE_DAYS             = 60 * 60 * 24 * 5;                 // 5 days
+    private static final long ROUND_TIMEOUT         = ONE_HOUR_LONG;                    // Rounds can be voted for 1 hour
+    private static final long RAT_OUT_WINDOW        = THREE_DAYS_LONG;                  // Rounds can be disputed for 3 days, less than the withdraw lock
+    private static final int MAX_BATCH_READ         = 100;                              // Max feeds in a batch read
+    private static final int MAX_PUSH_PER_UPDATE    = 8;                                // Max subscribers pushed in a price update
+    private static final String PUSH_CALLBACK       = "onOraclePrice";                  // Method called in subscribed consumers
+    private static final int MAX_REPORT_SIGNERS     = 64;                               // Signed observations a report can always carry
+    private static final String DEFAULT_FEED        = "DEFAULT";                        // Feed used by the single asset methods
+    private static final int MAX_FEED_ID_LENGTH     = 32;                               // Max characters of a feed id
 
     public Address token;                   // Project Token
     private BigInteger tokenTotalSupply;    // Token total supply
@@ -86,33 +104,30 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
     public BigInteger priceForFeederValid;  //
     public BigInteger penaltiesLeftOver;    //penalties charged for fillers non compliant
     public Address treasury;                // Address that receives feeders revenue
+    public long paidReads;                  // Reads paid since deployment
+    public long treasurySettledReads;       // Reads already paid out to treasury
+    public BigInteger rewardPerFeeder;      // Feeder share of reads earned by each active feeder since deployment, scaled by REWARD_PRECISION
+    public long rewardSyncedReads;          // Reads already added to rewardPerFeeder
+    public OracleStats stats = new OracleStats(); // Operational counters, read with getStats
 
     public Map<Address, Boolean> projectAdmin = new HashMap<>();
+    public Map<Address, Long> viewAccessUntil = new HashMap<>(); // Consumers allowed to use the free price view until this time
 
-    public BigInteger oracle;               //price of asset
-    public BigInteger oracleLastUpdated;    // When was the last oracle update
-    public BigInteger challenger;           // Challenger price to current
+    public Map<String, Feed> feeds = new HashMap<>(); // Price feeds served by the oracle, keyed by asset id
+    public List<String> feedIds    = new ArrayList<>(); // Asset ids in creation order
 
-    public Address challengerOwner;         // Challenger price to current
-    public Integer challengerApprovs;       // Challenger price to current
-    public Integer challengerRejects;       // Challenger price to current
     public Integer validFeedinOracle;       // number of approved feeders
+    public BigInteger totalActiveStake;     // Balance of the feeders counting in validFeedinOracle
+    public Boolean stakeWeighted;           // If true quorum is more than half of totalActiveStake
     public int pendingNewFeeders;           // pending feeders to feed info
     public Boolean onlySeeders;             // If true only seeders can submit
 
-   //User Balance
-    public Map<Address, BigInteger> userBalance             = new HashMap<>(); // Amount deposited to check if can fill oracle needs
-    public Map<Address, BigInteger> minValidationsToSubmit  = new HashMap<>(); // Min Valids that a feeder must submit to info be considered reliable
-    public Map<Address, Long> firstSubmissionToOracle       = new HashMap<>(); // Feeders must wait 2 days until they submit info, this stores the submission request
-    public Map<Address, Integer> yellowCard                 = new HashMap<>(); // User yellow cards
-    public Map<Address, Long> lastUserSubmit                = new HashMap<>(); // Min Valids that a feeder must submit to info be considered reliable
-    public Map<Address, Boolean> oracleSeedFillers          = new HashMap<>(); // check if is seed in oracle
-    public Map<Address, Boolean> oracleNormalFillers        = new HashMap<>(); // check if is seed in oracle
+   //Feeders
+    public Map<Address, Feeder> feeders = new HashMap<>();  // Balance, role, yellow cards and activity of every feeder
+    public List<Feeder> feederSlots     = new ArrayList<>(); // Feeder owning each slot
 
-    public Map<Integer, Map<Address, Boolean>> currentSubmission = new HashMap<>(); //results of the challenge
-
-    public int challengerCounter;
-    public Map<Integer, Boolean> challengerResult        = new HashMap<>(); // Amount deposited to check if can fill oracle needs
+    public Map<Long, Integer> activityBuckets = new HashMap<>(); // First slot of the feeders last active in each epoch, linked through the feeders
+    public long sweepEpoch;                 // Oldest activity epoch not swept yet
 
     //--------------------------------------------------------------------
     //Initialize Contract
@@ -139,16 +154,26 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
         minValids           = minValids_;
         treasury            = treasury_;
         penaltiesLeftOver   = BigInteger.ZERO;
+        paidReads           = 0;
+        treasurySettledReads = 0;
+        rewardPerFeeder     = BigInteger.ZERO;
+        rewardSyncedReads   = 0;
         tokenTotalSupply    = new BigInteger(token.callWithReturnValue("totalSupply", "", null, BigInteger.ZERO));
 
-        challengerCounter   = 0;
         pendingNewFeeders   = 0;
+        validFeedinOracle   = seeders_.length;
+        totalActiveStake    = BigInteger.ZERO;
+        stakeWeighted       = false;
+        sweepEpoch          = Block.timestamp() / ACTIVITY_EPOCH;
 
         for(int i = 0; i < seeders_.length; i++) {
-            require(!oracleSeedFillers.get(new Address(seeders_[i])), "Duplicated seed filler");
-            oracleSeedFillers.put(new Address(seeders_[i]), true);
+            require(feeders.get(new Address(seeders_[i])) == null, "Duplicated seed filler");
+            feederRecord(new Address(seeders_[i])).role = Feeder.ROLE_SEED;
 
         }
+
+        feeds.put(DEFAULT_FEED, new Feed(DEFAULT_FEED));
+        feedIds.add(DEFAULT_FEED);
     }
 
     /** VIEW FUNCTIONS */
@@ -179,12 +204,274 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
 
     @View
     public BigInteger getChallengerPrice() {
-        if(challenger != null){
-            return challenger;
+        return getFeedChallengerPrice(DEFAULT_FEED);
+    }
+
+    @View
+    public BigInteger getFeedChallengerPrice(String feedId) {
+        VoteRound round = getFeed(feedId).newestOpenRound();
+        if(round != null){
+            return round.price;
         }
         return BigInteger.ZERO;
     }
 
+    /**
+     * @notice Get the rounds of a feed that can still be voted
+     *
+     * @return Round ids, oldest first
+     */
+    @View
+    public List<Integer> getOpenRounds(String feedId) {
+        return getFeed(feedId).openRounds;
+    }
+
+    /**
+     * @notice Get a round of a feed
+     *
+     * @return "price,approvs,rejects,expiresAt,status,approvStake,rejectStake"
+     *         where status is open, approved, rejected or closed (expired or
+     *         superseded) and stakes are the deposits that voted each way
+     */
+    @View
+    public String getRound(String feedId, int roundId) {
+        VoteRound round = getFeed(feedId).rounds.get(roundId);
+        require(round != null, "Unknown round");
+        return roundInfo(round);
+    }
+
+    /**
+     * @notice Get a page of the rounds of a feed still inside the dispute window
+     *
+     * @param cursor round id to start from, 0 for the oldest kept
+     * @return "nextCursor;id,price,approvs,rejects,expiresAt,status,approvStake,rejectStake;..." oldest
+     *         first, nextCursor is -1 after the last page
+     */
+    @View
+    public String getRoundsPage(String feedId, int cursor, int size) {
+        Feed feed = getFeed(feedId);
+        checkPage(cursor, size);
+
+        int id = Math.max(cursor, feed.oldestRound);
+        int end = Math.min(id + size, feed.roundCounter);
+
+        String page = "";
+        for(; id < end; id++){
+            VoteRound round = feed.rounds.get(id);
+            if(round != null)
+                page += ";" + id + "," + roundInfo(round);
+        }
+
+        return ((id < feed.roundCounter) ? id : -1) + page;
+    }
+
+    private String roundInfo(VoteRound round) {
+        String status = !round.closed ? "open"
+                : (round.result == null) ? "closed"
+                : round.result ? "approved" : "rejected";
+
+        return round.price.toString() + "," + round.approvs + "," + round.rejects + "," + round.expiresAt + "," + status
+                + "," + round.approvStake + "," + round.rejectStake;
+    }
+
+    /**
+     * @notice Get time weighted average price of a feed
+     *
+     * @param window seconds before now, must be covered by the feed history
+     * @return TWAP of the window
+     */
+    @View
+    public BigInteger getFeedTwap(String feedId, long window) {
+        BigInteger twap = getFeed(feedId).twap(Block.timestamp(), window);
+        require(twap != null, "Window not in history");
+        return twap;
+    }
+
+    /**
+     * @notice Get an approved price from the feed history
+     *
+     * @param back 0 for the newest price, 1 for the previous, ...
+     * @return "price,timestamp" of the observation
+     */
+    @View
+    public String getFeedHistory(String feedId, int back) {
+        Feed feed = getFeed(feedId);
+        require(back >= 0 && back < feed.historyCount, "Not in history");
+        int index = feed.historyIndex(back);
+        return feed.historyPrice[index].toString() + "," + feed.historyTime[index];
+    }
+
+    /**
+     * @notice Get a page of the approved prices in the feed history
+     *
+     * @param cursor how many prices back to start from, 0 for the newest
+     * @return "nextCursor;price,timestamp;..." newest first, nextCursor is -1
+     *         after the last page
+     */
+    @View
+    public String getFeedHistoryPage(String feedId, int cursor, int size) {
+        Feed feed = getFeed(feedId);
+        checkPage(cursor, size);
+
+        int back = cursor;
+        int end = Math.min(back + size, feed.historyCount);
+
+        String page = "";
+        for(; back < end; back++){
+            int index = feed.historyIndex(back);
+            page += ";" + feed.historyPrice[index].toString() + "," + feed.historyTime[index];
+        }
+
+        return ((back < feed.historyCount) ? back : -1) + page;
+    }
+
+    /**
+     * @notice Get the price of a feed from another contract without paying per call
+     *
+     * @dev Caller must have view access bought with buyViewAccess. Returns the
+     *      report of readFeedReport: price, last update, round and the stale
+     *      flag, set once the feed heartbeat has passed
+     *
+     * @return encoded report, see Feed for the layout
+     */
+    @View
+    public String getLatestPrice(String feedId) {
+        Long until = viewAccessUntil.get(Msg.sender());
+        require(until != null && until > Block.timestamp(), "NulsOraclesV1: No view access");
+
+        Feed feed = getFeed(feedId);
+        return (Block.timestamp() < feed.staleAt) ? feed.report : feed.staleReport;
+    }
+
+    /**
+     * @notice Get until when a consumer can use getLatestPrice
+     *
+     * @return timestamp, 0 if it never had access
+     */
+    @View
+    public long getViewAccessUntil(Address consumer) {
+        Long until = viewAccessUntil.get(consumer);
+        return (until != null) ? until : 0;
+    }
+
+    /**
+     * @notice Get the price queued for a subscriber and not taken yet
+     *
+     * @return encoded report, empty if there is none
+     */
+    @View
+    public String getPendingPush(String feedId, Address consumer) {
+        Subscription subscription = getFeed(feedId).subscription(consumer);
+        return (subscription != null && subscription.pending != null) ? subscription.pending : "";
+    }
+
+    /**
+     * @notice Get deviation and heartbeat thresholds of a feed
+     *
+     * @return "deviationBps,heartbeat,adaptive,volatilityBps,effectiveBps"
+     */
+    @View
+    public String getFeedThresholds(String feedId) {
+        Feed feed = getFeed(feedId);
+        return feed.deviationBps + "," + feed.heartbeat + "," + feed.adaptive + ","
+                + feed.volatilityBps + "," + Math.min(feed.effectiveDeviationBps(), MAX_DEVIATION_BPS);
+    }
+
+    /**
+     * @notice Get the asset ids served by this oracle
+     *
+     * @return Asset ids in creation order
+     */
+    @View
+    public List<String> getFeedIds() {
+        return feedIds;
+    }
+
+    /**
+     * @notice Get a page of the asset ids served by this oracle
+     *
+     * @return "nextCursor;feedId;..." in creation order, nextCursor is -1
+     *         after the last page
+     */
+    @View
+    public String getFeedIdsPage(int cursor, int size) {
+        checkPage(cursor, size);
+
+        int i = cursor;
+        int end = Math.min(i + size, feedIds.size());
+
+        String page = "";
+        for(; i < end; i++){
+            page += ";" + feedIds.get(i);
+        }
+
+        return ((i < feedIds.size()) ? i : -1) + page;
+    }
+
+    /**
+     * @notice Get a page of the seeders and admitted feeders
+     *
+     * @dev Pages walk feeder slots in creation order and return the ones
+     *      matching, so a page can hold less than size entries and still
+     *      not be the last one
+     *
+     * @param cursor slot to start from, 0 for the first page
+     * @return "nextCursor;address,role,balance,yellowCards,lastActivity,appliedAt;..."
+     *         nextCursor is -1 after the last page
+     */
+    @View
+    public String getFeedersPage(int cursor, int size) {
+        return feedersPage(PAGE_FEEDERS, cursor, size);
+    }
+
+    /**
+     * @notice Get a page of the feeders that applied with enterNewFeeder
+     *         and didn't complete the process yet
+     *
+     * @return same layout as getFeedersPage
+     */
+    @View
+    public String getApplicantsPage(int cursor, int size) {
+        return feedersPage(PAGE_APPLICANTS, cursor, size);
+    }
+
+    /**
+     * @notice Get a page of the feeders that have yellow cards, expelled
+     *         feeders included
+     *
+     * @return same layout as getFeedersPage
+     */
+    @View
+    public String getYellowCardsPage(int cursor, int size) {
+        return feedersPage(PAGE_YELLOW_CARDS, cursor, size);
+    }
+
+    private String feedersPage(int filter, int cursor, int size) {
+        checkPage(cursor, size);
+
+        int slot = cursor;
+        int end = Math.min(slot + size, feederSlots.size());
+
+        String page = "";
+        for(; slot < end; slot++){
+            Feeder feeder = feederSlots.get(slot);
+
+            boolean match = (filter == PAGE_FEEDERS) ? feeder.isActive()
+                    : (filter == PAGE_APPLICANTS) ? feeder.appliedAt != 0
+                    : feeder.yellowCards > 0;
+
+            if(match)
+                page += ";" + feeder.address.toString() + "," + feeder.role + "," + feeder.balance.toString() + ","
+                        + feeder.yellowCards + "," + feeder.lastActivity + "," + feeder.appliedAt;
+        }
+
+        return ((slot < feederSlots.size()) ? slot : -1) + page;
+    }
+
+    private void checkPage(int cursor, int size) {
+        require(cursor >= 0 && size > 0 && size <= MAX_PAGE_SIZE, "NulsOraclesV1: Invalid page");
+    }
+
     /**
      * @notice Get user balance deposited in lock
      *
@@ -192,9 +479,23 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
      */
     @View
     public BigInteger getUserBalance(Address addr){
-        if(userBalance.get(addr) == null)
+        Feeder feeder = feeders.get(addr);
+        if(feeder == null)
             return BigInteger.ZERO;
-        return userBalance.get(addr);
+        return feeder.balance;
+    }
+
+    /**
+     * @notice Get feeder yellow cards
+     *
+     * @return Yellow cards, more than 5 is expelled
+     */
+    @View
+    public int getYellowCards(Address addr){
+        Feeder feeder = feeders.get(addr);
+        if(feeder == null)
+            return 0;
+        return feeder.yellowCards;
     }
 
     /**
@@ -204,12 +505,88 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
      */
     @View
     public Boolean newChallenger(){
-        if(challenger != null)
+        return newFeedChallenger(DEFAULT_FEED);
+    }
+
+    @View
+    public Boolean newFeedChallenger(String feedId){
+        if(getFeed(feedId).newestOpenRound() != null)
             return true;
         return false;
     }
 
 
+    /**
+     * @notice Get number of feeders counted for quorum
+     *
+     * @return Seeders and admitted feeders not expelled or removed
+     */
+    @View
+    public int getValidFeeders(){
+        return validFeedinOracle;
+    }
+
+    /**
+     * @notice Get stake counted for a stake weighted quorum
+     *
+     * @return Balance of the feeders counted in getValidFeeders
+     */
+    @View
+    public BigInteger getTotalActiveStake(){
+        return totalActiveStake;
+    }
+
+    @View
+    public Boolean isStakeWeighted(){
+        return stakeWeighted;
+    }
+
+    /**
+     * @notice Get read fees owed to treasury
+     *
+     * @return Treasury share of reads not claimed yet
+     */
+    @View
+    public BigInteger getAccruedTreasuryFees(){
+        return FIVEPER_NULS.multiply(BigInteger.valueOf(paidReads - treasurySettledReads));
+    }
+
+    /**
+     * @notice Get operational stats in one call
+     *
+     * @return "roundsOpened,roundsApproved,roundsRejected,latencyAverage,
+     *         latencyMax,latencyMean,participationBps,rejectionBps,reads24h,
+     *         approved24h,rejected24h,inactiveAlerts,paidReads,
+     *         accruedTreasuryFees,validFeeders,timestamp", latencies are
+     *         seconds from opening to approval, participation is votes of
+     *         closed rounds over the feeders valid when they closed.
+     *         reads24h counts read calls, paidReads also the reads bought
+     *         as view access and pushes
+     */
+    @View
+    public String getStats(){
+        return stats.snapshot(Block.timestamp()) + "," + paidReads + "," + getAccruedTreasuryFees() + ","
+                + validFeedinOracle + "," + Block.timestamp();
+    }
+
+    /**
+     * @notice Get feeder share of reads that can be claimed
+     *
+     * @return Rewards owed plus rewards earned since last settle
+     */
+    @View
+    public BigInteger getFeederRewards(Address addr){
+        Feeder feeder = feeders.get(addr);
+        if(feeder == null)
+            return BigInteger.ZERO;
+        if(!feeder.isActive() || feeder.isExpelled() || validFeedinOracle == 0)
+            return feeder.rewardsOwed;
+
+        BigInteger pending = feederShare().multiply(BigInteger.valueOf(paidReads - rewardSyncedReads))
+                .multiply(REWARD_PRECISION).divide(BigInteger.valueOf(validFeedinOracle));
+        return feeder.rewardsOwed.add(rewardPerFeeder.add(pending).subtract(feeder.rewardCheckpoint).divide(REWARD_PRECISION));
+    }
+
     @View
     public Boolean isPaused(){
         return paused;
@@ -230,12 +607,33 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
     }
 
 
-    protected void onlyIfFeederHasDeposit(Address feeder){
-        require(userBalance.get(feeder).compareTo(minNULSForFeeder) >= 0, "NulsOracleV1: Min Nuls Required to Submit");
+    protected void onlyIfFeederHasDeposit(Feeder feeder){
+        require(feeder != null && feeder.balance.compareTo(minNULSForFeeder) >= 0, "NulsOracleV1: Min Nuls Required to Submit");
+    }
+
+    protected Feed getFeed(String feedId){
+        Feed feed = feeds.get(feedId);
+        require(feed != null, "NulsOraclesV1: Unknown feed");
+        return feed;
+    }
+
+    /**
+     * Require that feed id is 1 to MAX_FEED_ID_LENGTH ascii letters,
+     * digits or "-_./:"
+     * */
+    protected void onlyValidFeedId(String feedId){
+        require(feedId.length() > 0 && feedId.length() <= MAX_FEED_ID_LENGTH, "Invalid feed id");
+
+        for(int i = 0; i < feedId.length(); i++){
+            char c = feedId.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '/' || c == ':';
+            require(valid, "Invalid feed id");
+        }
     }
 
-    protected void onlyIfValidYellowCards(Address feeder){
-        require(yellowCard.get(feeder) <= 5, "NulsOraclesV1: Expelled from feeders");
+    protected void onlyIfValidYellowCards(Feeder feeder){
+        require(!feeder.isExpelled(), "NulsOraclesV1: Expelled from feeders");
     }
 
     public void openOracleToPublic(){
@@ -246,289 +644,1157 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
     @Payable
     public void enterNewFeeder(){
 
+        Feeder feeder = feeders.get(Msg.sender());
+
         // New Feeder needs already a deposit
-        onlyIfFeederHasDeposit(Msg.sender());
+        onlyIfFeederHasDeposit(feeder);
+        require(!feeder.isActive() && feeder.appliedAt == 0, "Already feeder or applying");
+
+        // Expelled feeders can't come back by applying again
+        onlyIfValidYellowCards(feeder);
 
         require(pendingNewFeeders < validFeedinOracle / 2, "Only allow less than half of approved for every cicle");
         require(Msg.value().compareTo(RAT_OUT_PAYOUT.multiply(FIVE)) >= 0, "Pay for payouts");
-        firstSubmissionToOracle.put(Msg.sender(), Block.timestamp());
+        feeder.appliedAt = Block.timestamp();
         pendingNewFeeders += 1;
 
+        emit(new FeederAppliedEvent(Msg.sender(), feeder.appliedAt));
+
+    }
+
+    /**
+     * Complete process to be a feeder
+     *
+     * @dev Requires a 3 days waiting period to prevent flash loan
+     *      attacks where user borrows high amount of funds
+     *      and opens feeders to feed wrong prices to gain
+     *      control of assets depending on this oracle
+     *
+     * */
+    public void completeProcess(int seedersNumber){
+
+        Feeder feeder = feeders.get(Msg.sender());
+
+        require(feeder != null && feeder.appliedAt != 0, "Process is null");
+        require((feeder.appliedAt + THREE_DAYS_LONG) < Block.timestamp() , "Two days waiting period");
+
+        //Prevent double submissions
+        feeder.appliedAt = 0;
+        feeder.role = Feeder.ROLE_NORMAL;
+        joinFeeders(feeder);
+        touch(feeder);
+        pendingNewFeeders -= 1;
+
+        emit(new FeederAdmittedEvent(Msg.sender(), validFeedinOracle));
+    }
+
+
+    public void iAmActive(){
+        Feeder feeder = feeders.get(Msg.sender());
+        require(feeder != null, "Not feeder");
+
+        // Check to prevent withdraws until 2 daus after price submit and to check that oracle is active
+        touch(feeder);
+    }
+
+    public void alertInactive( Address inactiveUser){
+
+        require(validFeedinOracle > 1, "Last filler is always right");
+
+        Feeder feeder = feeders.get(inactiveUser);
+        require(feeder != null && feeder.role == Feeder.ROLE_NORMAL, "Not feeder");
+
+        require(feeder.lastActivity + TWO_DAYS_LONG <= Block.timestamp(), "User is active");
+
+        removeInactive(feeder);
+        Msg.sender().transfer(INACTIVE_PAYOUT);
+
+    }
+
+    /**
+     * Remove every inactive feeder of the list, with one payout for all
+     *
+     * @dev Addresses that are not inactive feeders are skipped so a
+     *      single stale entry doesn't revert the whole batch
+     * */
+    public void alertInactiveBatch(@Required Address[] inactiveUsers){
+
+        require(inactiveUsers.length <= MAX_SWEEP, "Invalid batch");
+
+        int removed = 0;
+        for(int i = 0; i < inactiveUsers.length && validFeedinOracle > 1; i++){
+            if(isInactive(feeders.get(inactiveUsers[i]))){
+                removeInactive(feeders.get(inactiveUsers[i]));
+                removed++;
+            }
+        }
+
+        payInactive(removed);
+
+    }
+
+    /**
+     * Remove inactive feeders found in the activity buckets, with
+     * one payout for all
+     *
+     * @dev Feeders are in the bucket of the epoch of their last activity
+     *      only, touch moves them to the newest one. A bucket is only
+     *      walked once every feeder in it is past TWO_DAYS_LONG, so no
+     *      active feeder is ever scanned. Every entry checked leaves the
+     *      bucket, seeders and feeders not admitted come back on their
+     *      next activity. At most maxFeeders entries are checked, the
+     *      sweep continues where it stopped next call even when nothing
+     *      was removed, then there is no payout
+     * */
+    public void sweepInactive(int maxFeeders){
+
+        require(maxFeeders > 0 && maxFeeders <= MAX_SWEEP, "Invalid batch");
+
+        long lastExpiredEpoch = (Block.timestamp() - TWO_DAYS_LONG) / ACTIVITY_EPOCH - 1;
+
+        int checked = 0;
+        int removed = 0;
+
+        while(checked < maxFeeders && sweepEpoch <= lastExpiredEpoch && validFeedinOracle > 1){
+
+            Integer first = activityBuckets.get(sweepEpoch);
+            checked++;
+
+            if(first == null){
+                sweepEpoch++;
+                continue;
+            }
+
+            Feeder feeder = feederSlots.get(first);
+            leaveBucket(feeder);
+
+            if(isInactive(feeder)){
+                removeInactive(feeder);
+                removed++;
+            }
+        }
+
+        require(checked > 0, "Nothing to sweep");
+
+        if(removed > 0){
+            Msg.sender().transfer(INACTIVE_PAYOUT.multiply(BigInteger.valueOf(removed)));
+        }
+
+    }
+
+    private boolean isInactive(Feeder feeder){
+        return feeder != null && feeder.role == Feeder.ROLE_NORMAL
+                && feeder.lastActivity + TWO_DAYS_LONG <= Block.timestamp();
+    }
+
+    private void removeInactive(Feeder feeder){
+
+        if(!feeder.isExpelled()){
+            leaveFeeders(feeder);
+        }
+        feeder.role = Feeder.ROLE_NONE;
+        leaveBucket(feeder);
+        stats.inactiveAlert();
+
+        emit(new FeederInactiveEvent(feeder.address, Msg.sender(), feeder.lastActivity));
+
+    }
+
+    private void payInactive(int removed){
+        require(removed > 0, "No inactive feeders");
+        Msg.sender().transfer(INACTIVE_PAYOUT.multiply(BigInteger.valueOf(removed)));
+    }
+
+    /**
+     * Count read calls served, in fees and in stats
+     * */
+    private void countReads(long reads){
+        accrueReads(reads);
+        stats.reads(reads, Block.timestamp());
+    }
+
+    /**
+     * Accrue reads paid, treasury and feeders are paid from this counter.
+     * Prepaid access and pushes only accrue, they are not read calls
+     * */
+    private void accrueReads(long reads){
+        paidReads += reads;
+    }
+
+    /**
+     * Update feeder last activity, the first time it is active in an
+     * epoch the feeder moves from its old bucket to the one of the epoch
+     * */
+    private void touch(Feeder feeder){
+
+        long now = Block.timestamp();
+        feeder.lastActivity = now;
+
+        long epoch = now / ACTIVITY_EPOCH;
+        if(feeder.activityEpoch != epoch){
+            leaveBucket(feeder);
+
+            Integer first = activityBuckets.get(epoch);
+            if(first != null){
+                feederSlots.get(first).bucketPrev = feeder.slot;
+            }
+            feeder.bucketNext       = (first != null) ? first : -1;
+            feeder.activityEpoch    = epoch;
+            activityBuckets.put(epoch, feeder.slot);
+        }
+
+    }
+
+    /**
+     * Unlink the feeder from its activity bucket, an empty bucket is deleted
+     * */
+    private void leaveBucket(Feeder feeder){
+
+        if(feeder.activityEpoch == -1){
+            return;
+        }
+
+        if(feeder.bucketPrev == -1){
+            if(feeder.bucketNext == -1){
+                activityBuckets.remove(feeder.activityEpoch);
+            }else{
+                activityBuckets.put(feeder.activityEpoch, feeder.bucketNext);
+            }
+        }else{
+            feederSlots.get(feeder.bucketPrev).bucketNext = feeder.bucketNext;
+        }
+        if(feeder.bucketNext != -1){
+            feederSlots.get(feeder.bucketNext).bucketPrev = feeder.bucketPrev;
+        }
+
+        feeder.activityEpoch    = -1;
+        feeder.bucketPrev       = -1;
+        feeder.bucketNext       = -1;
+
+    }
+
+    private void approveChallenger(Feed feed, VoteRound round){
+        // Check if there is a pending approve or reject
+        if(quorum(round.approvs, round.approvStake)){
+            commitRound(feed, round);
+
+        }
+
+    }
+
+    /**
+     * Newest round to reach quorum wins, every older open round
+     * is closed without result
+     * */
+    private void commitRound(Feed feed, VoteRound round){
+
+        // Report rounds are recorded expired, they are approved as they open
+        long latency = (round.expiresAt > Block.timestamp()) ? Block.timestamp() - (round.expiresAt - ROUND_TIMEOUT) : 0;
+        stats.roundApproved(latency, round.approvs + round.rejects, validFeedinOracle, Block.timestamp());
+
+        feed.commitPrice(round, Block.timestamp(), BASIS_POINTS);
+
+        updateBand(feed);
+
+        feed.supersede(round, Block.timestamp(), RAT_OUT_WINDOW);
+        feed.closeRound(round, true, Block.timestamp(), RAT_OUT_WINDOW);
+
+        emit(new ChallengeApprovedEvent(feed.id, round.id, round.price, Block.timestamp(), round.approvs));
+
+        pushSubscriptions(feed);
+
+    }
+
+    /**
+     * Variations of the feed deviation up and down, 1% by default
+     * */
+    private void updateBand(Feed feed){
+        BigInteger bps = BigInteger.valueOf(Math.min(feed.effectiveDeviationBps(), MAX_DEVIATION_BPS));
+        feed.setBand(feed.price.multiply(BASIS_POINTS).divide(BASIS_POINTS.add(bps)),
+                     feed.price.multiply(BASIS_POINTS).divide(BASIS_POINTS.subtract(bps)));
+    }
+
+    /**
+     * Queue the new price for the subscribers whose deviation was crossed
+     *
+     * @dev Approvals never call consumers, a consumer that reverts or burns
+     *      gas can't block a feed. The report is kept in the subscription
+     *      until the consumer pulls it with pullPrice or anyone delivers it
+     *      with deliverPush. Subscribers are checked round robin starting
+     *      at the feed cursor and at most MAX_PUSH_PER_UPDATE are queued,
+     *      so the cost of an approval is bounded. Each push is paid as a
+     *      read, a push not taken yet is replaced by the newer price for
+     *      free. Subscriptions that can't pay a push and have none pending
+     *      are evicted, the balance left goes to penalties
+     * */
+    private void pushSubscriptions(Feed feed){
+
+        int remaining = feed.subscribers.size();
+        int index = feed.pushCursor;
+        int queued = 0;
+
+        while(remaining > 0 && queued < MAX_PUSH_PER_UPDATE){
+
+            remaining--;
+            if(index >= feed.subscribers.size()){
+                index = 0;
+            }
+            Subscription subscription = feed.subscribers.get(index);
+
+            if(subscription.pending == null && subscription.balance.compareTo(pricePerRead) < 0){
+                // Next subscriber moves into this index
+                feed.subscribers.remove(index);
+                penaltiesLeftOver = penaltiesLeftOver.add(subscription.balance);
+                continue;
+            }
+            index++;
+
+            if(!subscription.crossed(feed.price, BASIS_POINTS)){
+                continue;
+            }
+
+            if(subscription.pending == null){
+                subscription.balance = subscription.balance.subtract(pricePerRead);
+                accrueReads(1);
+            }
+            subscription.pending    = feed.report;
+            subscription.lastPushed = feed.price;
+            queued++;
+
+            emit(new PushQueuedEvent(feed.id, subscription.consumer, feed.priceRound));
+        }
+
+        feed.pushCursor = (index >= feed.subscribers.size()) ? 0 : index;
+
+    }
+
+    /**
+     * Take the price queued for the sender subscription, already paid
+     *
+     * @return report queued, layout of readFeedReport, empty if none
+     * */
+    public String pullPrice(@Required String feedId){
+
+        Subscription subscription = getFeed(feedId).subscription(Msg.sender());
+        require(subscription != null, "Not subscribed");
+
+        String report = (subscription.pending != null) ? subscription.pending : "";
+        subscription.pending = null;
+        return report;
+
+    }
+
+    /**
+     * Deliver the price queued for a consumer with onOraclePrice(feedId, report)
+     *
+     * @dev Anyone can deliver, it is a transaction of its own so a consumer
+     *      that fails only reverts its delivery and can still pull.
+     *      Pending is cleared before the call and the guard is held during
+     *      it, the consumer can't reenter the oracle
+     * */
+    public void deliverPush(@Required String feedId, @Required Address consumer){
+
+        //Prevent Reentrancy Attacks
+        setEntrance();
+
+        Subscription subscription = getFeed(feedId).subscription(consumer);
+        require(subscription != null && subscription.pending != null, "Nothing to deliver");
+
+        String report = subscription.pending;
+        subscription.pending = null;
+
+        String[][] args = new String[][]{new String[]{feedId}, new String[]{report}};
+        consumer.call(PUSH_CALLBACK, "", args, BigInteger.ZERO);
+
+        setClosure();
+
+    }
+
+    /**
+     * Subscribe sender contract to get prices of a feed pushed
+     * or top up its subscription
+     *
+     * @dev Value sent is added to the prepaid balance, every push
+     *      costs pricePerRead and a new subscription must pay at least
+     *      one. When every slot is taken subscriptions that can't pay
+     *      a push are evicted to make room
+     * */
+    @Payable
+    public void subscribe(@Required String feedId, int deviationBps){
+
+        notPaused();
+
+        require(Msg.sender().isContract(), "Only contracts can subscribe");
+        require(deviationBps > 0 && deviationBps < BASIS_POINTS.intValue(), "Invalid deviation");
+
+        Feed feed = getFeed(feedId);
+        Subscription subscription = feed.subscription(Msg.sender());
+
+        if(subscription == null){
+            require(Msg.value().compareTo(pricePerRead) >= 0, "Pay at least one push");
+            if(feed.subscribers.size() >= Feed.MAX_SUBSCRIBERS){
+                evictEmptySubscriptions(feed);
+            }
+            require(feed.subscribers.size() < Feed.MAX_SUBSCRIBERS, "Max subscribers");
+            subscription = new Subscription(Msg.sender(), deviationBps);
+            feed.subscribers.add(subscription);
+        }
+
+        subscription.deviationBps = deviationBps;
+        subscription.balance = subscription.balance.add(Msg.value());
+
+    }
+
+    /**
+     * Remove subscriptions that can't pay a push and have none pending
+     * */
+    private void evictEmptySubscriptions(Feed feed){
+        for(int i = feed.subscribers.size() - 1; i >= 0; i--){
+            Subscription subscription = feed.subscribers.get(i);
+            if(subscription.pending == null && subscription.balance.compareTo(pricePerRead) < 0){
+                feed.removeSubscription(subscription);
+                penaltiesLeftOver = penaltiesLeftOver.add(subscription.balance);
+            }
+        }
+    }
+
+    /**
+     * Cancel sender subscription and get back the prepaid balance left
+     * */
+    public void unsubscribe(@Required String feedId){
+
+        //Prevent Reentrancy Attacks
+        setEntrance();
+
+        Feed feed = getFeed(feedId);
+        Subscription subscription = feed.subscription(Msg.sender());
+        require(subscription != null, "Not subscribed");
+
+        feed.removeSubscription(subscription);
+
+        if(subscription.balance.signum() > 0){
+            Msg.sender().transfer(subscription.balance);
+        }
+
+        setClosure();
+
+    }
+
+    private void rejectChallenger(Feed feed, VoteRound round){
+        if(quorum(round.rejects, round.rejectStake)){
+
+            Feeder owner = feeders.get(round.owner);
+            increaseUserYellowCards(owner);
+
+            // Owner was already punished, prevent a rat out of the same vote
+            round.setVote(owner.slot, false);
+            feed.closeRound(round, false, Block.timestamp(), RAT_OUT_WINDOW);
+            stats.roundRejected(round.approvs + round.rejects, validFeedinOracle, Block.timestamp());
+
+            emit(new ChallengeRejectedEvent(feed.id, round.id, round.price, round.owner, round.rejects));
+        }
+    }
+
+    /**
+     * Point
+     * */
+    public void ratOut(int challengeRound, Address maliciousUser){
+        ratOutFeed(DEFAULT_FEED, challengeRound, maliciousUser);
+    }
+
+    /**
+     * Give a yellow card to a feeder that voted against the result
+     * of a closed round of the given feed
+     * */
+    public void ratOutFeed(String feedId, int challengeRound, Address maliciousUser){
+
+        setEntrance();
+
+        Feed feed = getFeed(feedId);
+        VoteRound round = feed.rounds.get(challengeRound);
+        Feeder malicious = feeders.get(maliciousUser);
+
+        require(canDispute(round, malicious), "Ratout failed: ");
+
+        boolean result = round.result;
+        boolean vote = round.approved(malicious.slot);
+
+        //if result was true and submiter validated then false rat out
+        if(result && vote){
+
+            require(false, "False Rat out");
+
+        }else if(!result && !vote){
+
+            require(false, "False Rat out");
+
+        }else{
+
+            punishRatOut(feed, round, malicious);
+
+            Msg.sender().transfer(RAT_OUT_PAYOUT);
+
+        }
+
+        setClosure();
+    }
+
+    /**
+     * Rat out many (round, offender) pairs of a feed in one pass,
+     * with one payout for all of them
+     *
+     * @dev Pairs that can't be ratted out are skipped, so a pair already
+     *      reported by someone else doesn't revert the batch. A pair
+     *      is never paid twice, reporting flips the stored vote to the
+     *      result as in ratOut, even inside the same batch
+     * */
+    public void ratOutBatch(@Required String feedId, @Required int[] challengeRounds, @Required Address[] maliciousUsers){
+
+        setEntrance();
+
+        require(challengeRounds.length == maliciousUsers.length
+                && challengeRounds.length <= MAX_RAT_OUT_BATCH, "Invalid batch");
+
+        Feed feed = getFeed(feedId);
+
+        int reported = 0;
+        for(int i = 0; i < challengeRounds.length; i++){
+
+            VoteRound round = feed.rounds.get(challengeRounds[i]);
+            Feeder malicious = feeders.get(maliciousUsers[i]);
+
+            if(canDispute(round, malicious) && round.approved(malicious.slot) != round.result){
+                punishRatOut(feed, round, malicious);
+                reported++;
+            }
+        }
+
+        require(reported > 0, "False Rat out");
+
+        Msg.sender().transfer(RAT_OUT_PAYOUT.multiply(BigInteger.valueOf(reported)));
+
+        setClosure();
+    }
+
+    /**
+     * Round has a result still inside the dispute window and the feeder voted it
+     * */
+    private boolean canDispute(VoteRound round, Feeder malicious){
+        return round != null && round.closed && round.result != null && malicious != null
+                && round.hasVoted(malicious.slot) && round.closedAt + RAT_OUT_WINDOW > Block.timestamp();
+    }
+
+    /**
+     * Yellow card for a feeder that voted against the round result
+     * */
+    private void punishRatOut(Feed feed, VoteRound round, Feeder malicious){
+
+        increaseUserYellowCards(malicious);
+
+        if(malicious.isExpelled() && malicious.balance.compareTo(RAT_OUT_PAYOUT) >= 0){
+            setBalance(malicious, malicious.balance.subtract(RAT_OUT_PAYOUT));
+        }
+
+        // delete data in order to prevent double submissions
+        round.setVote(malicious.slot, round.result);
+
+        emit(new RatOutEvent(feed.id, round.id, malicious.address, Msg.sender()));
+
+    }
+
+    /** MUTABLE NON-OWNER FUNCTIONS */
+
+
+
+    public void submitOracleInfoCheck(@Required Boolean feedbackPrice) {
+        submitFeedInfoCheck(DEFAULT_FEED, feedbackPrice);
+    }
+
+    /**
+     * Approve or reject the newest open round of the given feed
+     * */
+    public void submitFeedInfoCheck(@Required String feedId, @Required Boolean feedbackPrice) {
+        Feed feed = getFeed(feedId);
+        feed.closeExpired(Block.timestamp(), RAT_OUT_WINDOW);
+
+        // Challenger must exist
+        VoteRound round = feed.newestOpenRound();
+        require(round != null, "Challenge not created");
+
+        submitRoundCheck(feedId, round.id, feedbackPrice);
+    }
+
+    /**
+     * Approve or reject an open round of the given feed
+     *
+     * @dev Several rounds can be in flight, each one is voted
+     *      and reaches quorum on its own
+     * */
+    public void submitRoundCheck(@Required String feedId, int roundId, @Required Boolean feedbackPrice) {
+
+        //Only allow submissions when not paused
+        notPaused();
+
+        Feeder feeder = feeders.get(Msg.sender());
+
+        // Feeder must have deposited at least min nuls to valid info inserted
+        onlyIfFeederHasDeposit(feeder);
+
+        // Feeder must have at most 5 mistakes
+        onlyIfValidYellowCards(feeder);
+
+        // Either a seeder or feeder must be a contract
+        require(feeder.role == Feeder.ROLE_SEED
+                ||  (feeder.role == Feeder.ROLE_NORMAL && Msg.sender().isContract()), "Feeder is seeder or contract");
+
+        Feed feed = getFeed(feedId);
+        feed.closeExpired(Block.timestamp(), RAT_OUT_WINDOW);
+
+        // Challenger must exist
+        VoteRound round = feed.openRound(roundId);
+        require(round != null, "Challenge not created");
+        require(!round.hasVoted(feeder.slot), "Already voted");
+
+        // Vote is stored in the round before it can be closed
+        round.setVote(feeder.slot, feedbackPrice);
+
+        emit(new VoteEvent(feedId, round.id, Msg.sender(), feedbackPrice));
+
+        if(feedbackPrice){
+
+            round.approvs += 1;
+            round.approvStake = round.approvStake.add(feeder.balance);
+
+            approveChallenger(feed, round);
+
+        }else{
+
+            round.rejects += 1;
+            round.rejectStake = round.rejectStake.add(feeder.balance);
+
+            rejectChallenger(feed, round);
+        }
+
+        // Check to prevent withdraws until 2 daus after price submit
+        touch(feeder);
+
+    }
+
+
+    /**
+     * Increase feeder yellow cards and expell him if yellow cards are
+     * higher than 5.
+     *
+     * @dev Last filler is always right, as in alertInactive: the last
+     *      feeder counted stays at 5 yellow cards, expelling it would
+     *      leave no feeder to reach quorum
+     * */
+    private void increaseUserYellowCards(Feeder user){
+
+        if(user.yellowCards == Feeder.MAX_YELLOW_CARDS && user.isCounted() && validFeedinOracle <= 1){
+            return;
+        }
+
+        user.yellowCards += 1;
+
+        emit(new YellowCardEvent(user.address, user.yellowCards, user.isExpelled()));
+
+        // Only counted once, when the feeder crosses the limit
+        if(user.yellowCards == Feeder.MAX_YELLOW_CARDS + 1 && user.isActive()){
+            leaveFeeders(user);
+        }
+    }
+
+    /**
+     * Feeder starts counting in validFeedinOracle, with its balance
+     * in totalActiveStake, and earning its share of reads from now on
+     * */
+    private void joinFeeders(Feeder feeder){
+        syncRewards();
+        feeder.rewardCheckpoint = rewardPerFeeder;
+        validFeedinOracle += 1;
+        totalActiveStake = totalActiveStake.add(feeder.balance);
+    }
+
+    /**
+     * Feeder stops counting in validFeedinOracle and totalActiveStake,
+     * rewards earned until now stay owed to it
+     * */
+    private void leaveFeeders(Feeder feeder){
+        syncRewards();
+        settleRewards(feeder);
+        validFeedinOracle -= 1;
+        totalActiveStake = totalActiveStake.subtract(feeder.balance);
+    }
+
+    /**
+     * Set feeder balance, totalActiveStake follows it while the
+     * feeder is counted
+     * */
+    private void setBalance(Feeder feeder, BigInteger balance){
+        if(feeder.isCounted()){
+            totalActiveStake = totalActiveStake.add(balance.subtract(feeder.balance));
+        }
+        feeder.balance = balance;
+    }
+
+    /**
+     * Votes reach quorum, more than half of the feeders or, when stake
+     * weighted, more than half of totalActiveStake
+     *
+     * @dev Tallies and totals are updated on every vote and balance
+     *      change, so the check costs the same for any number of feeders
+     * */
+    private boolean quorum(int votes, BigInteger stake){
+        if(stakeWeighted){
+            return stake.shiftLeft(1).compareTo(totalActiveStake) > 0;
+        }
+        return votes >= (validFeedinOracle / 2 + 1);
+    }
+
+    /**
+     * Max signed observations in a report, MAX_REPORT_SIGNERS or what a
+     * headcount quorum needs if that is more
+     *
+     * @dev Half plus one of the feeders, taking the ones with the most
+     *      stake, also hold more than half of totalActiveStake, so a report
+     *      can reach quorum in both modes whatever the number of feeders
+     * */
+    private int maxReportSigners(){
+        return Math.max(MAX_REPORT_SIGNERS, validFeedinOracle / 2 + 1);
+    }
+
+    /**
+     * Add feeder share of reads not synced yet to rewardPerFeeder
+     *
+     * @dev Reads only count themselves, the accumulator is moved here
+     *      before the number of feeders changes or a feeder settles, so
+     *      cost is the same whatever the number of reads or feeders.
+     *      With no active feeder the share goes to penaltiesLeftOver
+     * */
+    private void syncRewards(){
+        long pending = paidReads - rewardSyncedReads;
+        if(pending == 0){
+            return;
+        }
+        rewardSyncedReads = paidReads;
+
+        BigInteger amount = feederShare().multiply(BigInteger.valueOf(pending));
+        if(validFeedinOracle > 0){
+            rewardPerFeeder = rewardPerFeeder.add(amount.multiply(REWARD_PRECISION).divide(BigInteger.valueOf(validFeedinOracle)));
+        }else{
+            penaltiesLeftOver = penaltiesLeftOver.add(amount);
+        }
+    }
+
+    /**
+     * Move rewards earned since feeder checkpoint to what is owed to it,
+     * must only be called for feeders counting in validFeedinOracle
+     * */
+    private void settleRewards(Feeder feeder){
+        BigInteger earned = rewardPerFeeder.subtract(feeder.rewardCheckpoint).divide(REWARD_PRECISION);
+        feeder.rewardsOwed      = feeder.rewardsOwed.add(earned);
+        feeder.rewardCheckpoint = rewardPerFeeder;
+    }
+
+    /**
+     * Share of each read that goes to the feeders
+     * */
+    private BigInteger feederShare(){
+        BigInteger share = pricePerRead.subtract(FIVEPER_NULS);
+        return (share.signum() > 0) ? share : BigInteger.ZERO;
+    }
+
+    /**
+     * Claim feeder share of reads
+     *
+     * @dev Feeders that were expelled or removed keep what they
+     *      earned while they were active
+     * */
+    public void claimFeederRewards(){
+
+        //Prevent Reentrancy Attacks
+        setEntrance();
+
+        Feeder feeder = feeders.get(Msg.sender());
+        require(feeder != null, "Not feeder");
+
+        syncRewards();
+        if(feeder.isActive() && !feeder.isExpelled()){
+            settleRewards(feeder);
+        }
+
+        BigInteger amount = feeder.rewardsOwed;
+        require(amount.signum() > 0, "Nothing to claim");
+
+        feeder.rewardsOwed = BigInteger.ZERO;
+        Msg.sender().transfer(amount);
+
+        setClosure();
+
+    }
+
+    /**
+     * Submit challenger price that differs 1% from current price
+     * or current price was submit 1 hour ago or more
+     *
+     * */
+    @Payable
+    public void submitOracleInfo(@Required BigInteger newPrice) {
+        submitFeedInfo(DEFAULT_FEED, newPrice);
+    }
+
+    /**
+     * Submit challenger price for the given feed
+     * */
+    @Payable
+    public void submitFeedInfo(@Required String feedId, @Required BigInteger newPrice) {
+
+        //Prevent Reentrancy Attacks
+        setEntrance();
+
+        Feeder feeder = onlyValidSubmitter();
+
+        openChallenge(getFeed(feedId), feeder, newPrice);
+
+        touch(feeder);
+
+        setClosure();
+
     }
 
     /**
-     * Complete process to be a feeder
-     *
-     * @dev Requires a 3 days waiting period to prevent flash loan
-     *      attacks where user borrows high amount of funds
-     *      and opens feeders to feed wrong prices to gain
-     *      control of assets depending on this oracle
+     * Submit challenger prices for several feeds in one transaction
      *
+     * @dev Feeder checks are done once for the whole batch, so a heartbeat
+     *      across every feed costs a single transaction
      * */
-    public void completeProcess(int seedersNumber){
-
-        require(firstSubmissionToOracle.get(Msg.sender()) != null, "Process is null");
-        require((firstSubmissionToOracle.get(Msg.sender()) + THREE_DAYS_LONG) < Block.timestamp() , "Two days waiting period");
-
-        //Prevent double submissions
-        firstSubmissionToOracle.put(Msg.sender(), null);
-        validFeedinOracle += 1;
-        oracleNormalFillers.put(Msg.sender(), true);
-        pendingNewFeeders -= 1;
-    }
-
+    @Payable
+    public void submitFeedsInfo(@Required String[] feedIds_, @Required BigInteger[] newPrices) {
 
-    public void iAmActive(){
-        // Check to prevent withdraws until 2 daus after price submit and to check that oracle is active
-        lastUserSubmit.put(Msg.sender(), Block.timestamp());
-    }
+        //Prevent Reentrancy Attacks
+        setEntrance();
 
-    public void alertInactive( Address inactiveUser){
+        require(feedIds_.length == newPrices.length, "Invalid batch");
 
-        require(validFeedinOracle > 1, "Last filler is always right");
+        Feeder feeder = onlyValidSubmitter();
 
-        Boolean b = oracleNormalFillers.get(inactiveUser);
-        require(b != null && b, "Not feeder");
+        for(int i = 0; i < feedIds_.length; i++){
+            openChallenge(getFeed(feedIds_[i]), feeder, newPrices[i]);
+        }
 
-        require(lastUserSubmit.get(inactiveUser) + TWO_DAYS_LONG <= Block.timestamp(), "User is active");
+        touch(feeder);
 
-        oracleNormalFillers.put(inactiveUser, false);
-        validFeedinOracle =  validFeedinOracle - 1;
-        Msg.sender().transfer(INACTIVE_PAYOUT);
+        setClosure();
 
     }
 
-    private void approveChallenger(){
-        // Check if there is a pending approve or reject
-        if(challengerApprovs >= (validFeedinOracle / 2 + 1)){
-
-            oracle            = challenger;
-            oracleLastUpdated =  BigInteger.valueOf(Block.timestamp());
-            challengerApprovs = 0;
-            challengerRejects = 0;
-            challenger        = null;
-            challengerResult.put(challengerCounter++, true);
+    /**
+     * Require that sender is allowed to open challenges
+     * */
+    private Feeder onlyValidSubmitter(){
 
-        }
+        //Only allow locks when not paused
+        notPaused();
 
-    }
+        Feeder feeder = feeders.get(Msg.sender());
 
-    private void rejectChallenger(){
-        if(challengerRejects >= (validFeedinOracle / 2 + 1)){
+        //Require that feeder has made a deposit
+        onlyIfFeederHasDeposit(feeder);
 
-            increaseUserYellowCards(challengerOwner);
+        //Only accepted non expelled feeders
+        onlyIfValidYellowCards(feeder);
 
-            challengerApprovs = 0;
-            challengerRejects = 0;
-            challenger = null;
-            challengerResult.put(challengerCounter++, false);
+        if(onlySeeders){
+            //Require that feeder is seeder
+            require(feeder.role == Feeder.ROLE_SEED, "Not Seeder");
+        }else {
+            // verify that feeder is normal or seeder
+            require(feeder.isActive(), "Not Seeder");
         }
+
+        return feeder;
     }
 
     /**
-     * Point
+     * Open a challenger in the feed if price moved at least 1%
+     * or last update was 1 hour ago or more
      * */
-    public void ratOut(int challengeRound, Address maliciousUser){
+    private void openChallenge(Feed feed, Feeder feeder, BigInteger newPrice){
 
-        setEntrance();
+        // Rounds that can't be voted anymore free their place
+        feed.closeExpired(Block.timestamp(), RAT_OUT_WINDOW);
+        require(feed.openRounds.size() < Feed.MAX_OPEN_ROUNDS, "Price in appreciation");
 
-        require(currentSubmission.get(challengeRound) != null
-                && currentSubmission.get(challengeRound).get(maliciousUser) != null, "Ratout failed: "
-        );
+        onlyIfPriceCanChange(feed, newPrice);
 
-        boolean result = challengerResult.get(challengeRound);
+        // Create new challenger, update challenge data and update last user submission
+        VoteRound round = feed.openRound(newPrice, feeder.address, feeder.slot, feeder.balance, Block.timestamp() + ROUND_TIMEOUT);
+        stats.roundOpened();
 
-        //if result was true and submiter validated then false rat out
-        if(result && currentSubmission.get(challengeRound).get(maliciousUser)){
+        emit(new ChallengeOpenedEvent(feed.id, round.id, newPrice, feeder.address, round.expiresAt));
+    }
 
-            require(false, "False Rat out");
+    /**
+     * Require that new price moved at least 1% or last update
+     * was 1 hour ago or more
+     * */
+    private void onlyIfPriceCanChange(Feed feed, BigInteger newPrice){
 
-        }else if(!result && !currentSubmission.get(challengeRound).get(maliciousUser)){
+        require(newPrice.signum() >= 0 && newPrice.bitLength() <= Feed.MAX_PRICE_BITS, "Invalid price");
 
-            require(false, "False Rat out");
+        // Require that last update was over 1 hour ago or price varation was higher than 1%,
+        // band and heartbeat deadline are computed once when the price is approved
+        require(feed.canChange(newPrice, Block.timestamp()), "Too soon");
+    }
 
-        }else{
+    /**
+     * Get feeder record, a new one with the next free slot is created
+     * on first use so slots stay dense and bitsets small
+     * */
+    private Feeder feederRecord(Address addr){
+        Feeder feeder = feeders.get(addr);
+        if(feeder == null){
+            feeder = new Feeder(addr, feederSlots.size());
+            feederSlots.add(feeder);
+            feeders.put(addr, feeder);
+        }
+        return feeder;
+    }
 
-            increaseUserYellowCards(maliciousUser);
 
-            Msg.sender().transfer(RAT_OUT_PAYOUT);
+    /**
+     * Register sender public key to sign off chain observations
+     *
+     * @dev Key is taken from the transaction so it always belongs to the feeder
+     * */
+    public void registerReportKey() {
 
-            if(yellowCard.get(Msg.sender()) != null && yellowCard.get(Msg.sender()) > 5){
-                userBalance.put(maliciousUser, userBalance.get(maliciousUser).subtract(RAT_OUT_PAYOUT));
-            }
+        Feeder feeder = feeders.get(Msg.sender());
+        require(feeder != null, "Not feeder");
 
-            // delete data in order to prevent double submissions
-            Map <Address, Boolean> b = currentSubmission.get(challengeRound);
-            b.put(maliciousUser, result);
-            currentSubmission.put(challengeRound, b);
+        feeder.reportKey = Msg.senderPublicKey();
 
-        }
+    }
 
-        setClosure();
+    /**
+     * Message a feeder signs for an observation, the signature is
+     * made over the sha3 of it
+     *
+     * @dev Round is the round the report will open and close, so a signature
+     *      can't be replayed in a later round or in another feed. The oracle
+     *      address, which also carries the chain id, keeps it from being
+     *      replayed in another deployment
+     * */
+    @View
+    public String reportMessage(String feedId, int round, BigInteger price, Address signer) {
+        return Msg.address().toString() + "," + feedId + "," + round + "," + price.toString() + "," + signer.toString();
     }
 
-    /** MUTABLE NON-OWNER FUNCTIONS */
+    /**
+     * Approve a new price with the off chain signed observations of a
+     * quorum of feeders in a single transaction
+     *
+     * @dev Every signer must be an eligible feeder with a registered key and
+     *      can only be counted once. The median must have at most half of
+     *      the observations below it and at most half above it.
+     *      Signers are stored as approvals of the closed round, so the
+     *      round works with ratOut like any other. A report carries up to
+     *      maxReportSigners observations, always enough for a quorum.
+     *      Everything is checked before anything is written
+     * */
+    public void submitAggregatedReport(@Required String feedId,
+                                       @Required BigInteger median,
+                                       @Required String[] signers,
+                                       @Required BigInteger[] prices,
+                                       @Required String[] signatures) {
 
+        //Prevent Reentrancy Attacks
+        setEntrance();
 
+        Feeder submitter = onlyValidSubmitter();
 
-    public void submitOracleInfoCheck(@Required Boolean feedbackPrice) {
+        Feed feed = getFeed(feedId);
 
-        //Only allow submissions when not paused
-        notPaused();
+        require(signers.length == prices.length && signers.length == signatures.length, "Invalid report");
+        require(signers.length <= maxReportSigners(), "Too many signers");
 
-        // Feeder must have deposited at least min nuls to valid info inserted
-        onlyIfFeederHasDeposit(Msg.sender());
+        onlyIfPriceCanChange(feed, median);
 
-        // Feeder must have at most 5 mistakes
-        onlyIfValidYellowCards(Msg.sender());
+        Feeder[] signerRecords = new Feeder[signers.length];
+        BigInteger signed = BigInteger.ZERO;
+        BigInteger signedStake = BigInteger.ZERO;
+        int below = 0;
+        int above = 0;
 
-        // Either a seeder or feeder must be a contract
-        require((oracleSeedFillers.get(Msg.sender()) != null && oracleSeedFillers.get(Msg.sender()))
-                ||  (Msg.sender().isContract() && oracleNormalFillers.get(Msg.sender())), "Feeder is seeder or contract");
+        for(int i = 0; i < signers.length; i++){
 
-        // Challenger must exist
-        require(challenger != null, "Challenge not created");
+            Feeder signer = feeders.get(new Address(signers[i]));
 
-        if(feedbackPrice){
+            require(signer != null && signer.reportKey != null, "Unknown signer");
+            require(!signed.testBit(signer.slot), "Duplicated signer");
+            onlyIfFeederHasDeposit(signer);
+            onlyIfValidYellowCards(signer);
+            require(onlySeeders ? signer.role == Feeder.ROLE_SEED : signer.isActive(), "Signer not feeder");
 
-            challengerApprovs += 1;
+            String message = reportMessage(feedId, feed.roundCounter, prices[i], signer.address);
+            require(Utils.verifySignatureData(Utils.sha3(message), signatures[i], signer.reportKey), "Invalid signature");
 
-            approveChallenger();
+            signerRecords[i] = signer;
+            signed = signed.setBit(signer.slot);
+            signedStake = signedStake.add(signer.balance);
 
-        }else{
+            int cmp = prices[i].compareTo(median);
+            if(cmp < 0){
+                below++;
+            }else if(cmp > 0){
+                above++;
+            }
+        }
 
-            challengerRejects += 1;
+        require(quorum(signers.length, signedStake), "No quorum");
+        require(below * 2 <= signers.length && above * 2 <= signers.length, "Not the median");
 
-            rejectChallenger();
+        for(int i = 0; i < signerRecords.length; i++){
+            touch(signerRecords[i]);
         }
 
-        // Check to prevent withdraws until 2 daus after price submit
-        lastUserSubmit.put(Msg.sender(), Block.timestamp());
+        // Report is the newest round, it wins over every round in flight
+        stats.roundOpened();
+        commitRound(feed, feed.recordReport(median, submitter.address, signed, signedStake, Block.timestamp()));
 
-        Map<Address, Boolean> c = currentSubmission.get(Msg.sender());
-        c.put(Msg.sender(), feedbackPrice);
-        currentSubmission.put(challengerCounter, c);
+        touch(submitter);
 
+        setClosure();
 
     }
 
-
     /**
-     * Increase feeder yellow cards and expell him if yellow cards are
-     * higher than 5.
+     * Read Info from oracle
+     *
+     * Pay 0.1 NULS - 0.05 distributed to oracle token holders
+     *              - 0.05 distributed to the oracle feeders
      *
      * */
-    private void increaseUserYellowCards(Address user){
+    @Payable
+    public String readInfo() {
+        return readFeedInfo(DEFAULT_FEED);
+    }
+
+    /**
+     * Read Info of the given feed, same payment as readInfo
+     * */
+    @Payable
+    public String readFeedInfo(@Required String feedId) {
 
-        int yellowCards = yellowCard.get(user);
+        // revert all txs if this is paused, because pausing is only done in potential attacks
+        notPaused();
 
-        yellowCards = (yellowCard.get(user) != null) ? yellowCards : 0;
-        yellowCard.put(user, yellowCards + 1);
+        require(Msg.value().compareTo(pricePerRead) >= 0, "NulsOraclesV1: You need to pay");
 
-        int validN = validFeedinOracle;
+        Feed feed = getFeed(feedId);
+
+        // Fees are only accrued, treasury claims them in batch
+        countReads(1);
+
+        return feed.info;
 
-        if(yellowCards + 1 > 5 && validN > 1){
-            validFeedinOracle = validN - 1;
-        }
     }
 
     /**
-     * Submit challenger price that differs 1% from current price
-     * or current price was submit 1 hour ago or more
-     *
+     * Read encoded report of the default feed
      * */
     @Payable
-    public void submitOracleInfo(@Required BigInteger newPrice) {
+    public String readReport() {
+        return readFeedReport(DEFAULT_FEED);
+    }
 
-        //Prevent Reentrancy Attacks
-        setEntrance();
+    /**
+     * Read encoded report of the given feed, same payment as readInfo
+     *
+     * @dev Returns price, last update, round and staleness flag in the
+     *      fixed width layout described in Feed, both variants are built
+     *      when the price is approved so reading does no string work
+     * */
+    @Payable
+    public String readFeedReport(@Required String feedId) {
 
-        //Only allow locks when not paused
+        // revert all txs if this is paused, because pausing is only done in potential attacks
         notPaused();
 
-        //Require that feeder has made a deposit
-        onlyIfFeederHasDeposit(Msg.sender());
-
-        //Only accepted non expelled feeders
-        onlyIfValidYellowCards(Msg.sender());
-
-        if(onlySeeders){
-
-            //Require that feeder is seeder and there isn't a challenger active
-            require(oracleSeedFillers.get(Msg.sender()), "Not Seeder");
-            require(challenger == null, "Price in appreciation");
-
-            // Variations of 1% up and down
-            BigInteger allow1perDeltaPos = oracle.multiply(BASIS_POINTS).divide(BASIS_1PLUS);
-            BigInteger allow1perDeltaNeg = oracle.multiply(BASIS_POINTS).divide(BASIS_1MINUS);
+        require(Msg.value().compareTo(pricePerRead) >= 0, "NulsOraclesV1: You need to pay");
 
-            // Require that last update was over 1 hour ago or price varation was higher than 1%
-            require((oracleLastUpdated.add(ONE_HOUR)).compareTo(BigInteger.valueOf(Block.timestamp())) >=0
-                    || (newPrice.compareTo(allow1perDeltaPos) > 0 && newPrice.compareTo(allow1perDeltaNeg) < 0)
-                    , "Too soon");
+        Feed feed = getFeed(feedId);
 
-            // Create new challenger, update challenge data and update last user submission
-            challenger          =  newPrice;
-            challengerOwner      = Msg.sender();
-            challengerApprovs   = 1;
+        // Fees are only accrued, treasury claims them in batch
+        countReads(1);
 
+        return (Block.timestamp() < feed.staleAt) ? feed.report : feed.staleReport;
 
-        }else {
+    }
 
-            // verify that feeder is normal or seeder and that there is no challenger
-            require(oracleNormalFillers.get(Msg.sender()) || oracleSeedFillers.get(Msg.sender()), "Not Seeder");
-            require(challenger == null, "Price in appreciation");
+    /**
+     * Read Info of several feeds paying once for all of them
+     *
+     * @dev Costs pricePerRead for each feed, the treasury share of the whole
+     *      batch is accrued with a single counter update.
+     *      Response is "V1;price,lastUpdated;price,lastUpdated;..." in the
+     *      same order of the requested feeds
+     * */
+    @Payable
+    public String readFeedsInfo(@Required String[] feedIds_) {
 
-            // Variations of 1% up and down
-            BigInteger allow1perDeltaPos = oracle.multiply(BASIS_POINTS).divide(BASIS_1PLUS);
-            BigInteger allow1perDeltaNeg = oracle.multiply(BASIS_POINTS).divide(BASIS_1MINUS);
+        // revert all txs if this is paused, because pausing is only done in potential attacks
+        notPaused();
 
-            // Require that last update was over 1 hour ago or price varation was higher than 1%
-            require((oracleLastUpdated.add(ONE_HOUR)).compareTo(BigInteger.valueOf(Block.timestamp())) >=0
-                            || (newPrice.compareTo(allow1perDeltaPos) > 0 && newPrice.compareTo(allow1perDeltaNeg) < 0)
-                    , "Too soon");
+        require(feedIds_.length > 0 && feedIds_.length <= MAX_BATCH_READ, "Invalid batch");
 
-            // Create new challenger, update challenge data and update last user submission
-            challenger          =  newPrice;
-            challengerOwner      = Msg.sender();
-            challengerApprovs   = 1;
+        BigInteger count = BigInteger.valueOf(feedIds_.length);
+        require(Msg.value().compareTo(pricePerRead.multiply(count)) >= 0, "NulsOraclesV1: You need to pay");
 
+        // Entries are built when prices are approved, only joined here
+        StringBuilder response = new StringBuilder("V1");
+        for(int i = 0; i < feedIds_.length; i++){
+            response.append(';').append(getFeed(feedIds_[i]).batchInfo);
         }
 
-        lastUserSubmit.put(Msg.sender(), Block.timestamp());
+        // Fees are only accrued, treasury claims them in batch
+        countReads(feedIds_.length);
 
-        setClosure();
+        return response.toString();
 
     }
 
-
     /**
-     * Read Info from oracle
-     *
-     * Pay 0.1 NULS - 0.05 distributed to oracle token holders
-     *              - 0.05 distributed to the oracle feeders
+     * Buy days of access to getLatestPrice for a consumer
      *
+     * @dev A day costs pricePerRead for each hour and is accrued as that many
+     *      reads, so treasury and feeders get paid as for normal reads.
+     *      Days are added after the current access if it didn't end yet
      * */
     @Payable
-    public String readInfo() {
+    public void buyViewAccess(@Required Address consumer, int days) {
 
-        // revert all txs if this is paused, because pausing is only done in potential attacks
         notPaused();
 
-        require(Msg.value().compareTo(pricePerRead) >= 0, "NulsOraclesV1: You need to pay");
+        require(days > 0 && days <= MAX_VIEW_DAYS, "Invalid days");
 
-        treasury.transfer(FIVEPER_NULS);
+        long reads = VIEW_READS_PER_DAY * days;
+        require(Msg.value().compareTo(pricePerRead.multiply(BigInteger.valueOf(reads))) >= 0, "NulsOraclesV1: You need to pay");
 
-        return (    oracle != null) ?
-                    oracle.toString()          + ",V1," + oracleLastUpdated.toString()
-                :   BigInteger.ZERO.toString() + ",V1," + oracleLastUpdated.toString();
+        long start = Math.max(getViewAccessUntil(consumer), Block.timestamp());
+        viewAccessUntil.put(consumer, start + ONE_DAY * days);
+
+        accrueReads(reads);
 
     }
 
     /**
      * Deposit funds on Oracle
      *
-     * @dev required in order for be able to feed information
+     * @dev required in order for be able to feed information. The first
+     *      deposit takes a feeder slot for good, it must be at least
+     *      minNULSForFeeder so slots can't be taken for free
      * */
     @Payable
     public void depositOnBehalf() {
@@ -539,13 +1805,11 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
         //Only allow locks when not paused
         notPaused();
 
-        BigInteger amount = Msg.value();
+        require(feeders.get(Msg.sender()) != null || Msg.value().compareTo(minNULSForFeeder) >= 0,
+                "First deposit below min");
 
-        if(userBalance.get(Msg.sender()) == null){
-            userBalance.put(Msg.sender(), amount);
-        }else{
-            userBalance.put(Msg.sender(), userBalance.get(Msg.sender()).add(amount));
-        }
+        Feeder feeder = feederRecord(Msg.sender());
+        setBalance(feeder, feeder.balance.add(Msg.value()));
 
         setClosure();
 
@@ -555,7 +1819,7 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
      * Withdraw funds from Oracle
      *
      * */
-    public void withdraw() {
+    public void withdraw(@Required BigInteger amount) {
 
         //Prevent Reentrancy Attacks
         setEntrance();
@@ -563,15 +1827,13 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
         //Only allow locks when not paused
         notPaused();
 
-        require(lastUserSubmit.get(Msg.sender()) + FIVE_DAYS <= Block.timestamp() , "Only allow withdraw after 5 days");
+        Feeder feeder = feeders.get(Msg.sender());
 
-        BigInteger amount = Msg.value();
+        require(feeder != null && feeder.lastActivity + FIVE_DAYS <= Block.timestamp() , "Only allow withdraw after 5 days");
+        require(amount.signum() > 0 && feeder.balance.compareTo(amount) >= 0, "Not enough balance");
 
-        if(userBalance.get(Msg.sender()) == null){
-            userBalance.put(Msg.sender(), amount);
-        }else{
-            userBalance.put(Msg.sender(), userBalance.get(Msg.sender()).subtract(amount));
-        }
+        setBalance(feeder, feeder.balance.subtract(amount));
+        Msg.sender().transfer(amount);
 
         setClosure();
 
@@ -613,7 +1875,54 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
 
         onlyAdmin();
 
-        yellowCard.put(addr, 0);
+        Feeder feeder = feeders.get(addr);
+        require(feeder != null, "Not feeder");
+
+        // Expelled feeder that is still seeder or admitted counts again
+        if(feeder.isExpelled() && feeder.isActive()){
+            joinFeeders(feeder);
+        }
+        feeder.yellowCards = 0;
+
+    }
+
+    /**
+     * Pay treasury the share of every read since the last claim
+     *
+     * @dev Reads only count themselves, this settles all of them
+     *      in a single transfer
+     * */
+    public void claimTreasuryFees(){
+
+        //Prevent Reentrancy Attacks
+        setEntrance();
+
+        require(Msg.sender().equals(treasury) || (projectAdmin.get(Msg.sender()) != null && projectAdmin.get(Msg.sender())), "Invalid Admin");
+
+        BigInteger amount = getAccruedTreasuryFees();
+        require(amount.signum() > 0, "Nothing to claim");
+
+        treasurySettledReads = paidReads;
+        treasury.transfer(amount);
+
+        setClosure();
+
+    }
+
+    /**
+     * Remove a consumer subscription, balance left goes to penalties
+     * as it can't be sent back to a failing contract
+     * */
+    public void removeSubscription(@Required String feedId, @Required Address consumer){
+
+        onlyAdmin();
+
+        Feed feed = getFeed(feedId);
+        Subscription subscription = feed.subscription(consumer);
+        require(subscription != null, "Not subscribed");
+
+        feed.removeSubscription(subscription);
+        penaltiesLeftOver = penaltiesLeftOver.add(subscription.balance);
 
     }
 
@@ -626,6 +1935,60 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
 
     }
 
+    /**
+     * Add a new asset feed, shares feeders and deposits with every other feed
+     *
+     * @dev Ids are joined with ',' and ';' in view and read responses, so
+     *      they are limited to letters, digits and "-_./:"
+     * */
+    public void addFeed(@Required String feedId){
+
+        onlyAdmin();
+        onlyValidFeedId(feedId);
+        require(feeds.get(feedId) == null, "Feed already exists");
+
+        feeds.put(feedId, new Feed(feedId));
+        feedIds.add(feedId);
+
+    }
+
+    /**
+     * Set how much the price of a feed must move, or how long since the last
+     * update, before a new price can be proposed
+     *
+     * @dev With adaptive set the band widens with the recent volatility
+     *      of the feed, see Feed.effectiveDeviationBps
+     * */
+    public void setFeedThresholds(@Required String feedId, int deviationBps, long heartbeat, boolean adaptive){
+
+        onlyAdmin();
+
+        require(deviationBps > 0 && deviationBps <= MAX_DEVIATION_BPS, "Invalid deviation");
+        require(heartbeat >= MIN_HEARTBEAT && heartbeat <= MAX_HEARTBEAT, "Invalid heartbeat");
+
+        Feed feed = getFeed(feedId);
+        feed.deviationBps   = deviationBps;
+        feed.heartbeat      = heartbeat;
+        feed.adaptive       = adaptive;
+
+        // Current price follows the new thresholds right away
+        if(feed.price != null){
+            feed.setHeartbeatDeadline(feed.lastUpdated.longValue() + heartbeat);
+            updateBand(feed);
+        }
+
+    }
+
+    /**
+     * Switch quorum between half of the feeders and half of their stake
+     *
+     * @dev Rounds in flight keep their tallies, both are always counted
+     * */
+    public void setStakeWeighted(boolean weighted){
+        onlyAdmin();
+        stakeWeighted = weighted;
+    }
+
     public void setPaused(){
         onlyAdmin();
         paused = true;
@@ -661,4 +2024,170 @@ public class NulsOracles extends ReentrancyGuard implements Contract{
         require(b, "NulswapV1: Failed to transfer");
     }
 
+
+    //--------------------------------------------------------------------
+    /** EVENTS */
+
+    /**
+     * New challenge round opened in a feed
+     * */
+    static class ChallengeOpenedEvent implements Event {
+        private String feedId;
+        private int round;
+        private BigInteger price;
+        private Address owner;
+        private long expiresAt;
+
+        public ChallengeOpenedEvent(String feedId, int round, BigInteger price, Address owner, long expiresAt) {
+            this.feedId = feedId;
+            this.round = round;
+            this.price = price;
+            this.owner = owner;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Feeder voted a round
+     * */
+    static class VoteEvent implements Event {
+        private String feedId;
+        private int round;
+        private Address feeder;
+        private boolean approve;
+
+        public VoteEvent(String feedId, int round, Address feeder, boolean approve) {
+            this.feedId = feedId;
+            this.round = round;
+            this.feeder = feeder;
+            this.approve = approve;
+        }
+    }
+
+    /**
+     * Round reached quorum and its price is the feed price
+     * */
+    static class ChallengeApprovedEvent implements Event {
+        private String feedId;
+        private int round;
+        private BigInteger price;
+        private long timestamp;
+        private int approvs;
+
+        public ChallengeApprovedEvent(String feedId, int round, BigInteger price, long timestamp, int approvs) {
+            this.feedId = feedId;
+            this.round = round;
+            this.price = price;
+            this.timestamp = timestamp;
+            this.approvs = approvs;
+        }
+    }
+
+    /**
+     * Round was rejected, owner got a yellow card
+     * */
+    static class ChallengeRejectedEvent implements Event {
+        private String feedId;
+        private int round;
+        private BigInteger price;
+        private Address owner;
+        private int rejects;
+
+        public ChallengeRejectedEvent(String feedId, int round, BigInteger price, Address owner, int rejects) {
+            this.feedId = feedId;
+            this.round = round;
+            this.price = price;
+            this.owner = owner;
+            this.rejects = rejects;
+        }
+    }
+
+    /**
+     * Feeder that voted against a round result was reported
+     * */
+    static class RatOutEvent implements Event {
+        private String feedId;
+        private int round;
+        private Address offender;
+        private Address reporter;
+
+        public RatOutEvent(String feedId, int round, Address offender, Address reporter) {
+            this.feedId = feedId;
+            this.round = round;
+            this.offender = offender;
+            this.reporter = reporter;
+        }
+    }
+
+    /**
+     * Feeder got a yellow card
+     * */
+    static class YellowCardEvent implements Event {
+        private Address feeder;
+        private int yellowCards;
+        private boolean expelled;
+
+        public YellowCardEvent(Address feeder, int yellowCards, boolean expelled) {
+            this.feeder = feeder;
+            this.yellowCards = yellowCards;
+            this.expelled = expelled;
+        }
+    }
+
+    /**
+     * Feeder was removed for being inactive
+     * */
+    static class FeederInactiveEvent implements Event {
+        private Address feeder;
+        private Address reporter;
+        private long lastActivity;
+
+        public FeederInactiveEvent(Address feeder, Address reporter, long lastActivity) {
+            this.feeder = feeder;
+            this.reporter = reporter;
+            this.lastActivity = lastActivity;
+        }
+    }
+
+    /**
+     * Address applied to be a feeder
+     * */
+    static class FeederAppliedEvent implements Event {
+        private Address feeder;
+        private long appliedAt;
+
+        public FeederAppliedEvent(Address feeder, long appliedAt) {
+            this.feeder = feeder;
+            this.appliedAt = appliedAt;
+        }
+    }
+
+    /**
+     * Price queued for a subscriber, deliver it with deliverPush
+     * */
+    static class PushQueuedEvent implements Event {
+        private String feedId;
+        private Address consumer;
+        private int round;
+
+        public PushQueuedEvent(String feedId, Address consumer, int round) {
+            this.feedId = feedId;
+            this.consumer = consumer;
+            this.round = round;
+        }
+    }
+
+    /**
+     * Applicant completed the process and is a feeder
+     * */
+    static class FeederAdmittedEvent implements Event {
+        private Address feeder;
+        private int validFeeders;
+
+        public FeederAdmittedEvent(Address feeder, int validFeeders) {
+            this.feeder = feeder;
+            this.validFeeders = validFeeders;
+        }
+    }
+
 }
\ No newline at end of file
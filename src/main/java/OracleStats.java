@@ -0,0 +1,105 @@
+/**
+ * @notice Operational counters of NulsOracles, read in one view
+ *
+ * @dev Totals since deployment plus rolling aggregates: an exponential
+ *      average of the round latency and the last 24 hours in hourly
+ *      buckets. Every update is O(1) and touches a handful of fields,
+ *      an hourly bucket is reset by the first update that lands in it
+ * */
+public class OracleStats {
+
+    public static final int BUCKETS         = 24;       // Hourly buckets kept, one day
+    public static final long BUCKET_SECONDS = 60 * 60;  // 1 hour
+    public static final int LATENCY_WEIGHT  = 8;        // Latency average is about the last 8 rounds
+
+    public long roundsOpened;               // Rounds opened by a submission or a report
+    public long roundsApproved;             // Rounds approved by vote or report
+    public long roundsRejected;             // Rounds rejected by vote
+    public long latencyTotal;               // Seconds from opening to approval, summed
+    public long latencyAverage;             // Moving average of the approval latency
+    public long latencyMax;                 // Slowest approval
+    public long votesAtClose;               // Votes of the rounds approved or rejected, summed
+    public long seatsAtClose;               // Valid feeders when they closed, summed
+    public long inactiveAlerts;             // Feeders removed as inactive
+
+    public long[] bucketHour      = new long[BUCKETS];  // Hour held by each bucket
+    public long[] readsByHour     = new long[BUCKETS];  // Paid read calls in the hour
+    public int[] approvedByHour   = new int[BUCKETS];   // Rounds approved in the hour
+    public int[] rejectedByHour   = new int[BUCKETS];   // Rounds rejected in the hour
+
+    public OracleStats() {
+        for(int i = 0; i < BUCKETS; i++){
+            bucketHour[i] = -1;
+        }
+    }
+
+    public void roundOpened() {
+        roundsOpened++;
+    }
+
+    public void roundApproved(long latency, int votes, int validFeeders, long timestamp) {
+        roundsApproved++;
+        latencyTotal   += latency;
+        latencyAverage  = (roundsApproved == 1) ? latency : latencyAverage + (latency - latencyAverage) / LATENCY_WEIGHT;
+        latencyMax      = Math.max(latencyMax, latency);
+        votesAtClose   += votes;
+        seatsAtClose   += validFeeders;
+        approvedByHour[bucket(timestamp)]++;
+    }
+
+    public void roundRejected(int votes, int validFeeders, long timestamp) {
+        roundsRejected++;
+        votesAtClose   += votes;
+        seatsAtClose   += validFeeders;
+        rejectedByHour[bucket(timestamp)]++;
+    }
+
+    public void reads(long reads, long timestamp) {
+        readsByHour[bucket(timestamp)] += reads;
+    }
+
+    public void inactiveAlert() {
+        inactiveAlerts++;
+    }
+
+    /**
+     * Get stats as "roundsOpened,roundsApproved,roundsRejected,
+     * latencyAverage,latencyMax,latencyMean,participationBps,rejectionBps,
+     * reads24h,approved24h,rejected24h,inactiveAlerts"
+     * */
+    public String snapshot(long timestamp) {
+        long hour = timestamp / BUCKET_SECONDS;
+        long reads = 0;
+        long approved = 0;
+        long rejected = 0;
+        for(int i = 0; i < BUCKETS; i++){
+            if(bucketHour[i] > hour - BUCKETS){
+                reads    += readsByHour[i];
+                approved += approvedByHour[i];
+                rejected += rejectedByHour[i];
+            }
+        }
+
+        long closed = roundsApproved + roundsRejected;
+        return roundsOpened + "," + roundsApproved + "," + roundsRejected + ","
+                + latencyAverage + "," + latencyMax + "," + ((roundsApproved == 0) ? 0 : latencyTotal / roundsApproved) + ","
+                + ((seatsAtClose == 0) ? 0 : votesAtClose * 10000 / seatsAtClose) + ","
+                + ((closed == 0) ? 0 : roundsRejected * 10000 / closed) + ","
+                + reads + "," + approved + "," + rejected + "," + inactiveAlerts;
+    }
+
+    /**
+     * Get the bucket of the hour, emptied if it still holds an older hour
+     * */
+    private int bucket(long timestamp) {
+        long hour = timestamp / BUCKET_SECONDS;
+        int index = (int) (hour % BUCKETS);
+        if(bucketHour[index] != hour){
+            bucketHour[index]     = hour;
+            readsByHour[index]    = 0;
+            approvedByHour[index] = 0;
+            rejectedByHour[index] = 0;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,36 @@
+import io.nuls.contract.sdk.Address;
+
+import java.math.BigInteger;
+
+/**
+ * @notice Consumer contract that gets new prices of a feed pushed to it
+ *
+ * @dev Every push costs pricePerRead from the prepaid balance, it is
+ *      only made when price moved deviationBps from the last price pushed.
+ *      A push is queued here until the consumer pulls it or it is delivered
+ * */
+public class Subscription {
+
+    public Address consumer;                // Contract receiving the prices
+    public int deviationBps;                // Min move in basis points to push a price
+    public BigInteger balance;              // Prepaid balance to pay pushes
+    public BigInteger lastPushed;           // Last price pushed, null before the first push
+    public String pending;                  // Report queued and paid, null if none
+
+    public Subscription(Address consumer_, int deviationBps_) {
+        consumer        = consumer_;
+        deviationBps    = deviationBps_;
+        balance         = BigInteger.ZERO;
+    }
+
+    /**
+     * Check if price moved enough since the last push
+     * */
+    public boolean crossed(BigInteger price, BigInteger basisPoints) {
+        if(lastPushed == null){
+            return true;
+        }
+        BigInteger move = price.subtract(lastPushed).abs().multiply(basisPoints);
+        return move.compareTo(lastPushed.multiply(BigInteger.valueOf(deviationBps))) >= 0;
+    }
+}
@@ -0,0 +1,56 @@
+import io.nuls.contract.sdk.Address;
+
+import java.math.BigInteger;
+
+/**
+ * @notice One challenge round of a feed
+ *
+ * @dev Votes are kept as bitsets indexed by the feeder slot, so a
+ *      round costs two numbers no matter how many feeders voted.
+ *      Stake of the votes is added up as they come, so a stake
+ *      weighted quorum is checked without walking the voters
+ * */
+public class VoteRound {
+
+    public int id;                          // Round id inside the feed
+    public BigInteger price;                // Proposed price
+    public Address owner;                   // Feeder that opened the round
+    public int approvs;                     // Approvals of the round
+    public int rejects;                     // Rejections of the round
+    public BigInteger approvStake;          // Balance of the feeders that approved, when they voted
+    public BigInteger rejectStake;          // Balance of the feeders that rejected, when they voted
+    public long expiresAt;                  // Round can't be voted after this
+
+    public BigInteger voted;                // Bit set for every feeder slot that voted
+    public BigInteger approvals;            // Bit set for every feeder slot that approved
+    public boolean closed;                  // True once approved, rejected, expired or superseded
+    public Boolean result;                  // Result of the round, null if expired or superseded
+    public long closedAt;                   // When round was closed
+
+    public VoteRound(int id_, BigInteger price_, Address owner_, long expiresAt_) {
+        id          = id_;
+        price       = price_;
+        owner       = owner_;
+        approvs     = 0;
+        rejects     = 0;
+        approvStake = BigInteger.ZERO;
+        rejectStake = BigInteger.ZERO;
+        expiresAt   = expiresAt_;
+        voted       = BigInteger.ZERO;
+        approvals   = BigInteger.ZERO;
+        closed      = false;
+    }
+
+    public boolean hasVoted(int slot) {
+        return voted.testBit(slot);
+    }
+
+    public boolean approved(int slot) {
+        return approvals.testBit(slot);
+    }
+
+    public void setVote(int slot, boolean approve) {
+        voted       = voted.setBit(slot);
+        approvals   = approve ? approvals.setBit(slot) : approvals.clearBit(slot);
+    }
+}